@@ -0,0 +1,39 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar
+ * Accepts the usual JMH command line (benchmark regex, -f, -wi, -i, -rf json, ...)
+ * and always attaches the GC profiler, so every run reports ops/sec together with
+ * the allocation rate (gc.alloc.rate.norm = bytes allocated per operation)
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cli = new CommandLineOptions(args);
+
+    // -l / -h and friends are handled by the stock JMH launcher
+    if(cli.shouldList() || cli.shouldHelp() || cli.shouldListProfilers()
+        || cli.shouldListResultFormats() || cli.shouldListWithParams()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cli);
+
+    boolean gcRequested = cli.getProfilers().stream()
+        .anyMatch(p -> p.getKlass().equals(GCProfiler.class.getName()) || p.getKlass().equals("gc"));
+    if(!gcRequested) {
+      builder.addProfiler(GCProfiler.class);
+    }
+
+    Options options = builder.build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,57 @@
+package bench.controller;
+
+import java.awt.event.ActionListener;
+import main.view.IThermostatView;
+
+/**
+ * Headless IThermostatView for controller benchmarks
+ * Stores whatever the controller pushes into plain fields, so the work done by the
+ * controller stays observable (and cannot be dead-code eliminated) without any Swing cost
+ */
+class RecordingThermostatView implements IThermostatView {
+  String input = "";
+  String lastMessage;
+  boolean lastMessageWasError;
+
+  double currentTemp;
+  double targetTemp;
+  boolean heating;
+  boolean cooling;
+  long displayUpdates;
+
+  @Override
+  public void addListener(ActionListener listener) {
+    // benchmarks call the controller directly
+  }
+
+  @Override
+  public String getInput() {
+    return input;
+  }
+
+  @Override
+  public void clearInput() {
+    // keep the input so the next invocation parses the same text
+  }
+
+  @Override
+  public void showMessage(String message, boolean isError) {
+    this.lastMessage = message;
+    this.lastMessageWasError = isError;
+  }
+
+  @Override
+  public void updateDisplay(double currentTemp, double targetTemp, boolean isHeating,
+      boolean isCooling) {
+    this.currentTemp = currentTemp;
+    this.targetTemp = targetTemp;
+    this.heating = isHeating;
+    this.cooling = isCooling;
+    this.displayUpdates++;
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    // nothing to show
+  }
+}
@@ -0,0 +1,59 @@
+package bench.controller;
+
+import java.util.concurrent.TimeUnit;
+import main.controller.ThermostatController;
+import main.model.IThermostatModel;
+import main.model.ThermostatModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the controller hot paths against a headless view:
+ * - actionPerformed() parsing user input (valid, comma separator, not a number, rejected by model)
+ * - tick(), i.e. model.updateSystem() + updateView(), for an idle zone
+ *
+ * The controller is never run(), so no Swing Timer is started
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ThermostatControllerBenchmark {
+
+  @Param({"22.5", "22,5", "abc", "50", "20.15"})
+  public String input;
+
+  private RecordingThermostatView view;
+  private ThermostatController controller;
+
+  @Setup
+  public void setUp() {
+    IThermostatModel model = new ThermostatModel();
+    view = new RecordingThermostatView();
+    view.input = input;
+    controller = new ThermostatController(model, view);
+  }
+
+  @Benchmark
+  public String actionPerformed() {
+    controller.actionPerformed(null);
+    return view.lastMessage;
+  }
+
+  @Benchmark
+  public long tickIdle() {
+    controller.tick();
+    return view.displayUpdates;
+  }
+}
@@ -0,0 +1,120 @@
+package bench.energy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import main.energy.EnergyMeter;
+import main.model.ThermostatFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One fleet tick with every zone active, the targets swapped every 50 ticks:
+ * - plain: the fleet alone, the baseline
+ * - metered: the fleet feeding an EnergyMeter through its heating/cooling transitions
+ * - scan: the fleet, then every zone's state added to per-zone and per-building counters
+ * Divide the difference to plain by the zone count for the accounting cost per zone
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnergyMeterBenchmark {
+
+  private static final int BUILDINGS = 16;
+
+  @Param({"100000"})
+  public int zones;
+
+  private ThermostatFleet plainFleet;
+  private ThermostatFleet meteredFleet;
+  private ThermostatFleet scannedFleet;
+  private EnergyMeter meter;
+  private int[] zoneBuilding;
+  private long[] heatingTicks;
+  private long[] coolingTicks;
+  private LongAdder[] buildingHeating;
+  private LongAdder[] buildingCooling;
+  private long ticks;
+
+  @Setup
+  public void setUp() {
+    plainFleet = new ThermostatFleet(zones);
+    meteredFleet = new ThermostatFleet(zones);
+    scannedFleet = new ThermostatFleet(zones);
+    retarget(false);
+
+    zoneBuilding = new int[zones];
+    for(int i = 0; i < zones; i++) {
+      zoneBuilding[i] = i % BUILDINGS;
+    }
+    meter = new EnergyMeter(zoneBuilding, 1000, 2.0, 1.5);
+    meter.observe(meteredFleet);
+
+    heatingTicks = new long[zones];
+    coolingTicks = new long[zones];
+    buildingHeating = new LongAdder[BUILDINGS];
+    buildingCooling = new LongAdder[BUILDINGS];
+    for(int b = 0; b < BUILDINGS; b++) {
+      buildingHeating[b] = new LongAdder();
+      buildingCooling[b] = new LongAdder();
+    }
+  }
+
+  /**
+   * Swaps the targets every 50 ticks so the zones never arrive and go idle
+   * Runs outside the measured region
+   */
+  @Setup(Level.Invocation)
+  public void keepActive() {
+    if(++ticks % 50 == 0) {
+      retarget((ticks / 50 & 1) == 1);
+    }
+  }
+
+  private void retarget(boolean swapped) {
+    for(int i = 0; i < zones; i++) {
+      double target = ((i & 1) == 0) != swapped ? 35.0 : 10.0;
+      plainFleet.setTargetTemperature(i, target);
+      meteredFleet.setTargetTemperature(i, target);
+      scannedFleet.setTargetTemperature(i, target);
+    }
+  }
+
+  @Benchmark
+  public void plain() {
+    plainFleet.updateSystem();
+  }
+
+  @Benchmark
+  public long metered() {
+    meteredFleet.updateSystem();
+    meter.tick();
+    return meter.getTickCount();
+  }
+
+  @Benchmark
+  public void scan() {
+    scannedFleet.updateSystem();
+    for(int i = 0; i < zones; i++) {
+      if(scannedFleet.isHeating(i)) {
+        heatingTicks[i]++;
+        buildingHeating[zoneBuilding[i]].increment();
+      } else if(scannedFleet.isCooling(i)) {
+        coolingTicks[i]++;
+        buildingCooling[zoneBuilding[i]].increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package bench.metrics;
+
+import java.util.concurrent.TimeUnit;
+import main.metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording into a LatencyHistogram shared by all benchmark threads
+ * - record: one thread, the usual case (every controller ticks on the EDT)
+ * - recordContended: four threads recording at once
+ * - timedRecord: a nanoTime pair around nothing plus the record, what an instrumented call adds
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LatencyHistogramBenchmark {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @State(Scope.Thread)
+  public static class Values {
+    long next = 1_000;
+
+    long nextValue() {
+      // walks through a few hundred buckets between 1 us and 1 ms
+      next = next * 31 % 1_000_003;
+      return next;
+    }
+  }
+
+  @Benchmark
+  public void record(Values values) {
+    histogram.record(values.nextValue());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordContended(Values values) {
+    histogram.record(values.nextValue());
+  }
+
+  @Benchmark
+  public void timedRecord() {
+    long start = System.nanoTime();
+    histogram.record(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,97 @@
+package bench.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import main.model.ParallelTickEngine;
+import main.model.ThermostatFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fleet ticks per second against core count
+ * threads = 0 is the serial baseline (ThermostatFleet.updateSystem() on the benchmark thread);
+ * compare the other rows against it to read off the parallel speed-up
+ * activePercent is the share of zones away from their target; the rest sit idle and
+ * should cost (almost) nothing thanks to the fleet's active set
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelTickEngineBenchmark {
+
+  @Param({"1000000"})
+  public int zones;
+
+  @Param({"0", "1", "2", "4", "8", "16"})
+  public int threads;
+
+  @Param({"100", "1"})
+  public int activePercent;
+
+  private ThermostatFleet fleet;
+  private ForkJoinPool pool;
+  private ParallelTickEngine engine;
+  private long ticks;
+
+  @Setup
+  public void setUp() {
+    fleet = new ThermostatFleet(zones);
+    retarget(false);
+
+    if(threads > 0) {
+      pool = new ForkJoinPool(threads);
+      engine = new ParallelTickEngine(fleet, pool);
+    }
+  }
+
+  /**
+   * Swaps the targets every 50 ticks so the active zones never arrive and go idle
+   * Runs outside the measured region
+   */
+  @Setup(Level.Invocation)
+  public void keepActive() {
+    if(++ticks % 50 == 0) {
+      retarget((ticks / 50 & 1) == 1);
+    }
+  }
+
+  private void retarget(boolean swapped) {
+    for(int i = 0; i < zones; i++) {
+      if(i % 100 < activePercent) {
+        // half the active zones head for each end of the range
+        fleet.setTargetTemperature(i, ((i & 1) == 0) != swapped ? 35.0 : 10.0);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if(pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public long tick() {
+    if(engine == null) {
+      fleet.updateSystem();
+      return 0;
+    }
+    engine.tick();
+    return engine.getTickCount();
+  }
+}
@@ -0,0 +1,72 @@
+package bench.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.model.SetpointResults;
+import main.model.ThermostatFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A building-management import of 50k setpoints, some of them bad:
+ * one setTargetTemperature per entry with try/catch against one applyTargets call
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetpointImportBenchmark {
+
+  private static final int ENTRIES = 50_000;
+
+  @Param({"0", "10", "50"})
+  public int invalidPercent;
+
+  private ThermostatFleet fleet;
+  private int[] zones;
+  private double[] temperatures;
+
+  @Setup
+  public void setUp() {
+    fleet = new ThermostatFleet(ENTRIES);
+    zones = new int[ENTRIES];
+    temperatures = new double[ENTRIES];
+
+    Random random = new Random(5);
+    for(int i = 0; i < ENTRIES; i++) {
+      zones[i] = i;
+      temperatures[i] = random.nextInt(100) < invalidPercent
+          ? (random.nextBoolean() ? 50.0 : 20.05) // out of range or too precise
+          : (100 + random.nextInt(251)) / 10.0;
+    }
+  }
+
+  @Benchmark
+  public int exceptions() {
+    int failures = 0;
+    for(int i = 0; i < ENTRIES; i++) {
+      try {
+        fleet.setTargetTemperature(zones[i], temperatures[i]);
+      } catch (IllegalArgumentException e) {
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  @Benchmark
+  public SetpointResults applyTargets() {
+    return fleet.applyTargets(zones, temperatures);
+  }
+}
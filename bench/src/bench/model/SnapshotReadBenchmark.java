@@ -0,0 +1,77 @@
+package bench.model;
+
+import java.util.concurrent.TimeUnit;
+import main.model.ConcurrentThermostatModel;
+import main.model.ThermostatModel;
+import main.model.ThermostatSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One writer ticking a model while three readers take consistent snapshots:
+ * - locked: ThermostatModel with every access inside a synchronized block
+ * - lockFree: ConcurrentThermostatModel, readers never block the writer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotReadBenchmark {
+
+  private final ThermostatModel lockedModel = new ThermostatModel();
+  private final ConcurrentThermostatModel lockFreeModel = new ConcurrentThermostatModel();
+  private int lockedTicks;
+  private int lockFreeTicks;
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(1)
+  public int lockedWriter() {
+    synchronized(lockedModel) {
+      if((++lockedTicks & 63) == 0) {
+        lockedModel.setTargetTemperature(lockedModel.getTargetTenths() == 180 ? 22.0 : 18.0);
+      }
+      lockedModel.updateSystem();
+      return lockedModel.getCurrentTenths();
+    }
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(3)
+  public ThermostatSnapshot lockedReader() {
+    synchronized(lockedModel) {
+      return new ThermostatSnapshot(lockedModel.getCurrentTenths(), lockedModel.getTargetTenths(),
+          lockedModel.isHeating(), lockedModel.isCooling());
+    }
+  }
+
+  @Benchmark
+  @Group("lockFree")
+  @GroupThreads(1)
+  public int lockFreeWriter() {
+    if((++lockFreeTicks & 63) == 0) {
+      lockFreeModel.setTargetTemperature(lockFreeModel.getTargetTenths() == 180 ? 22.0 : 18.0);
+    }
+    lockFreeModel.updateSystem();
+    return lockFreeModel.getCurrentTenths();
+  }
+
+  @Benchmark
+  @Group("lockFree")
+  @GroupThreads(3)
+  public ThermostatSnapshot lockFreeReader() {
+    return lockFreeModel.snapshot();
+  }
+}
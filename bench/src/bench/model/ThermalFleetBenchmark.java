@@ -0,0 +1,56 @@
+package bench.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.model.IThermalPhysics;
+import main.model.ThermalFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RC physics fleet ticks per second, scalar against Vector API lanes
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ThermalFleetBenchmark {
+
+  @Param({"10000"})
+  public int zones;
+
+  @Param({"scalar", "vector"})
+  public String physics;
+
+  private ThermalFleet fleet;
+
+  @Setup
+  public void setUp() {
+    fleet = new ThermalFleet(zones,
+        physics.equals("vector") ? IThermalPhysics.vector() : IThermalPhysics.scalar());
+    fleet.setOutdoorTemperature(5.0);
+
+    Random random = new Random(1);
+    for(int i = 0; i < zones; i++) {
+      fleet.setTargetTemperature(i, (100 + random.nextInt(251)) / 10.0);
+      fleet.setLossCoefficient(i, random.nextDouble() * 0.001);
+    }
+  }
+
+  @Benchmark
+  public ThermalFleet tick() {
+    fleet.updateSystem();
+    return fleet;
+  }
+}
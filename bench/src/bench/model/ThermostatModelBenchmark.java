@@ -0,0 +1,91 @@
+package bench.model;
+
+import java.util.concurrent.TimeUnit;
+import main.model.IThermostatModel;
+import main.model.ThermostatModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the model hot paths:
+ * - updateSystem() on an idle zone and on a zone that is heating/cooling
+ * - setTargetTemperature() with valid input and with both kinds of rejected input
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ThermostatModelBenchmark {
+
+  private IThermostatModel idleModel;
+  private IThermostatModel activeModel;
+  private IThermostatModel setpointModel;
+
+  // flips between the two ends of the range so the active model never settles
+  private boolean headingUp;
+
+  @Setup
+  public void setUp() {
+    idleModel = new ThermostatModel();
+
+    activeModel = new ThermostatModel();
+    activeModel.setTargetTemperature(activeModel.getMaxTemperature());
+    headingUp = true;
+
+    setpointModel = new ThermostatModel();
+  }
+
+  @Benchmark
+  public double updateSystemIdle() {
+    idleModel.updateSystem();
+    return idleModel.getCurrentTemperature();
+  }
+
+  @Benchmark
+  public double updateSystemActive() {
+    activeModel.updateSystem();
+    if(!activeModel.isHeating() && !activeModel.isCooling()) {
+      // reached one end - head for the other one
+      headingUp = !headingUp;
+      activeModel.setTargetTemperature(
+          headingUp ? activeModel.getMaxTemperature() : activeModel.getMinTemperature());
+    }
+    return activeModel.getCurrentTemperature();
+  }
+
+  @Benchmark
+  public double setTargetTemperatureValid() {
+    setpointModel.setTargetTemperature(22.5);
+    return setpointModel.getTargetTemperature();
+  }
+
+  @Benchmark
+  public Object setTargetTemperatureOutOfRange() {
+    try {
+      setpointModel.setTargetTemperature(50.0);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object setTargetTemperatureBadPrecision() {
+    try {
+      setpointModel.setTargetTemperature(20.15);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+}
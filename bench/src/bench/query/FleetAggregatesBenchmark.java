@@ -0,0 +1,135 @@
+package bench.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.model.IThermostatModel;
+import main.model.ThermostatFleet;
+import main.query.FleetAggregates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dashboard statistics (mean, min, max, p95 of the current temperature) over a million zones,
+ * 10% of them moving towards a new target:
+ * - aggregates*: FleetAggregates trees
+ * - scan*: the temperatures of every IThermostatModel, binned into 0.1 °C counts for the percentile
+ * - tick*: a fleet tick with and without the aggregates following it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FleetAggregatesBenchmark {
+
+  @Param({"1000000"})
+  public int zones;
+
+  private ThermostatFleet plain;
+  private ThermostatFleet followed;
+  private List<IThermostatModel> models;
+  private FleetAggregates aggregates;
+  private int tick;
+
+  @Setup
+  public void setUp() {
+    plain = fleet();
+    followed = fleet();
+    aggregates = new FleetAggregates(followed);
+    models = new ArrayList<>(zones);
+    for(int zone = 0; zone < zones; zone++) {
+      models.add(plain.zone(zone));
+    }
+  }
+
+  private ThermostatFleet fleet() {
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    Random random = new Random(42);
+    for(int zone = 0; zone < zones; zone += 10) {
+      fleet.setTargetTemperature(zone, 10.0 + random.nextInt(251) / 10.0);
+    }
+    return fleet;
+  }
+
+  @Benchmark
+  public double aggregatesMean() {
+    return aggregates.getMean();
+  }
+
+  @Benchmark
+  public double aggregatesDashboard() {
+    return aggregates.getMean() + aggregates.getMin() + aggregates.getMax() + aggregates.getPercentile(95);
+  }
+
+  @Benchmark
+  public double scanMean() {
+    double sum = 0;
+    for(IThermostatModel model : models) {
+      sum += model.getCurrentTemperature();
+    }
+    return sum / models.size();
+  }
+
+  @Benchmark
+  public double scanDashboard() {
+    int[] bins = new int[251];
+    double sum = 0;
+    for(IThermostatModel model : models) {
+      double celsius = model.getCurrentTemperature();
+      sum += celsius;
+      bins[(int) Math.round(celsius * 10) - 100]++;
+    }
+    int min = 0;
+    while(bins[min] == 0) {
+      min++;
+    }
+    int max = bins.length - 1;
+    while(bins[max] == 0) {
+      max--;
+    }
+    long rank = (long) Math.ceil(0.95 * models.size());
+    int p95 = 0;
+    for(long seen = bins[0]; seen < rank; seen += bins[++p95]) {
+      // walk up to the bin holding the rank
+    }
+    return sum / models.size() + min + max + p95;
+  }
+
+  @Benchmark
+  public void tickPlain() {
+    retargetNow();
+    plain.updateSystem();
+  }
+
+  @Benchmark
+  public void tickAggregated() {
+    retargetNow();
+    followed.updateSystem();
+    aggregates.tick();
+  }
+
+  /**
+   * Keeps zones moving: every 64th call retargets a few thousand zones of both fleets
+   */
+  private void retargetNow() {
+    if((++tick & 63) == 0) {
+      for(int zone = tick % 200; zone < zones; zone += 200) {
+        double target = 10.0 + (zone + tick) % 251 / 10.0;
+        plain.setTargetTemperature(zone, target);
+        followed.setTargetTemperature(zone, target);
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package bench.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.model.IThermostatModel;
+import main.model.ThermostatFleet;
+import main.query.FleetIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Operator queries over a million zones, 10% of them moving towards a new target:
+ * - index*: FleetIndex bitmaps and arrival buckets
+ * - scan*: isHeating() / the temperatures of every IThermostatModel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FleetIndexBenchmark {
+
+  @Param({"1000000"})
+  public int zones;
+
+  private List<IThermostatModel> models;
+  private FleetIndex index;
+
+  @Setup
+  public void setUp() {
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    Random random = new Random(42);
+    for(int zone = 0; zone < zones; zone += 10) {
+      fleet.setTargetTemperature(zone, 10.0 + random.nextInt(251) / 10.0);
+    }
+    index = new FleetIndex(fleet);
+    for(int tick = 0; tick < 5; tick++) {
+      fleet.updateSystem();
+      index.tick();
+    }
+    models = new ArrayList<>(zones);
+    for(int zone = 0; zone < zones; zone++) {
+      models.add(fleet.zone(zone));
+    }
+  }
+
+  @Benchmark
+  public int indexHeatingCount() {
+    return index.getHeatingCount();
+  }
+
+  @Benchmark
+  public int indexHeatingZones() {
+    return index.heating().cardinality();
+  }
+
+  @Benchmark
+  public int indexOffTargetCount() {
+    return index.countOffTarget(2.0);
+  }
+
+  @Benchmark
+  public int indexOffTargetZones() {
+    return index.offTarget(2.0).cardinality();
+  }
+
+  @Benchmark
+  public int scanHeatingCount() {
+    int count = 0;
+    for(IThermostatModel model : models) {
+      if(model.isHeating()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int scanOffTargetCount() {
+    int count = 0;
+    for(IThermostatModel model : models) {
+      if(Math.abs(model.getCurrentTemperature() - model.getTargetTemperature()) > 2.0 + 1e-9) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
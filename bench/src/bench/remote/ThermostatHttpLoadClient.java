@@ -0,0 +1,201 @@
+package bench.remote;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import main.model.ConcurrentThermostatModel;
+import main.remote.ThermostatHttpServer;
+
+/**
+ * Load generator for {@link ThermostatHttpServer}
+ * Opens every connection first, one virtual thread each, then has all of them send
+ * keep-alive GET /zones/{id} requests one after the other, so the server holds all
+ * connections open at once; the time from sending a request to reading the whole
+ * response is recorded for every request
+ *
+ *   java -cp bench/target/benchmarks.jar bench.remote.ThermostatHttpLoadClient 8080 10000 20
+ */
+public final class ThermostatHttpLoadClient {
+
+  private ThermostatHttpLoadClient() {
+  }
+
+  /**
+   * Sends requests to a running server and measures throughput and latency
+   * @param server the server address
+   * @param connections the number of connections, all open at the same time
+   * @param requestsPerConnection the number of requests each connection sends
+   * @param zones the number of zones on the server; requests are spread over all of them
+   * @return the report; non-200 responses count as rejected
+   * @throws IOException if a connection fails
+   */
+  public static ThermostatLoadClient.LoadReport run(InetSocketAddress server, int connections,
+      int requestsPerConnection, int zones) throws IOException {
+    long[] all = new long[connections * requestsPerConnection];
+    long[] rejected = new long[connections];
+    IOException[] failures = new IOException[connections];
+    CountDownLatch connected = new CountDownLatch(connections);
+    CountDownLatch start = new CountDownLatch(1);
+
+    long begin;
+    long elapsed;
+    try(ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+      for(int c = 0; c < connections; c++) {
+        final int index = c;
+        threads.execute(() -> {
+          try(Socket socket = connect(server, connected)) {
+            start.await();
+            rejected[index] = drive(socket, index, requestsPerConnection, zones,
+                all, index * requestsPerConnection);
+          } catch (IOException e) {
+            failures[index] = e;
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      }
+      try {
+        connected.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while connecting", e);
+      }
+      begin = System.nanoTime();
+      start.countDown();
+    } // close() waits for every connection to finish
+    elapsed = System.nanoTime() - begin;
+
+    long totalRejected = 0;
+    for(int c = 0; c < connections; c++) {
+      if(failures[c] != null) {
+        throw failures[c];
+      }
+      totalRejected += rejected[c];
+    }
+    Arrays.sort(all);
+    return new ThermostatLoadClient.LoadReport(all, elapsed, totalRejected);
+  }
+
+  private static Socket connect(InetSocketAddress server, CountDownLatch connected) throws IOException {
+    try {
+      Socket socket = new Socket();
+      socket.setTcpNoDelay(true);
+      socket.connect(server);
+      return socket;
+    } finally {
+      // count failures too, they are reported once everybody is done
+      connected.countDown();
+    }
+  }
+
+  /**
+   * Runs one connection: one request at a time, each answered before the next is sent
+   * @return the number of non-200 responses
+   */
+  private static long drive(Socket socket, int connection, int requests, int zones,
+      long[] latencies, int offset) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    InputStream in = new BufferedInputStream(socket.getInputStream());
+    long rejected = 0;
+    for(int i = 0; i < requests; i++) {
+      int zone = (int) ((connection * 7919L + i) % zones);
+      byte[] request = ("GET /zones/" + zone + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+          .getBytes(StandardCharsets.US_ASCII);
+      long sentAt = System.nanoTime();
+      out.write(request);
+      out.flush();
+      if(readResponse(in) != 200) {
+        rejected++;
+      }
+      latencies[offset + i] = System.nanoTime() - sentAt;
+    }
+    return rejected;
+  }
+
+  /**
+   * Reads one response with a Content-Length, headers and body
+   * @return the status code
+   */
+  private static int readResponse(InputStream in) throws IOException {
+    String statusLine = readLine(in);
+    if(statusLine.length() < 12 || !statusLine.startsWith("HTTP/1.1 ")) {
+      throw new IOException("Bad status line: " + statusLine);
+    }
+    int status = Integer.parseInt(statusLine.substring(9, 12));
+
+    long length = -1;
+    for(String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+      if(header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+        length = Long.parseLong(header.substring(15).trim());
+      }
+    }
+    if(length < 0) {
+      throw new IOException("Response without Content-Length");
+    }
+    in.skipNBytes(length); // EOFException if the body is cut short
+    return status;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder(64);
+    int b;
+    while((b = in.read()) != '\n') {
+      if(b < 0) {
+        throw new IOException("Server closed the connection");
+      }
+      if(b != '\r') {
+        line.append((char) b);
+      }
+    }
+    return line.toString();
+  }
+
+  /**
+   * ThermostatHttpLoadClient [port] [connections] [requestsPerConnection] [zones]
+   * Without a port (or with port 0) an in-process server is started first; 10k
+   * connections in one process need a file descriptor limit above 20k (ulimit -n)
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+    int zones = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+    ThermostatHttpServer local = null;
+    if(port == 0) {
+      // keep every connection alive, like the standalone server does (default: 200 idle ones)
+      if(System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(connections));
+      }
+      List<ConcurrentThermostatModel> models = new ArrayList<>(zones);
+      for(int i = 0; i < zones; i++) {
+        models.add(new ConcurrentThermostatModel());
+      }
+      local = new ThermostatHttpServer(models, 0);
+      local.run();
+      port = local.getPort();
+    }
+
+    try {
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+      // a short warm-up so the JIT has compiled both sides before we measure
+      run(address, Math.min(connections, 100), requests * 10, zones);
+      System.out.println(run(address, connections, requests, zones));
+    } finally {
+      if(local != null) {
+        local.close();
+      }
+    }
+  }
+}
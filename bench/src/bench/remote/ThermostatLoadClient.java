@@ -0,0 +1,218 @@
+package bench.remote;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import main.model.DeciDegrees;
+import main.model.ThermostatFleet;
+import main.remote.ThermostatProtocol;
+import main.remote.ThermostatServer;
+
+/**
+ * Load generator for {@link ThermostatServer}
+ * Opens several connections, each on its own thread, and keeps up to `window`
+ * SET_TARGET commands in flight per connection; the time from sending a command
+ * to reading its ACK is recorded for every command
+ *
+ *   java -cp bench/target/benchmarks.jar bench.remote.ThermostatLoadClient 7070 4 250000 64
+ */
+public final class ThermostatLoadClient {
+
+  private ThermostatLoadClient() {
+  }
+
+  /**
+   * Result of a load run
+   */
+  public static final class LoadReport {
+    private final long[] latencies; // nanoseconds, sorted
+    private final long elapsedNanos;
+    private final long rejected;
+
+    LoadReport(long[] latencies, long elapsedNanos, long rejected) {
+      this.latencies = latencies;
+      this.elapsedNanos = elapsedNanos;
+      this.rejected = rejected;
+    }
+
+    public long getCommands() {
+      return latencies.length;
+    }
+
+    public long getRejected() {
+      return rejected;
+    }
+
+    public double getCommandsPerSecond() {
+      return latencies.length * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets a latency percentile
+     * @param percentile between 0 and 100, e.g., 99 for p99
+     * @return the latency in nanoseconds
+     */
+    public long getLatencyNanos(double percentile) {
+      if(latencies.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+      return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d commands in %.2f s: %.0f commands/s, latency p50 %.1f us, p99 %.1f us, "
+              + "p99.9 %.1f us, max %.1f us, %d rejected",
+          getCommands(), elapsedNanos / 1e9, getCommandsPerSecond(),
+          getLatencyNanos(50) / 1e3, getLatencyNanos(99) / 1e3, getLatencyNanos(99.9) / 1e3,
+          getLatencyNanos(100) / 1e3, rejected);
+    }
+  }
+
+  /**
+   * Sends setpoints to a running server and measures throughput and latency
+   * @param server the server address
+   * @param connections the number of parallel connections
+   * @param commandsPerConnection the number of commands each connection sends
+   * @param window the most commands in flight per connection
+   * @param zones the number of zones on the server; commands are spread over all of them
+   * @return the report
+   * @throws IOException if a connection fails
+   */
+  public static LoadReport run(InetSocketAddress server, int connections, int commandsPerConnection,
+      int window, int zones) throws IOException {
+    long[][] latencies = new long[connections][];
+    long[] rejected = new long[connections];
+    IOException[] failures = new IOException[connections];
+    Thread[] threads = new Thread[connections];
+
+    long start = System.nanoTime();
+    for(int c = 0; c < connections; c++) {
+      final int index = c;
+      threads[c] = new Thread(() -> {
+        try {
+          latencies[index] = new long[commandsPerConnection];
+          rejected[index] = drive(server, index, commandsPerConnection, window, zones, latencies[index]);
+        } catch (IOException e) {
+          failures[index] = e;
+        }
+      }, "load-client-" + c);
+      threads[c].start();
+    }
+    for(Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for the load threads", e);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+
+    for(IOException failure : failures) {
+      if(failure != null) {
+        throw failure;
+      }
+    }
+
+    long[] all = new long[connections * commandsPerConnection];
+    long totalRejected = 0;
+    for(int c = 0; c < connections; c++) {
+      System.arraycopy(latencies[c], 0, all, c * commandsPerConnection, commandsPerConnection);
+      totalRejected += rejected[c];
+    }
+    Arrays.sort(all);
+    return new LoadReport(all, elapsed, totalRejected);
+  }
+
+  /**
+   * Runs one connection: keeps the window full until every command is acknowledged
+   * @return the number of rejected commands
+   */
+  private static long drive(InetSocketAddress server, int connection, int commands, int window,
+      int zones, long[] latencies) throws IOException {
+    try(SocketChannel channel = SocketChannel.open(server)) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      ByteBuffer output = ByteBuffer.allocateDirect(window * ThermostatProtocol.SET_TARGET_SIZE);
+      ByteBuffer input = ByteBuffer.allocateDirect(64 * 1024);
+      long[] sentAt = new long[commands];
+      int sent = 0;
+      int acked = 0;
+      long rejected = 0;
+
+      while(acked < commands) {
+        // top the window up
+        output.clear();
+        long now = System.nanoTime();
+        while(sent < commands && sent - acked < window) {
+          int zone = (int) ((connection * 7919L + sent) % zones);
+          int tenths = DeciDegrees.MIN + sent % (DeciDegrees.MAX - DeciDegrees.MIN + 1);
+          ThermostatProtocol.putSetTarget(output, sent, zone, tenths);
+          sentAt[sent++] = now;
+        }
+        output.flip();
+        while(output.hasRemaining()) {
+          channel.write(output);
+        }
+
+        // then take whatever ACKs have arrived
+        if(channel.read(input) < 0) {
+          throw new IOException("Server closed the connection after " + acked + " ACKs");
+        }
+        now = System.nanoTime();
+        input.flip();
+        while(input.remaining() >= 4 && input.remaining() >= 4 + input.getInt(input.position())) {
+          int length = input.getInt();
+          byte type = input.get();
+          if(type == ThermostatProtocol.ACK) {
+            int requestId = input.getInt();
+            if(input.get() != 0) {
+              rejected++;
+            }
+            latencies[requestId] = now - sentAt[requestId];
+            acked++;
+          } else {
+            input.position(input.position() + length - 1); // e.g., STATE, not asked for here
+          }
+        }
+        input.compact();
+      }
+      return rejected;
+    }
+  }
+
+  /**
+   * ThermostatLoadClient [port] [connections] [commandsPerConnection] [window] [zones]
+   * Without a port (or with port 0) an in-process server with a fleet is started first
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int commands = args.length > 2 ? Integer.parseInt(args[2]) : 250_000;
+    int window = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+    int zones = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+
+    ThermostatServer local = null;
+    if(port == 0) {
+      local = new ThermostatServer(new ThermostatFleet(zones), 0, 1000);
+      local.run();
+      port = local.getPort();
+    }
+
+    try {
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+      // a short warm-up so the JIT has compiled both sides before we measure
+      run(address, connections, Math.min(commands, 50_000), window, zones);
+      System.out.println(run(address, connections, commands, window, zones));
+    } finally {
+      if(local != null) {
+        local.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package bench.schedule;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import main.model.DeciDegrees;
+import main.model.IThermostatModel;
+import main.model.ThermostatFleet;
+import main.schedule.ScheduleEngine;
+import main.schedule.WeeklyProgram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One-minute schedule ticks over a fleet with weekly programs, 64 distinct programs shared by all zones:
+ * - engine: ScheduleEngine, visits only the transitions due this minute
+ * - scan: looks up every zone's program and sets the target if it differs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScheduleEngineBenchmark {
+
+  private static final int PROGRAMS = 64;
+
+  @Param({"100000"})
+  public int zones;
+
+  private List<IThermostatModel> models;
+  private WeeklyProgram[] zonePrograms;
+  private ScheduleEngine engine;
+  private int minute;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    WeeklyProgram[] programs = new WeeklyProgram[PROGRAMS];
+    for(int p = 0; p < PROGRAMS; p++) {
+      // four changes a day, weekends on their own times
+      WeeklyProgram.Builder builder = WeeklyProgram.builder();
+      for(DayOfWeek day : DayOfWeek.values()) {
+        int offset = day.getValue() >= 6 ? 60 : 0;
+        builder.at(day, 6, (p + offset) % 60, 20.0 + p % 5 / 10.0)
+            .at(day, 8 + offset / 60, p % 60, 18.0)
+            .at(day, 17, (p * 7) % 60, 21.0)
+            .at(day, 22, (p * 3) % 60, 18.5);
+      }
+      programs[p] = builder.build();
+    }
+
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    models = new ArrayList<>(zones);
+    zonePrograms = new WeeklyProgram[zones];
+    for(int zone = 0; zone < zones; zone++) {
+      models.add(fleet.zone(zone));
+    }
+    engine = new ScheduleEngine(models, 0);
+    for(int zone = 0; zone < zones; zone++) {
+      zonePrograms[zone] = programs[random.nextInt(PROGRAMS)];
+      engine.assign(zone, zonePrograms[zone]);
+    }
+    minute = 0;
+  }
+
+  @Benchmark
+  public int engine() {
+    minute = minute + 1 == WeeklyProgram.MINUTES_PER_WEEK ? 0 : minute + 1;
+    return engine.advanceTo(minute);
+  }
+
+  @Benchmark
+  public int scan() {
+    minute = minute + 1 == WeeklyProgram.MINUTES_PER_WEEK ? 0 : minute + 1;
+    int applied = 0;
+    for(int zone = 0; zone < zonePrograms.length; zone++) {
+      int tenths = zonePrograms[zone].tenthsAt(minute);
+      IThermostatModel model = models.get(zone);
+      if(model.getTargetTenths() != tenths) {
+        model.setTargetTemperature(DeciDegrees.toCelsius(tenths));
+        applied++;
+      }
+    }
+    return applied;
+  }
+}
@@ -0,0 +1,57 @@
+package bench.view;
+
+import java.util.concurrent.TimeUnit;
+import main.view.ThermostatView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for ThermostatView.updateDisplay()
+ * - steady: the same values every call (an idle zone at its target)
+ * - changing: the current temperature moves by 0.1 every call (a heating zone)
+ *
+ * Needs a display: ThermostatView is a JFrame and cannot be created with java.awt.headless=true
+ * (use xvfb-run on a server). The frame is never made visible
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ThermostatViewBenchmark {
+
+  private ThermostatView view;
+  private int step;
+
+  @Setup
+  public void setUp() {
+    view = new ThermostatView();
+  }
+
+  @TearDown
+  public void tearDown() {
+    view.dispose();
+  }
+
+  @Benchmark
+  public void updateDisplaySteady() {
+    view.updateDisplay(21.0, 21.0, false, false);
+  }
+
+  @Benchmark
+  public void updateDisplayChanging() {
+    // 10.0 .. 35.0 in 0.1 steps, like a zone heating across the whole range
+    step = (step + 1) % 251;
+    view.updateDisplay(10.0 + step / 10.0, 35.0, true, false);
+  }
+}
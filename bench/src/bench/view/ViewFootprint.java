@@ -0,0 +1,78 @@
+package bench.view;
+
+import java.awt.GraphicsEnvironment;
+import java.lang.management.ManagementFactory;
+import main.controller.ThermostatController;
+import main.model.ThermostatModel;
+import main.scheduler.TimingWheelScheduler;
+import main.view.HeadlessThermostatView;
+import main.view.IThermostatView;
+import main.view.ThermostatView;
+
+/**
+ * Startup time and memory per view, one view kind per JVM so class loading is counted:
+ *
+ *   java -cp bench/target/benchmarks.jar bench.view.ViewFootprint headless 10000
+ *   java -cp bench/target/benchmarks.jar bench.view.ViewFootprint swing 100     # needs a display
+ *
+ * Reports the JVM uptime when the first view has shown its first temperature, the classes
+ * loaded by then, and the retained heap per (model, view, controller) after creating n of them
+ */
+public class ViewFootprint {
+
+  public static void main(String[] args) throws Exception {
+    String kind = args.length > 0 ? args[0] : "headless";
+    int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    boolean swing = kind.equals("swing");
+    if(swing && GraphicsEnvironment.isHeadless()) {
+      System.out.println("swing: needs a display, e.g., run it under xvfb-run");
+      return;
+    }
+
+    // ticks are never due while we measure, but the controllers are registered like in the app
+    TimingWheelScheduler scheduler = new TimingWheelScheduler(10, Runnable::run);
+
+    Object[] keep = new Object[count];
+    keep[0] = create(swing, scheduler);
+    long firstDisplayMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    int classes = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+    long before = usedHeap();
+    for(int i = 1; i < count; i++) {
+      keep[i] = create(swing, scheduler);
+    }
+    long after = usedHeap();
+
+    System.out.printf("%s: first display at %d ms JVM uptime, %d classes loaded, %.0f bytes per view (%d views)%n",
+        kind, firstDisplayMillis, classes, (after - before) / (double) Math.max(1, count - 1), count);
+    if(keep[count - 1] instanceof ThermostatView frame) {
+      frame.dispose();
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Creates a model, a view and a controller showing the model, as ThermostatApp does
+   */
+  private static IThermostatView create(boolean swing, TimingWheelScheduler scheduler) {
+    IThermostatView view = swing ? new ThermostatView() : new HeadlessThermostatView(16);
+    ThermostatController controller = new ThermostatController(new ThermostatModel(), view, scheduler);
+    if(swing) {
+      // run() would open a window per view; wire it up the same way without showing it
+      view.addListener(controller);
+      view.updateDisplay(20.0, 20.0, false, false);
+    } else {
+      controller.run();
+    }
+    return view;
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for(int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
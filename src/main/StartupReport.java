@@ -0,0 +1,99 @@
+package main;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import main.scheduler.TimingWheelScheduler;
+
+/**
+ * Time from JVM start to the first temperature on screen, for tracking startup regressions
+ *
+ *   -Dthermostat.startupReport=startup.csv   append one CSV line per start (and print it)
+ *   -Dthermostat.exitAfterStartup=true       exit shortly after, e.g., for AppCDS training runs
+ *
+ * The CSV columns are: time, mode, cds, firstPaintMillis, classesLoaded
+ * where firstPaintMillis is the JVM uptime when the temperatures were first painted
+ * (first shown, in headless mode) and cds tells whether an AppCDS archive was used
+ */
+public final class StartupReport {
+
+  private static final String REPORT_FILE = System.getProperty("thermostat.startupReport");
+  private static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("thermostat.exitAfterStartup");
+  private static final String HEADER = "time,mode,cds,firstPaintMillis,classesLoaded";
+
+  // Time left for lazily built UI to finish (and be archived) before exiting
+  private static final int EXIT_DELAY_MS = 1000;
+
+  private StartupReport() {
+  }
+
+  /**
+   * Tells whether anything should happen at the first paint at all
+   * @return true if a report or an exit was asked for
+   */
+  static boolean isEnabled() {
+    return REPORT_FILE != null || EXIT_AFTER_STARTUP;
+  }
+
+  /**
+   * Records the first paint; call it right when it happens
+   * @param mode how the app was started, e.g., "fast", "full" or "headless"
+   * @param scheduler runs the delayed exit, if one was asked for
+   */
+  static void firstPaint(String mode, TimingWheelScheduler scheduler) {
+    long paintedAt = System.nanoTime();
+    // the first management call loads a few hundred classes; leave that time out
+    long uptime = ManagementFactory.getRuntimeMXBean().getUptime() - (System.nanoTime() - paintedAt) / 1_000_000;
+    if(REPORT_FILE != null) {
+      int classes = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+      String line = line(Instant.now(), mode, usesArchive(), uptime, classes);
+      System.err.println("Startup: " + line);
+      append(Path.of(REPORT_FILE), line);
+    }
+    if(EXIT_AFTER_STARTUP) {
+      scheduler.schedule(() -> System.exit(0), EXIT_DELAY_MS);
+    }
+  }
+
+  private static boolean usesArchive() {
+    for(String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      if(argument.startsWith("-XX:SharedArchiveFile")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Formats one report line, in the order of the CSV header
+   * @param time when the first paint happened
+   * @param mode how the app was started
+   * @param cds whether an AppCDS archive was used
+   * @param firstPaintMillis JVM uptime at the first paint
+   * @param classesLoaded classes loaded at the first paint
+   * @return the line, without a line break
+   */
+  public static String line(Instant time, String mode, boolean cds, long firstPaintMillis, int classesLoaded) {
+    return time + "," + mode + "," + cds + "," + firstPaintMillis + "," + classesLoaded;
+  }
+
+  /**
+   * Appends a line to a report file, starting a new file with the CSV header
+   * A file that cannot be written is reported on stderr, startup goes on
+   * @param file the report file
+   * @param line the line, as from {@link #line}
+   */
+  public static void append(Path file, String line) {
+    try {
+      String text = Files.exists(file) ? line + "\n" : HEADER + "\n" + line + "\n";
+      Files.writeString(file, text, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      System.err.println("Cannot write startup report: " + e.getMessage());
+    }
+  }
+}
@@ -1,18 +1,162 @@
 package main;
 
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
 import main.controller.IThermostatController;
 import main.controller.ThermostatController;
+import main.metrics.ThermostatMetrics;
 import main.model.IThermostatModel;
 import main.model.ThermostatModel;
+import main.persistence.StateJournal;
+import main.scheduler.TimingWheelScheduler;
+import main.view.HeadlessThermostatView;
 import main.view.IThermostatView;
 import main.view.ThermostatView;
 
 public class ThermostatApp {
+  // Where the journal lives; override with -Dthermostat.journal.dir=...
+  private static final String JOURNAL_DIR = System.getProperty("thermostat.journal.dir", "journal");
+  private static final int SNAPSHOT_INTERVAL_MS = 60_000; // 1 minute
+  // Flags of the state published for the shutdown snapshot
+  private static final long PUBLISHED_HEATING = 1L << 32;
+  private static final long PUBLISHED_COOLING = 1L << 33;
+  private static final int HEADLESS_HISTORY = 64; // display updates kept by the headless view
+  // Show the temperatures first and build the rest of the window afterwards; -Dthermostat.fastStart=true
+  private static final boolean FAST_START = Boolean.getBoolean("thermostat.fastStart");
+  // Publish the update cycle histograms as JMX MBeans; -Dthermostat.jmx=false to turn off
+  private static final boolean JMX = Boolean.parseBoolean(System.getProperty("thermostat.jmx", "true"));
+  private static final int METRICS_DELAY_MS = 5000; // well after the first paint
+
   public static void main(String[] args) {
-      IThermostatModel model = new ThermostatModel();
-      IThermostatView view = new ThermostatView();
+      ThermostatModel model = new ThermostatModel();
+
+      if(GraphicsEnvironment.isHeadless()) {
+          // no display (or java.awt.headless=true): no Swing at all, setpoints come from stdin
+          runHeadless(model);
+          return;
+      }
+
+      startJournal(model, TimingWheelScheduler.shared());
+
+      Runnable onFirstPaint = null;
+      if(StartupReport.isEnabled()) {
+          onFirstPaint = () -> StartupReport.firstPaint(FAST_START ? "fast" : "full", TimingWheelScheduler.shared());
+      }
+      IThermostatView view = new ThermostatView(model.getMinTemperature(), model.getMaxTemperature(),
+              FAST_START, onFirstPaint);
       IThermostatController controller = new ThermostatController(model, view);
 
       controller.run();
+      startMetrics(TimingWheelScheduler.shared());
+  }
+
+  /**
+   * Runs without a window: display changes and messages go to stdout, every line read
+   * from stdin is a setpoint. Everything runs on the scheduler thread, not on the EDT
+   * @param model the model to control
+   */
+  private static void runHeadless(ThermostatModel model) {
+      TimingWheelScheduler scheduler = new TimingWheelScheduler(10, Runnable::run);
+      scheduler.start();
+      startJournal(model, scheduler);
+
+      HeadlessThermostatView view = new HeadlessThermostatView(HEADLESS_HISTORY, System.out);
+      new ThermostatController(model, view, scheduler).run();
+      if(StartupReport.isEnabled()) {
+          StartupReport.firstPaint("headless", scheduler);
+      }
+      startMetrics(scheduler);
+
+      try(BufferedReader in = new BufferedReader(new InputStreamReader(System.in))) {
+          for(String line = in.readLine(); line != null; line = in.readLine()) {
+              if(line.isBlank()) {
+                  continue;
+              }
+              String setpoint = line;
+              scheduler.schedule(() -> view.submit(setpoint), 0);
+          }
+      } catch (IOException e) {
+          System.err.println("Cannot read setpoints: " + e.getMessage());
+      }
+      // stdin closed; the scheduler thread is a daemon, so keep serving until killed
+      try {
+          Thread.currentThread().join();
+      } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+      }
+  }
+
+  /**
+   * Registers the metrics MBeans a few seconds after startup, on a background thread,
+   * so loading JMX neither delays the first paint nor blocks the scheduler's dispatcher
+   * @param scheduler the scheduler whose queue delay is published
+   */
+  private static void startMetrics(TimingWheelScheduler scheduler) {
+      if(!JMX) {
+          return;
+      }
+      Thread registration = new Thread(() -> {
+          try {
+              ThermostatMetrics.shared().register(scheduler);
+          } catch (JMException e) {
+              System.err.println("Metrics unavailable over JMX: " + e.getMessage());
+          }
+      }, "metrics-registration");
+      registration.setDaemon(true);
+      scheduler.schedule(registration::start, METRICS_DELAY_MS);
+  }
+
+  /**
+   * Restores the model from the journal and keeps journaling its setpoints and state
+   * Without a usable journal the app still runs, it just starts from the defaults
+   * @param model the model to restore and persist
+   * @param scheduler runs the periodic snapshots, on the same thread that updates the model
+   */
+  private static void startJournal(ThermostatModel model, TimingWheelScheduler scheduler) {
+      Path directory = Path.of(JOURNAL_DIR);
+      StateJournal journal;
+      try {
+          StateJournal.recover(directory, 1).applyTo(0, model);
+          journal = StateJournal.open(directory);
+      } catch (IOException | IllegalArgumentException e) {
+          System.err.println("Journal unavailable, settings will not be saved: " + e.getMessage());
+          return;
+      }
+
+      // the model is only touched on its own thread; every change publishes a packed copy of
+      // its state there, for the shutdown hook, which may run while that thread is the one
+      // exiting (EXIT_ON_CLOSE on the EDT, a scheduled System.exit in headless mode)
+      AtomicLong published = new AtomicLong(pack(model));
+      model.addChangeListener(changeMask -> {
+          if((changeMask & IThermostatModel.ChangeListener.TARGET_TEMPERATURE) != 0) {
+              journal.recordSetpoint(0, model.getTargetTenths());
+          }
+          published.set(pack(model));
+      });
+      scheduler.scheduleAtFixedRate(() -> journal.snapshot(model), SNAPSHOT_INTERVAL_MS);
+
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+          long state = published.get();
+          try {
+              journal.snapshot((short) state, (short) (state >>> 16),
+                  (state & PUBLISHED_HEATING) != 0, (state & PUBLISHED_COOLING) != 0);
+              journal.close();
+          } catch (RuntimeException e) {
+              System.err.println("Journal not closed cleanly: " + e);
+          }
+      }, "journal-shutdown"));
+  }
+
+  /**
+   * Packs a model's state into a long: current and target tenths, then the two flags
+   */
+  private static long pack(IThermostatModel model) {
+      return (model.getCurrentTenths() & 0xFFFFL) | (model.getTargetTenths() & 0xFFFFL) << 16
+          | (model.isHeating() ? PUBLISHED_HEATING : 0) | (model.isCooling() ? PUBLISHED_COOLING : 0);
   }
-}
\ No newline at end of file
+}
@@ -2,10 +2,14 @@ package main.controller;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import javax.swing.*;
 
+import main.metrics.ThermostatMetrics;
+import main.model.DeciDegrees;
 import main.model.IThermostatModel;
+import main.model.Setpoints;
+import main.model.TenthsParser;
 import main.model.ThermostatModel;
+import main.scheduler.TimingWheelScheduler;
 import main.view.IThermostatView;
 import main.view.ThermostatView;
 
@@ -20,13 +24,24 @@ public class ThermostatController implements IThermostatController, ActionListen
   private IThermostatModel model;
   private IThermostatView view;
 
-  private Timer updateTimer;
+  private final TimingWheelScheduler scheduler;
+  private TimingWheelScheduler.Timeout updateTimer;
   private static final int UPDATE_INTERVAL_MS = 1000; // 1 second
 
-  // Fields to track previous state
+  // Tick duration, timer jitter and render time, shared by all controllers by default
+  private final ThermostatMetrics metrics;
+  private long lastTimerNanos;
+  private boolean inTimerTick = false; // render time is only recorded then
+
+  // Fields to track previous state, as last shown
+  private double shownCurrent;
+  private double shownTarget;
   private boolean wasHeating = false;
   private boolean wasCooling = false;
 
+  // true when the model pushes its changes, so the view is only refreshed on a change
+  private boolean modelPushesChanges = false;
+
 
   /**
    * Creates a new controller with the given model and view
@@ -39,8 +54,37 @@ public class ThermostatController implements IThermostatController, ActionListen
    * @param view the user interface
    */
   public ThermostatController(IThermostatModel model, IThermostatView view) {
+    this(model, view, TimingWheelScheduler.shared());
+  }
+
+  /**
+   * Creates a new controller whose periodic updates run on the given scheduler
+   * All controllers of an application normally share one scheduler, so thousands of
+   * zones cost one timer thread instead of one Swing Timer each
+   *
+   * @param model the thermostat model containing business logic
+   * @param view the user interface
+   * @param scheduler the scheduler that drives the update ticks
+   */
+  public ThermostatController(IThermostatModel model, IThermostatView view,
+      TimingWheelScheduler scheduler) {
+    this(model, view, scheduler, ThermostatMetrics.shared());
+  }
+
+  /**
+   * Creates a new controller that records its update cycle into the given metrics
+   *
+   * @param model the thermostat model containing business logic
+   * @param view the user interface
+   * @param scheduler the scheduler that drives the update ticks
+   * @param metrics receives the tick duration, timer jitter and render time
+   */
+  public ThermostatController(IThermostatModel model, IThermostatView view,
+      TimingWheelScheduler scheduler, ThermostatMetrics metrics) {
     this.model = model;
     this.view = view;
+    this.scheduler = scheduler;
+    this.metrics = metrics;
   }
 
   /**
@@ -49,6 +93,7 @@ public class ThermostatController implements IThermostatController, ActionListen
   @Override
   public void run() {
     view.addListener(this);
+    modelPushesChanges = model.addChangeListener(this::modelChanged);
     setupUpdateTimer();
     updateView();
     view.setVisible(true);
@@ -59,12 +104,40 @@ public class ThermostatController implements IThermostatController, ActionListen
    * This simulates a real thermostat that constantly monitors temperature
    */
   private void setupUpdateTimer() {
-    updateTimer = new Timer(UPDATE_INTERVAL_MS, e -> {
-        // this code runs every second
-        model.updateSystem();
-        updateView();
-    });
-    updateTimer.start(); // start the timer
+    // this code runs every second
+    lastTimerNanos = System.nanoTime();
+    updateTimer = scheduler.scheduleAtFixedRate(this::timerTick, UPDATE_INTERVAL_MS);
+  }
+
+  /**
+   * Runs a tick for the update timer, recording how far it is off the update interval
+   * and how long it took, and the view refresh it causes; direct tick() calls and refreshes after
+   * user actions are not timed, the clock reads cost more than an idle tick
+   */
+  private void timerTick() {
+    long start = System.nanoTime();
+    metrics.getTimerJitter().record(Math.abs(start - lastTimerNanos - UPDATE_INTERVAL_MS * 1_000_000L));
+    lastTimerNanos = start;
+    inTimerTick = true;
+    try {
+      tick();
+    } finally {
+      inTimerTick = false;
+    }
+    metrics.getTickDuration().record(System.nanoTime() - start);
+  }
+
+  /**
+   * Runs one update cycle: advances the model by one step and refreshes the view
+   * If the model publishes changes, the view was already refreshed by the change listener
+   * (and not at all if nothing changed), otherwise we fall back to polling every tick
+   * Called by the update timer; public so benchmarks and other schedulers can drive it
+   */
+  public void tick() {
+    model.updateSystem();
+    if(!modelPushesChanges) {
+      updateView();
+    }
   }
 
   /**
@@ -72,9 +145,36 @@ public class ThermostatController implements IThermostatController, ActionListen
    * This is called both by the timer and after user actions
    */
   private void updateView(){
-    boolean isHeating = model.isHeating();
-    boolean isCooling = model.isCooling();
+    shownCurrent = model.getCurrentTemperature();
+    shownTarget = model.getTargetTemperature();
+    updateSystems(model.isHeating(), model.isCooling());
+    render();
+  }
 
+  /**
+   * Updates the view after the model published a change, reading only what changed
+   * The completion messages are only checked when heating or cooling changed
+   * @param changeMask the ChangeListener bits of what changed
+   */
+  private void modelChanged(int changeMask) {
+    if((changeMask & IThermostatModel.ChangeListener.CURRENT_TEMPERATURE) != 0) {
+      shownCurrent = model.getCurrentTemperature();
+    }
+    if((changeMask & IThermostatModel.ChangeListener.TARGET_TEMPERATURE) != 0) {
+      shownTarget = model.getTargetTemperature();
+    }
+    if((changeMask & (IThermostatModel.ChangeListener.HEATING | IThermostatModel.ChangeListener.COOLING)) != 0) {
+      updateSystems(model.isHeating(), model.isCooling());
+    }
+    render();
+  }
+
+  /**
+   * Shows a message when heating or cooling has finished and remembers the new state
+   * @param isHeating true if the heating system is now active
+   * @param isCooling true if the cooling system is now active
+   */
+  private void updateSystems(boolean isHeating, boolean isCooling) {
     if(wasHeating && !isHeating) { // Was heating AND now IS NOT heating
       view.showMessage("Heating complete", false);
     }
@@ -83,18 +183,24 @@ public class ThermostatController implements IThermostatController, ActionListen
       view.showMessage("Cooling complete", false);
     }
 
-    view.updateDisplay(
-        model.getCurrentTemperature(),
-        model.getTargetTemperature(),
-        model.isHeating(),
-        model.isCooling()
-    );
-
     // remember current state for next update
     wasHeating = isHeating;
     wasCooling = isCooling;
   }
 
+  /**
+   * Shows the remembered state; timed when a timer tick caused it
+   */
+  private void render() {
+    if(inTimerTick) {
+      long start = System.nanoTime();
+      view.updateDisplay(shownCurrent, shownTarget, wasHeating, wasCooling);
+      metrics.getRenderTime().record(System.nanoTime() - start);
+    } else {
+      view.updateDisplay(shownCurrent, shownTarget, wasHeating, wasCooling);
+    }
+  }
+
   /**
    * Handles the "Set Temperature" button click
    * This method is called automatically when user clicks the button
@@ -104,24 +210,28 @@ public class ThermostatController implements IThermostatController, ActionListen
   public void actionPerformed(ActionEvent e) {
     String userInput = view.getInput();
 
-    try {
-      userInput = userInput.replace(",", ".");
-
-      // try to convert text to a number
-      double temperature = Double.parseDouble(userInput);
+    // accepts both "22.5" and "22,5" and rejects anything finer than 0.1 right here
+    int tenths = TenthsParser.parse(userInput);
+    if(tenths == TenthsParser.NOT_A_NUMBER) {
+      // user typed something that's not a number (like "abc")
+      view.showMessage("Please enter a valid number", true);
+      return;
+    }
+    if(tenths == TenthsParser.TOO_PRECISE) {
+      view.showMessage(Setpoints.describe(Setpoints.NOT_TENTHS, Double.NaN,
+          model.getMinTemperature(), model.getMaxTemperature()), true);
+      return;
+    }
 
-      // this might throw IllegalArgumentException for TWO reasons:
-      // 1. out of bounds (e.g., 123)
-      // 2. wrong precision (e.g., 20.15)
+    double temperature = DeciDegrees.toCelsius(tenths);
+    try {
+      // this might still throw IllegalArgumentException if out of bounds (e.g., 123)
       model.setTargetTemperature(temperature);
 
       view.showMessage("Target set to " + temperature + "°C", false);
       view.clearInput();
-    } catch (NumberFormatException ex) {
-      // user typed something that's not a number (like "abc")
-      view.showMessage("Please enter a valid number", true);
     } catch (IllegalArgumentException ex) {
-      // model validation failed (bounds OR precision)
+      // model validation failed
       // the model gives us the specific error message
       view.showMessage(ex.getMessage(), true);
     }
@@ -0,0 +1,431 @@
+package main.energy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import main.model.IThermostatModel;
+import main.model.IThermostatModel.ChangeListener;
+import main.model.ThermostatFleet;
+
+/**
+ * Heating and cooling runtime and estimated energy use, per zone, per building and for the fleet
+ *
+ * The meter is fed by heating/cooling transitions only, never by a per-zone scan: a zone
+ * that turns on records the tick it started at, a zone that turns off adds the run it just
+ * finished. A running zone is counted as (now - start), so a tick costs nothing per zone and a
+ * transition costs a few array writes plus two adds per mode. Building totals are LongAdders,
+ * so zones of one building stepped by different threads do not contend on one counter
+ *
+ * Energy is estimated from the rated electrical power of a zone's heating and cooling
+ * (the same for every zone): kWh = runtime hours * rated kW
+ *
+ * Threading: a zone's transitions must come from the thread that steps that zone (any thread,
+ * e.g. ParallelTickEngine workers), and {@link #tick()} from one thread after all zones finished
+ * the tick. Totals can be read from any thread at any time; while a tick is in progress they may
+ * be off by the runs changing at that moment, like any LongAdder sum. Per-zone values are exact
+ * when read from the ticking thread or between ticks
+ */
+public class EnergyMeter {
+
+  public static final int HOURS = 24; // hourly buckets kept
+  public static final int DAYS = 7;   // daily buckets kept
+
+  private static final int MILLIS_PER_HOUR = 3_600_000;
+  private static final byte IDLE = 0;
+  private static final byte HEATING = 1;
+  private static final byte COOLING = 2;
+
+  private final int tickMillis;
+  private final int ticksPerHour;
+  private final double heatingKw;
+  private final double coolingKw;
+
+  // Per zone: closed runs in ticks, start tick of the run in progress, and what is running
+  private final int[] zoneBuilding;
+  private final long[] heatingTicks;
+  private final long[] coolingTicks;
+  private final long[] runStart;
+  private final byte[] mode;
+
+  // Per building and mode: sum of (end - start) over closed runs minus the starts of open runs,
+  // and the number of open runs; the runtime so far is runTicks + running * now
+  private final LongAdder[] heatingRunTicks;
+  private final LongAdder[] heatingRunning;
+  private final LongAdder[] coolingRunTicks;
+  private final LongAdder[] coolingRunning;
+
+  // Rolling buckets per building, heating and cooling ticks side by side: [building][slot][mode]
+  // Marks are the totals at the start of the current hour and day: [building][hour/day][mode]
+  private final AtomicLongArray hourly;
+  private final AtomicLongArray daily;
+  private final AtomicLongArray marks;
+
+  private volatile long now; // completed ticks
+
+  /**
+   * Creates a meter with every zone idle
+   * @param zoneBuilding the building of each zone, 0-based; its length is the number of zones
+   * @param tickMillis the simulated time of one tick, must divide an hour
+   * @param heatingKw the rated electrical power of one zone's heating
+   * @param coolingKw the rated electrical power of one zone's cooling
+   * @throws IllegalArgumentException if the tick length, a power or a building is invalid
+   */
+  public EnergyMeter(int[] zoneBuilding, int tickMillis, double heatingKw, double coolingKw) {
+    if(tickMillis <= 0 || MILLIS_PER_HOUR % tickMillis != 0) {
+      throw new IllegalArgumentException("Tick length must divide an hour. Provided: " + tickMillis + " ms");
+    }
+    if(!(heatingKw >= 0) || !(coolingKw >= 0)) {
+      throw new IllegalArgumentException("Rated power must not be negative. Provided: "
+          + heatingKw + " kW heating, " + coolingKw + " kW cooling");
+    }
+
+    int buildings = 0;
+    for(int building : zoneBuilding) {
+      if(building < 0) {
+        throw new IllegalArgumentException("Building must not be negative. Provided: " + building);
+      }
+      buildings = Math.max(buildings, building + 1);
+    }
+
+    this.tickMillis = tickMillis;
+    this.ticksPerHour = MILLIS_PER_HOUR / tickMillis;
+    this.heatingKw = heatingKw;
+    this.coolingKw = coolingKw;
+
+    int zones = zoneBuilding.length;
+    this.zoneBuilding = zoneBuilding.clone();
+    this.heatingTicks = new long[zones];
+    this.coolingTicks = new long[zones];
+    this.runStart = new long[zones];
+    this.mode = new byte[zones];
+
+    this.heatingRunTicks = adders(buildings);
+    this.heatingRunning = adders(buildings);
+    this.coolingRunTicks = adders(buildings);
+    this.coolingRunning = adders(buildings);
+
+    this.hourly = new AtomicLongArray(buildings * HOURS * 2);
+    this.daily = new AtomicLongArray(buildings * DAYS * 2);
+    this.marks = new AtomicLongArray(buildings * 4);
+  }
+
+  /**
+   * Creates a meter for zones that all belong to one building
+   * @param zones the number of zones
+   * @param tickMillis the simulated time of one tick, must divide an hour
+   * @param heatingKw the rated electrical power of one zone's heating
+   * @param coolingKw the rated electrical power of one zone's cooling
+   */
+  public EnergyMeter(int zones, int tickMillis, double heatingKw, double coolingKw) {
+    this(new int[zones], tickMillis, heatingKw, coolingKw);
+  }
+
+  private static LongAdder[] adders(int count) {
+    LongAdder[] adders = new LongAdder[count];
+    for(int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  /**
+   * Feeds the meter from every zone of a fleet, starting with the zones' current state
+   * Zone i of the fleet is zone i of the meter
+   * Restore saved states before, the fleet refuses to restore afterwards
+   * Runtimes are exact when the fleet is stepped tick by tick; a multi-tick advance() only
+   * reports the net change at its end
+   * @param fleet the fleet, with exactly as many zones as the meter
+   * @throws IllegalArgumentException if the sizes differ
+   */
+  public void observe(ThermostatFleet fleet) {
+    if(fleet.size() != mode.length) {
+      throw new IllegalArgumentException("Fleet has " + fleet.size() + " zones, meter has " + mode.length);
+    }
+    for(int zone = 0; zone < mode.length; zone++) {
+      transition(zone, fleet.isHeating(zone), fleet.isCooling(zone));
+    }
+    fleet.addTransitionListener(this::transition);
+  }
+
+  /**
+   * Feeds one zone of the meter from a model, starting with the model's current state
+   * @param zone the zone
+   * @param model the model
+   * @return true if the model publishes its changes, false if it has to be polled with
+   *     {@link #transition} after every updateSystem()
+   */
+  public boolean observe(int zone, IThermostatModel model) {
+    transition(zone, model.isHeating(), model.isCooling());
+    return model.addChangeListener(changeMask -> {
+      if((changeMask & (ChangeListener.HEATING | ChangeListener.COOLING)) != 0) {
+        transition(zone, model.isHeating(), model.isCooling());
+      }
+    });
+  }
+
+  /**
+   * Records the heating/cooling state of a zone after it was stepped; a repeated state is a no-op
+   * @param zone the zone
+   * @param heating true if heating is on
+   * @param cooling true if cooling is on
+   */
+  public void transition(int zone, boolean heating, boolean cooling) {
+    byte next = heating ? HEATING : cooling ? COOLING : IDLE;
+    byte previous = mode[zone];
+    if(next == previous) {
+      return;
+    }
+
+    // a run started during tick t covers ticks t, t+1, ... up to the tick it stops in
+    long tick = now;
+    int building = zoneBuilding[zone];
+    if(previous == HEATING) {
+      heatingTicks[zone] += tick - runStart[zone];
+      heatingRunTicks[building].add(tick);
+      heatingRunning[building].decrement();
+    } else if(previous == COOLING) {
+      coolingTicks[zone] += tick - runStart[zone];
+      coolingRunTicks[building].add(tick);
+      coolingRunning[building].decrement();
+    }
+
+    if(next == HEATING) {
+      heatingRunTicks[building].add(-tick);
+      heatingRunning[building].increment();
+    } else if(next == COOLING) {
+      coolingRunTicks[building].add(-tick);
+      coolingRunning[building].increment();
+    }
+    runStart[zone] = tick;
+    mode[zone] = next;
+  }
+
+  /**
+   * Completes a tick, rolling the hourly and daily buckets over when one is full
+   * Call it once per tick, after every zone has been stepped (e.g., from a ParallelTickEngine listener)
+   */
+  public void tick() {
+    long completed = now + 1;
+    now = completed;
+    if(completed % ticksPerHour != 0) {
+      return;
+    }
+
+    long hour = completed / ticksPerHour - 1; // the hour that just ended
+    boolean dayEnded = (hour + 1) % HOURS == 0;
+    for(int building = 0; building < heatingRunning.length; building++) {
+      long heating = heatingTicksOf(building, completed);
+      long cooling = coolingTicksOf(building, completed);
+      roll(hourly, ((building * HOURS) + (int) (hour % HOURS)) * 2, building * 4, heating, cooling);
+      if(dayEnded) {
+        long day = hour / HOURS;
+        roll(daily, ((building * DAYS) + (int) (day % DAYS)) * 2, building * 4 + 2, heating, cooling);
+      }
+    }
+  }
+
+  /**
+   * Stores the usage since a mark in a bucket and moves the mark to now
+   */
+  private void roll(AtomicLongArray buckets, int slot, int mark, long heating, long cooling) {
+    buckets.set(slot, heating - marks.get(mark));
+    buckets.set(slot + 1, cooling - marks.get(mark + 1));
+    marks.set(mark, heating);
+    marks.set(mark + 1, cooling);
+  }
+
+  /**
+   * Gets the number of completed ticks
+   * @return the tick count
+   */
+  public long getTickCount() {
+    return now;
+  }
+
+  /**
+   * Gets the number of buildings, one more than the highest building of a zone
+   * @return the building count
+   */
+  public int getBuildingCount() {
+    return heatingRunning.length;
+  }
+
+  /**
+   * Gets how long a zone has been heating
+   * @param zone the zone
+   * @return the runtime in seconds
+   */
+  public double getHeatingSeconds(int zone) {
+    long ticks = heatingTicks[zone] + (mode[zone] == HEATING ? now - runStart[zone] : 0);
+    return toSeconds(ticks);
+  }
+
+  /**
+   * Gets how long a zone has been cooling
+   * @param zone the zone
+   * @return the runtime in seconds
+   */
+  public double getCoolingSeconds(int zone) {
+    long ticks = coolingTicks[zone] + (mode[zone] == COOLING ? now - runStart[zone] : 0);
+    return toSeconds(ticks);
+  }
+
+  /**
+   * Gets the estimated energy a zone used for heating and cooling
+   * @param zone the zone
+   * @return the energy in kWh
+   */
+  public double getKwh(int zone) {
+    return toKwh(getHeatingSeconds(zone), getCoolingSeconds(zone));
+  }
+
+  /**
+   * Gets how long the zones of a building have been heating, summed
+   * @param building the building
+   * @return the runtime in seconds
+   */
+  public double getBuildingHeatingSeconds(int building) {
+    return toSeconds(heatingTicksOf(building, now));
+  }
+
+  /**
+   * Gets how long the zones of a building have been cooling, summed
+   * @param building the building
+   * @return the runtime in seconds
+   */
+  public double getBuildingCoolingSeconds(int building) {
+    return toSeconds(coolingTicksOf(building, now));
+  }
+
+  /**
+   * Gets the estimated energy the zones of a building used
+   * @param building the building
+   * @return the energy in kWh
+   */
+  public double getBuildingKwh(int building) {
+    return toKwh(getBuildingHeatingSeconds(building), getBuildingCoolingSeconds(building));
+  }
+
+  /**
+   * Gets how long all zones have been heating, summed
+   * @return the runtime in seconds
+   */
+  public double getFleetHeatingSeconds() {
+    long tick = now;
+    long ticks = 0;
+    for(int building = 0; building < heatingRunning.length; building++) {
+      ticks += heatingTicksOf(building, tick);
+    }
+    return toSeconds(ticks);
+  }
+
+  /**
+   * Gets how long all zones have been cooling, summed
+   * @return the runtime in seconds
+   */
+  public double getFleetCoolingSeconds() {
+    long tick = now;
+    long ticks = 0;
+    for(int building = 0; building < coolingRunning.length; building++) {
+      ticks += coolingTicksOf(building, tick);
+    }
+    return toSeconds(ticks);
+  }
+
+  /**
+   * Gets the estimated energy all zones used
+   * @return the energy in kWh
+   */
+  public double getFleetKwh() {
+    return toKwh(getFleetHeatingSeconds(), getFleetCoolingSeconds());
+  }
+
+  /**
+   * Gets the estimated energy a building used in one hour of the last day
+   * @param building the building
+   * @param hoursAgo 0 for the hour in progress, 1 for the last full hour, up to HOURS - 1
+   * @return the energy in kWh, 0 for hours before the meter started
+   */
+  public double getHourlyKwh(int building, int hoursAgo) {
+    checkAge(hoursAgo, HOURS);
+    long tick = now;
+    long hour = tick / ticksPerHour;
+    if(hoursAgo == 0) {
+      return toKwh(toSeconds(heatingTicksOf(building, tick) - marks.get(building * 4)),
+          toSeconds(coolingTicksOf(building, tick) - marks.get(building * 4 + 1)));
+    }
+    if(hoursAgo > hour) {
+      return 0;
+    }
+    int slot = ((building * HOURS) + (int) ((hour - hoursAgo) % HOURS)) * 2;
+    return toKwh(toSeconds(hourly.get(slot)), toSeconds(hourly.get(slot + 1)));
+  }
+
+  /**
+   * Gets the estimated energy a building used on one day of the last week
+   * @param building the building
+   * @param daysAgo 0 for the day in progress, 1 for the last full day, up to DAYS - 1
+   * @return the energy in kWh, 0 for days before the meter started
+   */
+  public double getDailyKwh(int building, int daysAgo) {
+    checkAge(daysAgo, DAYS);
+    long tick = now;
+    long day = tick / ticksPerHour / HOURS;
+    if(daysAgo == 0) {
+      return toKwh(toSeconds(heatingTicksOf(building, tick) - marks.get(building * 4 + 2)),
+          toSeconds(coolingTicksOf(building, tick) - marks.get(building * 4 + 3)));
+    }
+    if(daysAgo > day) {
+      return 0;
+    }
+    int slot = ((building * DAYS) + (int) ((day - daysAgo) % DAYS)) * 2;
+    return toKwh(toSeconds(daily.get(slot)), toSeconds(daily.get(slot + 1)));
+  }
+
+  /**
+   * Gets the estimated energy all zones used in one hour of the last day, see {@link #getHourlyKwh}
+   * @param hoursAgo 0 for the hour in progress, up to HOURS - 1
+   * @return the energy in kWh
+   */
+  public double getFleetHourlyKwh(int hoursAgo) {
+    double kwh = 0;
+    for(int building = 0; building < heatingRunning.length; building++) {
+      kwh += getHourlyKwh(building, hoursAgo);
+    }
+    return kwh;
+  }
+
+  /**
+   * Gets the estimated energy all zones used on one day of the last week, see {@link #getDailyKwh}
+   * @param daysAgo 0 for the day in progress, up to DAYS - 1
+   * @return the energy in kWh
+   */
+  public double getFleetDailyKwh(int daysAgo) {
+    double kwh = 0;
+    for(int building = 0; building < heatingRunning.length; building++) {
+      kwh += getDailyKwh(building, daysAgo);
+    }
+    return kwh;
+  }
+
+  private long heatingTicksOf(int building, long tick) {
+    return heatingRunTicks[building].sum() + heatingRunning[building].sum() * tick;
+  }
+
+  private long coolingTicksOf(int building, long tick) {
+    return coolingRunTicks[building].sum() + coolingRunning[building].sum() * tick;
+  }
+
+  private double toSeconds(long ticks) {
+    return ticks * (tickMillis / 1000.0);
+  }
+
+  private double toKwh(double heatingSeconds, double coolingSeconds) {
+    return (heatingSeconds * heatingKw + coolingSeconds * coolingKw) / 3600.0;
+  }
+
+  private static void checkAge(int age, int kept) {
+    if(age < 0 || age >= kept) {
+      throw new IllegalArgumentException("Only the last " + kept + " buckets are kept. Provided: " + age);
+    }
+  }
+}
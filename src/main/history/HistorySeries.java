@@ -0,0 +1,54 @@
+package main.history;
+
+import main.model.DeciDegrees;
+
+/**
+ * A run of history samples returned by a TemperatureHistory query
+ * Stored as parallel primitive arrays, oldest sample first
+ */
+public final class HistorySeries {
+
+  // State bits
+  public static final int HEATING = 1;
+  public static final int COOLING = 1 << 1;
+
+  private final long[] timestamps;
+  private final short[] currentTenths;
+  private final short[] targetTenths;
+  private final byte[] stateBits;
+
+  HistorySeries(long[] timestamps, short[] currentTenths, short[] targetTenths, byte[] stateBits) {
+    this.timestamps = timestamps;
+    this.currentTenths = currentTenths;
+    this.targetTenths = targetTenths;
+    this.stateBits = stateBits;
+  }
+
+  /**
+   * Gets the number of samples in the series
+   * @return the sample count
+   */
+  public int size() {
+    return timestamps.length;
+  }
+
+  public long getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  public double getCurrentTemperature(int index) {
+    return DeciDegrees.toCelsius(currentTenths[index]);
+  }
+
+  public double getTargetTemperature(int index) {
+    return DeciDegrees.toCelsius(targetTenths[index]);
+  }
+
+  public boolean isHeating(int index) {
+    return (stateBits[index] & HEATING) != 0;
+  }
+
+  public boolean isCooling(int index) {
+    return (stateBits[index] & COOLING) != 0;
+  }
+}
@@ -0,0 +1,270 @@
+package main.history;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import main.model.IThermostatModel;
+import main.model.ThermostatFleet;
+
+/**
+ * Per-zone temperature history kept in fixed-size off-heap ring buffers
+ * Every zone owns `capacity` fixed-width records in one MemorySegment, so recording a
+ * sample is a few stores into native memory and creates no garbage, no matter how many
+ * zones or samples there are; the oldest sample of a zone is overwritten when its ring is full
+ *
+ * Range queries are downsampled with Largest-Triangle-Three-Buckets (LTTB) on the current
+ * temperature, which keeps the visual shape of the curve (peaks and dips) with few points
+ *
+ * Not synchronized: record from the tick thread, and query from that thread or after it has
+ * stopped; call {@link #close()} to free the native memory
+ */
+public class TemperatureHistory implements AutoCloseable {
+
+  // Record layout (16 bytes): timestamp | current | target | state bits | padding
+  private static final long RECORD_SIZE = 16;
+  private static final long TIMESTAMP_OFFSET = 0;
+  private static final long CURRENT_OFFSET = 8;
+  private static final long TARGET_OFFSET = 10;
+  private static final long STATE_OFFSET = 12;
+
+  // LTTB keeps the first and last point, so it needs room for at least one more
+  private static final int MIN_POINTS = 3;
+
+  private final Arena arena;
+  private final MemorySegment records;
+  private final int zones;
+  private final int capacity;
+
+  // Number of samples ever written per zone; slot = written % capacity
+  private final long[] written;
+
+  /**
+   * Allocates the ring buffers for all zones
+   * @param zones the number of zones
+   * @param capacity the number of samples kept per zone (e.g. 2_678_400 for a month at 1 Hz)
+   * @throws IllegalArgumentException if zones is negative or capacity is not positive
+   */
+  public TemperatureHistory(int zones, int capacity) {
+    if(zones < 0 || capacity <= 0) {
+      throw new IllegalArgumentException(
+          "Zones must not be negative and capacity must be positive. Provided: "
+              + zones + " zones, capacity " + capacity);
+    }
+    this.zones = zones;
+    this.capacity = capacity;
+    this.written = new long[zones];
+    this.arena = Arena.ofShared();
+    this.records = arena.allocate(Math.max(1, (long) zones * capacity * RECORD_SIZE), Long.BYTES);
+  }
+
+  public int getZoneCount() {
+    return zones;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Records one sample for a zone
+   * Timestamps of a zone must not decrease, queries rely on the ring being sorted
+   * @param zone the zone index
+   * @param timestamp the sample time, e.g. System.currentTimeMillis()
+   * @param currentTenths the current temperature in tenths of a degree
+   * @param targetTenths the target temperature in tenths of a degree
+   * @param heating true if heating is on
+   * @param cooling true if cooling is on
+   */
+  public void record(int zone, long timestamp, int currentTenths, int targetTenths,
+      boolean heating, boolean cooling) {
+    long n = written[zone];
+    long offset = ((long) zone * capacity + n % capacity) * RECORD_SIZE;
+
+    records.set(ValueLayout.JAVA_LONG, offset + TIMESTAMP_OFFSET, timestamp);
+    records.set(ValueLayout.JAVA_SHORT, offset + CURRENT_OFFSET, (short) currentTenths);
+    records.set(ValueLayout.JAVA_SHORT, offset + TARGET_OFFSET, (short) targetTenths);
+    records.set(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET, stateBits(heating, cooling));
+
+    written[zone] = n + 1;
+  }
+
+  /**
+   * Records the current state of a model as one sample of a zone
+   * Meant to be called right after model.updateSystem()
+   * @param zone the zone index
+   * @param timestamp the sample time
+   * @param model the model to sample
+   */
+  public void record(int zone, long timestamp, IThermostatModel model) {
+    record(zone, timestamp, model.getCurrentTenths(), model.getTargetTenths(),
+        model.isHeating(), model.isCooling());
+  }
+
+  /**
+   * Records one sample for every zone of a fleet, zone i of the fleet into zone i here
+   * Meant to be called once per fleet tick, e.g. from a ParallelTickEngine.TickListener
+   * @param fleet the fleet to sample
+   * @param timestamp the sample time
+   */
+  public void recordAll(ThermostatFleet fleet, long timestamp) {
+    int count = Math.min(zones, fleet.size());
+    for(int zone = 0; zone < count; zone++) {
+      record(zone, timestamp, fleet.getCurrentTenths(zone), fleet.getTargetTenths(zone),
+          fleet.isHeating(zone), fleet.isCooling(zone));
+    }
+  }
+
+  /**
+   * Gets the number of samples currently kept for a zone
+   * @param zone the zone index
+   * @return the sample count, at most the capacity
+   */
+  public int size(int zone) {
+    return (int) Math.min(written[zone], capacity);
+  }
+
+  /**
+   * Gets the samples of a zone between two timestamps, downsampled for display
+   * @param zone the zone index
+   * @param from the first timestamp to include
+   * @param to the last timestamp to include
+   * @param maxPoints the most points to return (at least 3); fewer samples are returned as they are
+   * @return the selected samples, oldest first
+   */
+  public HistorySeries query(int zone, long from, long to, int maxPoints) {
+    if(maxPoints < MIN_POINTS) {
+      throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS
+          + ". Provided: " + maxPoints);
+    }
+
+    // logical indices count samples ever written; the ring holds [oldest, newest)
+    long newest = written[zone];
+    long oldest = newest - size(zone);
+    long first = firstAfter(zone, oldest, newest, from, false);
+    long end = firstAfter(zone, first, newest, to, true);
+    int count = (int) Math.max(0, end - first);
+
+    if(count <= maxPoints) {
+      long[] picked = new long[count];
+      for(int i = 0; i < count; i++) {
+        picked[i] = first + i;
+      }
+      return collect(zone, picked);
+    }
+    return collect(zone, largestTriangleThreeBuckets(zone, first, count, maxPoints));
+  }
+
+  /**
+   * Picks `threshold` of the `count` samples starting at logical index `first` with LTTB:
+   * the first and last samples are always kept; the rest are split into equal buckets and from
+   * each bucket the sample forming the largest triangle with the previously picked sample and
+   * the average of the next bucket is kept
+   */
+  private long[] largestTriangleThreeBuckets(int zone, long first, int count, int threshold) {
+    long[] picked = new long[threshold];
+    double bucketSize = (double) (count - 2) / (threshold - 2);
+
+    picked[0] = first;
+    long a = first;
+    long base = timestampAt(zone, first); // keeps x small so the areas stay precise
+
+    for(int bucket = 0; bucket < threshold - 2; bucket++) {
+      // average point of the next bucket (the last sample for the final bucket)
+      int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, count);
+      if(nextStart >= nextEnd) {
+        nextStart = count - 1;
+        nextEnd = count;
+      }
+      double avgX = 0;
+      double avgY = 0;
+      for(int i = nextStart; i < nextEnd; i++) {
+        avgX += timestampAt(zone, first + i) - base;
+        avgY += currentAt(zone, first + i);
+      }
+      avgX /= (nextEnd - nextStart);
+      avgY /= (nextEnd - nextStart);
+
+      // sample of this bucket with the largest triangle
+      int start = (int) Math.floor(bucket * bucketSize) + 1;
+      int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      double ax = timestampAt(zone, a) - base;
+      double ay = currentAt(zone, a);
+      double maxArea = -1;
+      long best = first + start;
+      for(int i = start; i < end; i++) {
+        double x = timestampAt(zone, first + i) - base;
+        double y = currentAt(zone, first + i);
+        double area = Math.abs((ax - avgX) * (y - ay) - (ax - x) * (avgY - ay));
+        if(area > maxArea) {
+          maxArea = area;
+          best = first + i;
+        }
+      }
+
+      picked[bucket + 1] = best;
+      a = best;
+    }
+
+    picked[threshold - 1] = first + count - 1;
+    return picked;
+  }
+
+  /**
+   * Binary search for the first logical index in [low, high) whose timestamp is >= time,
+   * or > time when strictlyAfter is set
+   */
+  private long firstAfter(int zone, long low, long high, long time, boolean strictlyAfter) {
+    while(low < high) {
+      long mid = (low + high) >>> 1;
+      long timestamp = timestampAt(zone, mid);
+      if(timestamp < time || (strictlyAfter && timestamp == time)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private HistorySeries collect(int zone, long[] logical) {
+    int n = logical.length;
+    long[] timestamps = new long[n];
+    short[] current = new short[n];
+    short[] target = new short[n];
+    byte[] state = new byte[n];
+
+    for(int i = 0; i < n; i++) {
+      long offset = offsetOf(zone, logical[i]);
+      timestamps[i] = records.get(ValueLayout.JAVA_LONG, offset + TIMESTAMP_OFFSET);
+      current[i] = records.get(ValueLayout.JAVA_SHORT, offset + CURRENT_OFFSET);
+      target[i] = records.get(ValueLayout.JAVA_SHORT, offset + TARGET_OFFSET);
+      state[i] = records.get(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET);
+    }
+    return new HistorySeries(timestamps, current, target, state);
+  }
+
+  private long offsetOf(int zone, long logical) {
+    return ((long) zone * capacity + logical % capacity) * RECORD_SIZE;
+  }
+
+  private long timestampAt(int zone, long logical) {
+    return records.get(ValueLayout.JAVA_LONG, offsetOf(zone, logical) + TIMESTAMP_OFFSET);
+  }
+
+  private short currentAt(int zone, long logical) {
+    return records.get(ValueLayout.JAVA_SHORT, offsetOf(zone, logical) + CURRENT_OFFSET);
+  }
+
+  private static byte stateBits(boolean heating, boolean cooling) {
+    return (byte) ((heating ? HistorySeries.HEATING : 0) | (cooling ? HistorySeries.COOLING : 0));
+  }
+
+  /**
+   * Frees the native memory; the history must not be used afterwards
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+}
@@ -0,0 +1,47 @@
+package main.metrics;
+
+import javax.management.MXBean;
+
+/**
+ * Read-only view of a latency histogram, published over JMX (e.g., for jconsole)
+ * Percentiles are upper bounds with at most about 3% error
+ */
+@MXBean
+public interface ILatencyStats {
+
+  /**
+   * Gets the number of recorded durations
+   * @return the count
+   */
+  long getCount();
+
+  /**
+   * Gets the mean duration
+   * @return the mean in microseconds, 0 if nothing was recorded
+   */
+  double getMeanMicros();
+
+  /**
+   * Gets the median duration
+   * @return the 50th percentile in microseconds
+   */
+  double getP50Micros();
+
+  /**
+   * Gets the 99th percentile duration
+   * @return the 99th percentile in microseconds
+   */
+  double getP99Micros();
+
+  /**
+   * Gets the 99.9th percentile duration
+   * @return the 99.9th percentile in microseconds
+   */
+  double getP999Micros();
+
+  /**
+   * Gets the longest duration
+   * @return the max in microseconds
+   */
+  double getMaxMicros();
+}
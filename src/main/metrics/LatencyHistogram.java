@@ -0,0 +1,130 @@
+package main.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of durations in nanoseconds
+ *
+ * Values below 32 ns get a bucket each; above that every power of two is split into
+ * 32 equal buckets, so a bucket is never wider than 1/32 of its values (about 3%).
+ * Recording is an index computation and one atomic increment, safe from any number of
+ * threads; readers scan the ~1200 buckets, so percentiles are cheap enough for JMX polling
+ * but not meant for the hot path. Values above about 18 minutes count as the top bucket
+ */
+public final class LatencyHistogram implements ILatencyStats {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 40; // 2^40 ns, about 18 minutes
+  private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+  private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Records one duration
+   * @param nanos the duration in nanoseconds; negative values count as 0
+   */
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+    counts.incrementAndGet(indexOf(value));
+    totalNanos.addAndGet(value);
+    long max;
+    while(value > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, value)) {
+      // another thread raised the max, try again against the new one
+    }
+  }
+
+  /**
+   * Gets the bucket of a value in [0, MAX_VALUE]
+   */
+  static int indexOf(long value) {
+    if(value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Gets the highest value that falls into a bucket
+   */
+  static long highestValueOf(int index) {
+    if(index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * Gets a percentile; concurrent records may or may not be included
+   * @param percentile the percentile, 0 to 100
+   * @return the highest value of the bucket holding that rank, at most the max, in nanoseconds;
+   *     0 if nothing was recorded
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public long getPercentileNanos(double percentile) {
+    if(!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100. Provided: " + percentile);
+    }
+    long[] snapshot = new long[BUCKETS];
+    long count = 0;
+    for(int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if(count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for(int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if(seen >= rank) {
+        return Math.min(highestValueOf(i), maxNanos.get());
+      }
+    }
+    return maxNanos.get();
+  }
+
+  @Override
+  public long getCount() {
+    long count = 0;
+    for(int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  @Override
+  public double getMeanMicros() {
+    long count = getCount();
+    return count == 0 ? 0 : totalNanos.get() / 1000.0 / count;
+  }
+
+  @Override
+  public double getP50Micros() {
+    return getPercentileNanos(50) / 1000.0;
+  }
+
+  @Override
+  public double getP99Micros() {
+    return getPercentileNanos(99) / 1000.0;
+  }
+
+  @Override
+  public double getP999Micros() {
+    return getPercentileNanos(99.9) / 1000.0;
+  }
+
+  @Override
+  public double getMaxMicros() {
+    return maxNanos.get() / 1000.0;
+  }
+}
@@ -0,0 +1,85 @@
+package main.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import main.scheduler.TimingWheelScheduler;
+
+/**
+ * Latency histograms of the controller update cycle, published as JMX MBeans
+ *
+ *   TickDuration   model.updateSystem() plus the view refresh, per controller tick
+ *   TimerJitter    how far the time between two timer ticks is off the update interval
+ *   RenderTime     view.updateDisplay(), when a timer tick refreshes the view
+ *   QueueDelay     time a batch of expired timeouts waits for the scheduler's dispatcher
+ *                  (the EDT, for the shared scheduler)
+ *
+ * Each one is an MBean named main.metrics:type=ThermostatMetrics,name=... with count,
+ * mean, p50, p99, p999 and max in microseconds
+ */
+public final class ThermostatMetrics {
+
+  public static final String DOMAIN = "main.metrics";
+
+  private static ThermostatMetrics shared;
+
+  private final LatencyHistogram tickDuration = new LatencyHistogram();
+  private final LatencyHistogram timerJitter = new LatencyHistogram();
+  private final LatencyHistogram renderTime = new LatencyHistogram();
+
+  /**
+   * Gets the metrics shared by all controllers of the application
+   * @return the shared metrics
+   */
+  public static synchronized ThermostatMetrics shared() {
+    if(shared == null) {
+      shared = new ThermostatMetrics();
+    }
+    return shared;
+  }
+
+  public LatencyHistogram getTickDuration() {
+    return tickDuration;
+  }
+
+  public LatencyHistogram getTimerJitter() {
+    return timerJitter;
+  }
+
+  public LatencyHistogram getRenderTime() {
+    return renderTime;
+  }
+
+  /**
+   * Registers the histograms with the platform MBean server, together with the queue delay
+   * of a scheduler; names that are already registered are left alone
+   * Loads the JMX classes, so call it off the startup path
+   * @param scheduler the scheduler whose dispatcher queue delay to publish
+   * @throws JMException if the MBean server refuses a registration
+   */
+  public void register(TimingWheelScheduler scheduler) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    register(server, "TickDuration", tickDuration);
+    register(server, "TimerJitter", timerJitter);
+    register(server, "RenderTime", renderTime);
+    register(server, "QueueDelay", scheduler.getQueueDelay());
+  }
+
+  /**
+   * Gets the MBean name of one histogram
+   * @param name the histogram name, e.g., "TickDuration"
+   * @return the object name
+   * @throws JMException if the name is not valid
+   */
+  public static ObjectName objectName(String name) throws JMException {
+    return new ObjectName(DOMAIN + ":type=ThermostatMetrics,name=" + name);
+  }
+
+  private static void register(MBeanServer server, String name, ILatencyStats stats) throws JMException {
+    ObjectName objectName = objectName(name);
+    if(!server.isRegistered(objectName)) {
+      server.registerMBean(stats, objectName);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package main.model;
+
+import java.util.Arrays;
+import main.model.IThermostatModel.ChangeListener;
+
+/**
+ * Helpers for keeping change listeners in a plain array
+ * Adding or removing copies the array, so firing is an allocation-free loop
+ * and a model without listeners pays nothing but a length check
+ */
+final class ChangeListeners {
+
+  static final ChangeListener[] NONE = new ChangeListener[0];
+
+  private ChangeListeners() {} // prevent instantiation
+
+  /**
+   * Returns a copy of the array with the listener appended
+   */
+  static ChangeListener[] add(ChangeListener[] listeners, ChangeListener listener) {
+    if(listener == null) {
+      throw new IllegalArgumentException("Listener must not be null");
+    }
+    ChangeListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+    result[listeners.length] = listener;
+    return result;
+  }
+
+  /**
+   * Returns a copy of the array without the first occurrence of the listener
+   */
+  static ChangeListener[] remove(ChangeListener[] listeners, ChangeListener listener) {
+    for(int i = 0; i < listeners.length; i++) {
+      if(listeners[i] == listener) {
+        if(listeners.length == 1) {
+          return NONE;
+        }
+        ChangeListener[] result = new ChangeListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, result, 0, i);
+        System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+        return result;
+      }
+    }
+    return listeners;
+  }
+
+  /**
+   * Notifies every listener, unless nothing changed
+   */
+  static void fire(ChangeListener[] listeners, int changeMask) {
+    if(changeMask == 0) {
+      return;
+    }
+    for(ChangeListener listener : listeners) {
+      listener.modelChanged(changeMask);
+    }
+  }
+
+  /**
+   * Builds the change mask for one updateSystem() step
+   */
+  static int stepMask(int oldCurrent, int newCurrent,
+      boolean wasHeating, boolean heating, boolean wasCooling, boolean cooling) {
+    int mask = 0;
+    if(oldCurrent != newCurrent) {
+      mask |= ChangeListener.CURRENT_TEMPERATURE;
+    }
+    if(wasHeating != heating) {
+      mask |= ChangeListener.HEATING;
+    }
+    if(wasCooling != cooling) {
+      mask |= ChangeListener.COOLING;
+    }
+    return mask;
+  }
+}
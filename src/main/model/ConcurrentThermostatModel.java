@@ -0,0 +1,196 @@
+package main.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe variant of ThermostatModel for models read from many threads
+ * (exporters, HTTP handlers, dashboards) while the EDT or a ticker updates them
+ *
+ * The whole state - two temperatures in tenths and the two flags - is packed into one
+ * long, so every update is published by a single atomic write and every read sees one
+ * complete state: never heating and cooling at once, never a temperature from one tick
+ * with the flags of another. Readers take no lock and never retry; writers use a
+ * compare-and-set loop, which only repeats if two writers race
+ *
+ * The individual getters each read the state separately; use {@link #snapshot()} to
+ * get several values that belong together
+ */
+public class ConcurrentThermostatModel implements IThermostatModel {
+
+  // Packed state layout
+  private static final int TARGET_SHIFT = 16;
+  private static final long HEATING_BIT = 1L << 32;
+  private static final long COOLING_BIT = 1L << 33;
+
+  private final AtomicLong state = new AtomicLong(pack(DeciDegrees.DEFAULT, DeciDegrees.DEFAULT, false, false));
+  private volatile ChangeListener[] listeners = ChangeListeners.NONE;
+
+  /**
+   * Gets all values at once, consistent with each other
+   * @return the state at the moment of the call
+   */
+  public ThermostatSnapshot snapshot() {
+    long s = state.get();
+    return new ThermostatSnapshot(current(s), target(s), heating(s), cooling(s));
+  }
+
+  @Override
+  public void setTargetTemperature(double temperature) {
+    short newTarget = ThermostatModel.toValidTenths(temperature);
+    long s;
+    do {
+      s = state.get();
+      if(target(s) == newTarget) {
+        return;
+      }
+    } while(!state.compareAndSet(s, pack(current(s), newTarget, heating(s), cooling(s))));
+    ChangeListeners.fire(listeners, ChangeListener.TARGET_TEMPERATURE);
+  }
+
+  @Override
+  public double getCurrentTemperature() {
+    return DeciDegrees.toCelsius(current(state.get()));
+  }
+
+  @Override
+  public double getTargetTemperature() {
+    return DeciDegrees.toCelsius(target(state.get()));
+  }
+
+  @Override
+  public int getCurrentTenths() {
+    return current(state.get());
+  }
+
+  @Override
+  public int getTargetTenths() {
+    return target(state.get());
+  }
+
+  @Override
+  public boolean isHeating() {
+    return heating(state.get());
+  }
+
+  @Override
+  public boolean isCooling() {
+    return cooling(state.get());
+  }
+
+  /**
+   * Same rules as ThermostatModel.updateSystem(), applied to the packed state
+   */
+  @Override
+  public void updateSystem() {
+    long s;
+    long next;
+    do {
+      s = state.get();
+      int curr = current(s);
+      int goal = target(s);
+      if(curr < goal) {
+        // too cold - heat up
+        next = pack(curr + DeciDegrees.STEP, goal, true, false);
+      } else if(curr > goal) {
+        // too hot - cool down
+        next = pack(curr - DeciDegrees.STEP, goal, false, true);
+      } else {
+        // at target - turn off
+        next = pack(curr, goal, false, false);
+      }
+    } while(s != next && !state.compareAndSet(s, next));
+
+    fireStep(s, next);
+  }
+
+  /**
+   * Same closed form as ThermostatModel.advance(long), published as one update
+   */
+  @Override
+  public long advance(long ticks) {
+    if(ticks < 0) {
+      throw new IllegalArgumentException("Ticks must not be negative. Provided: " + ticks);
+    }
+
+    long s;
+    long next;
+    int steps;
+    do {
+      s = state.get();
+      int curr = current(s);
+      int goal = target(s);
+      int distance = goal - curr;
+      steps = Math.abs(distance) / DeciDegrees.STEP;
+      if(ticks == 0) {
+        return steps == 0 ? 0 : -1;
+      }
+
+      if(ticks <= steps) {
+        // still on the way after the last tick
+        next = pack(curr + Integer.signum(distance) * DeciDegrees.STEP * (int) ticks, goal,
+            distance > 0, distance < 0);
+      } else {
+        // arrived, and at least one idle tick after that
+        next = pack(goal, goal, false, false);
+      }
+    } while(s != next && !state.compareAndSet(s, next));
+
+    fireStep(s, next);
+    return steps <= ticks ? steps : -1;
+  }
+
+  private void fireStep(long before, long after) {
+    ChangeListener[] current = listeners;
+    if(current.length != 0 && before != after) {
+      ChangeListeners.fire(current, ChangeListeners.stepMask(current(before), current(after),
+          heating(before), heating(after), cooling(before), cooling(after)));
+    }
+  }
+
+  @Override
+  public synchronized boolean addChangeListener(ChangeListener listener) {
+    listeners = ChangeListeners.add(listeners, listener);
+    return true;
+  }
+
+  @Override
+  public synchronized void removeChangeListener(ChangeListener listener) {
+    listeners = ChangeListeners.remove(listeners, listener);
+  }
+
+  @Override
+  public double getMinTemperature() {
+    return ThermostatModel.MIN_TEMPERATURE;
+  }
+
+  @Override
+  public double getMaxTemperature() {
+    return ThermostatModel.MAX_TEMPERATURE;
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  private static long pack(int current, int target, boolean heating, boolean cooling) {
+    return (current & 0xFFFFL) | (target & 0xFFFFL) << TARGET_SHIFT
+        | (heating ? HEATING_BIT : 0) | (cooling ? COOLING_BIT : 0);
+  }
+
+  private static int current(long state) {
+    return (short) state;
+  }
+
+  private static int target(long state) {
+    return (short) (state >>> TARGET_SHIFT);
+  }
+
+  private static boolean heating(long state) {
+    return (state & HEATING_BIT) != 0;
+  }
+
+  private static boolean cooling(long state) {
+    return (state & COOLING_BIT) != 0;
+  }
+}
@@ -0,0 +1,50 @@
+package main.model;
+
+/**
+ * Fixed-point temperature representation used by the model engines
+ * Temperatures are stored as whole tenths of a degree Celsius ("deci-degrees"),
+ * e.g. 20.5°C is stored as 205, so a tick is an exact integer step and never drifts
+ */
+public final class DeciDegrees {
+
+  // Temperature bounds in tenths
+  public static final int MIN = 100; // 10.0°C
+  public static final int MAX = 350; // 35.0°C
+
+  // Initial temperature in tenths
+  public static final int DEFAULT = 200; // 20.0°C
+
+  // Change per tick in tenths
+  public static final int STEP = 1; // 0.1°C
+
+  private DeciDegrees() {} // prevent instantiation
+
+  /**
+   * Converts tenths to degrees Celsius
+   * The result is the double closest to the decimal value, so 201 becomes exactly 20.1
+   * @param tenths the temperature in tenths of a degree
+   * @return the temperature in Celsius
+   */
+  public static double toCelsius(int tenths) {
+    return tenths / 10.0;
+  }
+
+  /**
+   * Converts degrees Celsius to the nearest whole number of tenths
+   * @param celsius the temperature in Celsius
+   * @return the temperature in tenths of a degree
+   */
+  public static int fromCelsius(double celsius) {
+    return (int) Math.round(celsius * 10);
+  }
+
+  /**
+   * Checks if a temperature in Celsius is an exact multiple of 0.1°C
+   * @param celsius the temperature in Celsius
+   * @return true if the value has at most one decimal place
+   */
+  public static boolean isWholeTenths(double celsius) {
+    // division is correctly rounded, so this is the same double the parser gives for "20.1"
+    return toCelsius(fromCelsius(celsius)) == celsius;
+  }
+}
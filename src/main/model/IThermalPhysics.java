@@ -0,0 +1,55 @@
+package main.model;
+
+/**
+ * Strategy that moves the zones of a {@link ThermalFleet} forward by one tick
+ * Implementations must give bit-for-bit the same result for the same input,
+ * so a fleet can switch between them freely
+ */
+public interface IThermalPhysics {
+
+  /**
+   * Steps the zones in [from, to) by one tick: decides heating/cooling from the
+   * temperature before the tick, then applies heat loss and HVAC power
+   * @param fleet the fleet whose arrays are updated in place
+   * @param from the first zone index (inclusive)
+   * @param to the last zone index (exclusive)
+   */
+  void step(ThermalFleet fleet, int from, int to);
+
+  /**
+   * Gets the plain one-zone-at-a-time implementation, available everywhere
+   * @return the scalar physics
+   */
+  static IThermalPhysics scalar() {
+    return ScalarThermalPhysics.INSTANCE;
+  }
+
+  /**
+   * Gets the SIMD implementation on top of the incubating Vector API
+   * The JVM must be started with --add-modules jdk.incubator.vector
+   * @return the vector physics
+   * @throws UnsupportedOperationException if the Vector API module is not present
+   */
+  static IThermalPhysics vector() {
+    try {
+      // looked up by name so nothing else links against the incubator module
+      return (IThermalPhysics) Class.forName("main.model.VectorThermalPhysics")
+          .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      throw new UnsupportedOperationException(
+          "Vector API not available, start the JVM with --add-modules jdk.incubator.vector", e);
+    }
+  }
+
+  /**
+   * Gets the vector physics if the JVM supports it, the scalar physics otherwise
+   * @return the fastest available physics
+   */
+  static IThermalPhysics fastest() {
+    try {
+      return vector();
+    } catch (UnsupportedOperationException e) {
+      return scalar();
+    }
+  }
+}
@@ -6,6 +6,25 @@ package main.model;
  */
 public interface IThermostatModel {
 
+  /**
+   * Callback for models that publish their changes instead of being polled
+   * Listeners are called on the thread that changed the model (normally the EDT)
+   */
+  @FunctionalInterface
+  interface ChangeListener {
+    // Change mask bits, combined with |
+    int CURRENT_TEMPERATURE = 1;
+    int TARGET_TEMPERATURE = 1 << 1;
+    int HEATING = 1 << 2;
+    int COOLING = 1 << 3;
+
+    /**
+     * Called after the model state actually changed; never called with an empty mask
+     * @param changeMask which values changed, a combination of the constants above
+     */
+    void modelChanged(int changeMask);
+  }
+
   /**
    * Sets the target temperature for the thermostat
    * @param temperature the desired temperature in Celsius
@@ -25,6 +44,23 @@ public interface IThermostatModel {
    */
   double getTargetTemperature();
 
+  /**
+   * Gets the current room temperature in whole tenths of a degree (e.g., 20.5°C is 205)
+   * Implementations that store tenths natively should override this to skip the conversion
+   * @return the current temperature in tenths of a degree Celsius
+   */
+  default int getCurrentTenths() {
+    return DeciDegrees.fromCelsius(getCurrentTemperature());
+  }
+
+  /**
+   * Gets the target temperature setting in whole tenths of a degree
+   * @return the target temperature in tenths of a degree Celsius
+   */
+  default int getTargetTenths() {
+    return DeciDegrees.fromCelsius(getTargetTemperature());
+  }
+
   /**
    * Checks if the heating system is currently active
    * @return true if heating is on, false otherwise
@@ -45,6 +81,45 @@ public interface IThermostatModel {
    */
   void updateSystem();
 
+  /**
+   * Advances the system by many ticks at once
+   * The result is exactly the same as calling updateSystem() `ticks` times
+   * The default implementation does just that; engines with a closed form override it
+   * @param ticks the number of ticks to advance, not negative
+   * @return the tick (1 = the first of these ticks) after which the current temperature
+   *         first equals the target, 0 if it already did, or -1 if it does not get there
+   */
+  default long advance(long ticks) {
+    long reachedAt = getCurrentTenths() == getTargetTenths() ? 0 : -1;
+    for(long tick = 1; tick <= ticks; tick++) {
+      updateSystem();
+      if(reachedAt < 0 && getCurrentTenths() == getTargetTenths()) {
+        reachedAt = tick;
+      }
+    }
+    return reachedAt;
+  }
+
+  /**
+   * Registers a listener that is notified whenever the temperatures or the
+   * heating/cooling state change
+   * Models that do not publish changes keep this default and return false,
+   * in which case the caller has to poll the getters
+   * @param listener the listener to add
+   * @return true if the listener was registered, false if this model must be polled
+   */
+  default boolean addChangeListener(ChangeListener listener) {
+    return false;
+  }
+
+  /**
+   * Removes a listener registered with addChangeListener
+   * @param listener the listener to remove
+   */
+  default void removeChangeListener(ChangeListener listener) {
+    // nothing registered by default
+  }
+
   /**
    * Gets the minimum allowed temperature setting
    * @return the minimum temperature in Celsius
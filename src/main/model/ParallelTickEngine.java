@@ -0,0 +1,174 @@
+package main.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps many thermostat zones per tick on a ForkJoinPool
+ * The zones are split into contiguous chunks that worker threads update in parallel
+ * For a ThermostatFleet only the fleet's active zones are split, idle zones cost nothing
+ *
+ * Every call to {@link #tick()} is a barrier: it returns (and notifies listeners) only after
+ * every zone has finished that tick, so a listener never sees a mix of tick N and tick N+1.
+ * Listeners run on the thread that called tick(), not on the EDT - a Swing listener must
+ * hand its work over with SwingUtilities.invokeLater
+ */
+public class ParallelTickEngine {
+
+  // Zones per leaf task; big enough to amortize task overhead and keep chunks apart in memory
+  private static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+  /**
+   * Callback invoked once per completed tick
+   */
+  public interface TickListener {
+    /**
+     * Called after every zone has finished the tick
+     * @param tick the number of the tick that just completed, starting at 1
+     */
+    void tickCompleted(long tick);
+  }
+
+  /**
+   * Updates the zones (or fleet active set positions) in [from, to) by one tick
+   */
+  private interface RangeStepper {
+    void step(int from, int to);
+  }
+
+  private final ForkJoinPool pool;
+  private final RangeStepper fullStepper;   // every zone
+  private final RangeStepper activeStepper; // only the active zones of a fleet
+  private final ThermostatFleet fleet;      // null when stepping model objects
+  private final int size;
+  private final int chunkSize;
+  private final List<TickListener> listeners = new CopyOnWriteArrayList<>();
+
+  private long tickCount;
+
+  /**
+   * Creates an engine over a struct-of-arrays fleet
+   * @param fleet the zones to step
+   * @param pool the pool that runs the chunks
+   */
+  public ParallelTickEngine(ThermostatFleet fleet, ForkJoinPool pool) {
+    this(fleet::updateSystem, fleet::updateActive, fleet, fleet.size(), pool, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates an engine over individual model objects
+   * Each model is only ever touched by one worker per tick
+   * @param models the zones to step
+   * @param pool the pool that runs the chunks
+   */
+  public ParallelTickEngine(List<? extends IThermostatModel> models, ForkJoinPool pool) {
+    this(stepperFor(models.toArray(new IThermostatModel[0])), null, null, models.size(), pool,
+        DEFAULT_CHUNK_SIZE / 16); // objects cost more per zone than array slots
+  }
+
+  private ParallelTickEngine(RangeStepper fullStepper, RangeStepper activeStepper, ThermostatFleet fleet,
+      int size, ForkJoinPool pool, int chunkSize) {
+    this.fullStepper = fullStepper;
+    this.activeStepper = activeStepper;
+    this.fleet = fleet;
+    this.size = size;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  private static RangeStepper stepperFor(IThermostatModel[] models) {
+    return (from, to) -> {
+      for(int i = from; i < to; i++) {
+        models[i].updateSystem();
+      }
+    };
+  }
+
+  /**
+   * Registers a listener notified after each completed tick
+   * @param listener the listener to add
+   */
+  public void addListener(TickListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a previously registered listener
+   * @param listener the listener to remove
+   */
+  public void removeListener(TickListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Advances every zone by one tick, waits for all chunks, then notifies listeners
+   * Must not be called concurrently with itself
+   */
+  public void tick() {
+    if(fleet == null || fleet.isActiveDense()) {
+      step(fullStepper, size);
+    } else {
+      // ranges are positions in the fleet's active set rather than zone indexes
+      step(activeStepper, fleet.getActiveCount());
+    }
+    if(fleet != null) {
+      fleet.compactActive();
+    }
+
+    tickCount++;
+    for(TickListener listener : listeners) {
+      listener.tickCompleted(tickCount);
+    }
+  }
+
+  private void step(RangeStepper rangeStepper, int count) {
+    if(count > 0) {
+      // invoke() returns only when every chunk is done - this is the tick barrier
+      pool.invoke(new StepTask(rangeStepper, 0, count));
+    }
+  }
+
+  /**
+   * Gets the number of ticks completed so far
+   * @return the tick count
+   */
+  public long getTickCount() {
+    return tickCount;
+  }
+
+  /**
+   * Gets the number of zones this engine steps
+   * @return the zone count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Splits a zone range in halves until it is small enough to step directly
+   */
+  private final class StepTask extends RecursiveAction {
+    private final RangeStepper rangeStepper;
+    private final int from;
+    private final int to;
+
+    private StepTask(RangeStepper rangeStepper, int from, int to) {
+      this.rangeStepper = rangeStepper;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if(to - from <= chunkSize) {
+        rangeStepper.step(from, to);
+        return;
+      }
+
+      int mid = (from + to) >>> 1;
+      invokeAll(new StepTask(rangeStepper, from, mid), new StepTask(rangeStepper, mid, to));
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package main.model;
+
+/**
+ * Reference RC physics, one zone at a time
+ * Also steps the tail that does not fill a whole vector in {@link VectorThermalPhysics}
+ */
+final class ScalarThermalPhysics implements IThermalPhysics {
+
+  static final ScalarThermalPhysics INSTANCE = new ScalarThermalPhysics();
+
+  private ScalarThermalPhysics() {
+  }
+
+  @Override
+  public void step(ThermalFleet fleet, int from, int to) {
+    final float outdoor = fleet.outdoorTemperature;
+    final float[] temperature = fleet.temperature;
+    final float[] heatBelow = fleet.heatBelow;
+    final float[] coolAbove = fleet.coolAbove;
+    final float[] loss = fleet.lossCoefficient;
+    final float[] hvac = fleet.hvacRate;
+    final boolean[] heating = fleet.heatingOn;
+    final boolean[] cooling = fleet.coolingOn;
+
+    for(int i = from; i < to; i++) {
+      float t = temperature[i];
+      boolean heat = t < heatBelow[i];
+      boolean cool = t > coolAbove[i];
+      float drive = heat ? hvac[i] : cool ? -hvac[i] : 0f;
+
+      // the same operations in the same order as the vector lanes, so the results are identical
+      temperature[i] = t + (outdoor - t) * loss[i] + drive;
+      heating[i] = heat;
+      cooling[i] = cool;
+    }
+  }
+}
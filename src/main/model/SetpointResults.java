@@ -0,0 +1,78 @@
+package main.model;
+
+import java.util.List;
+
+/**
+ * Per-entry outcome of a bulk setpoint apply
+ * Holds one result code per entry (see {@link Setpoints}); error messages are
+ * formatted only when {@link #getMessage(int)} is called
+ */
+public final class SetpointResults {
+
+  private final byte[] codes;
+  private final double[] temperatures; // the caller's input, kept for the messages
+  private final List<? extends IThermostatModel> models; // null when every entry shares the bounds below
+  private final double min;
+  private final double max;
+  private final int failureCount;
+
+  SetpointResults(byte[] codes, double[] temperatures, double min, double max) {
+    this(codes, temperatures, null, min, max);
+  }
+
+  SetpointResults(byte[] codes, double[] temperatures, List<? extends IThermostatModel> models) {
+    this(codes, temperatures, models, Double.NaN, Double.NaN);
+  }
+
+  private SetpointResults(byte[] codes, double[] temperatures,
+      List<? extends IThermostatModel> models, double min, double max) {
+    this.codes = codes;
+    this.temperatures = temperatures;
+    this.models = models;
+    this.min = min;
+    this.max = max;
+
+    int failures = 0;
+    for(byte code : codes) {
+      if(code != Setpoints.ACCEPTED) {
+        failures++;
+      }
+    }
+    this.failureCount = failures;
+  }
+
+  public int size() {
+    return codes.length;
+  }
+
+  public int getFailureCount() {
+    return failureCount;
+  }
+
+  /**
+   * Gets the result code of one entry
+   * @param index the entry index
+   * @return Setpoints.ACCEPTED or the reason the entry was rejected
+   */
+  public byte getCode(int index) {
+    return codes[index];
+  }
+
+  public boolean isAccepted(int index) {
+    return codes[index] == Setpoints.ACCEPTED;
+  }
+
+  /**
+   * Formats the error message of one entry
+   * @param index the entry index
+   * @return the message setTargetTemperature would have thrown with, or null if accepted
+   */
+  public String getMessage(int index) {
+    if(models != null) {
+      IThermostatModel model = models.get(index);
+      return Setpoints.describe(codes[index], temperatures[index],
+          model.getMinTemperature(), model.getMaxTemperature());
+    }
+    return Setpoints.describe(codes[index], temperatures[index], min, max);
+  }
+}
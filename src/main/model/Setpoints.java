@@ -0,0 +1,89 @@
+package main.model;
+
+import java.util.List;
+
+/**
+ * Setpoint validation without exceptions, for bulk imports
+ * A check returns one of the result codes below; the matching message is only
+ * formatted when someone asks for it
+ */
+public final class Setpoints {
+
+  // Result codes
+  public static final byte ACCEPTED = 0;
+  public static final byte BELOW_MIN = 1;
+  public static final byte ABOVE_MAX = 2;
+  public static final byte NOT_TENTHS = 3; // not in 0.1°C increments (or not a number)
+
+  private Setpoints() {
+  }
+
+  /**
+   * Checks a target temperature against the bounds and the 0.1°C precision rule
+   * @param temperature the desired temperature in Celsius
+   * @param min the lowest allowed temperature
+   * @param max the highest allowed temperature
+   * @return ACCEPTED or the reason the temperature is rejected
+   */
+  public static byte check(double temperature, double min, double max) {
+    // first check bounds
+    if(temperature < min) {
+      return BELOW_MIN;
+    }
+    if(temperature > max) {
+      return ABOVE_MAX;
+    }
+
+    // check if it's in 0.1 increments
+    return DeciDegrees.isWholeTenths(temperature) ? ACCEPTED : NOT_TENTHS;
+  }
+
+  /**
+   * Formats the message for a result code, the same text setTargetTemperature throws with
+   * @param code the result code
+   * @param temperature the temperature that was checked
+   * @param min the lowest allowed temperature
+   * @param max the highest allowed temperature
+   * @return the message, or null for ACCEPTED
+   */
+  public static String describe(int code, double temperature, double min, double max) {
+    switch(code) {
+      case ACCEPTED:
+        return null;
+      case BELOW_MIN:
+      case ABOVE_MAX:
+        return String.format("Temperature range: %.1f°C – %.1f°C. Provided: %.1f°C",
+            min, max, temperature);
+      case NOT_TENTHS:
+        return "Temperature must be in 0.1°C increments (e.g., 20.0, 20.1, 20.2)";
+      default:
+        throw new IllegalArgumentException("Unknown setpoint result code: " + code);
+    }
+  }
+
+  /**
+   * Validates and applies one target per model, skipping the invalid ones
+   * Each entry is checked against its own model's getMinTemperature()/getMaxTemperature()
+   * @param models the models to update
+   * @param temperatures the target for models.get(i) at index i
+   * @return the per-entry results
+   * @throws IllegalArgumentException if the list and the array differ in length
+   */
+  public static SetpointResults applyTargets(List<? extends IThermostatModel> models,
+      double[] temperatures) {
+    if(models.size() != temperatures.length) {
+      throw new IllegalArgumentException("Got " + models.size() + " models but "
+          + temperatures.length + " temperatures");
+    }
+
+    byte[] codes = new byte[temperatures.length];
+    for(int i = 0; i < codes.length; i++) {
+      IThermostatModel model = models.get(i);
+      codes[i] = check(temperatures[i], model.getMinTemperature(), model.getMaxTemperature());
+      if(codes[i] == ACCEPTED) {
+        model.setTargetTemperature(temperatures[i]);
+      }
+    }
+    return new SetpointResults(codes, temperatures, models);
+  }
+}
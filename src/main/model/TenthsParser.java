@@ -0,0 +1,157 @@
+package main.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses temperatures typed or sent as text straight into whole tenths of a degree
+ * Accepts an optional sign, digits and at most one decimal separator ('.' or ','),
+ * surrounded by optional whitespace: "20", "20.5", "20,5", "-3.0", ".5", "21.50"
+ * Anything else Double.parseDouble would take ("1e1", "NaN", "0x1p3", "20d") is
+ * not a number here, and digits past the first decimal must be zeros
+ *
+ * Results are plain ints: the value in tenths, or one of the negative error codes
+ * below, so parsing never allocates. Bounds are not checked, that is the model's job
+ */
+public final class TenthsParser {
+
+  // Error codes; no temperature this parser can return comes anywhere near them
+  public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+  public static final int TOO_PRECISE = Integer.MIN_VALUE + 1;
+
+  // Keeps value * 10 well inside an int
+  private static final int MAX_INTEGER_DIGITS = 8;
+
+  private TenthsParser() {
+  }
+
+  /**
+   * Checks whether a parse result is an error code rather than a value
+   * @param result a value returned by one of the parse methods
+   * @return true for NOT_A_NUMBER and TOO_PRECISE
+   */
+  public static boolean isError(int result) {
+    return result == NOT_A_NUMBER || result == TOO_PRECISE;
+  }
+
+  /**
+   * Parses a whole string (e.g., a text field)
+   * @param text the text, may be null
+   * @return the temperature in tenths of a degree, or an error code
+   */
+  public static int parse(CharSequence text) {
+    return text == null ? NOT_A_NUMBER : parse(text, 0, text.length());
+  }
+
+  /**
+   * Parses the characters in [from, to) of a text
+   * @param text the text
+   * @param from the first index (inclusive)
+   * @param to the last index (exclusive)
+   * @return the temperature in tenths of a degree, or an error code
+   */
+  public static int parse(CharSequence text, int from, int to) {
+    return parse(text, null, from, to);
+  }
+
+  /**
+   * Parses the bytes in [from, to) of a buffer as ASCII text, e.g., straight off the network
+   * Uses absolute gets, so the buffer's position and limit are left alone
+   * @param buffer the buffer
+   * @param from the first index (inclusive)
+   * @param to the last index (exclusive)
+   * @return the temperature in tenths of a degree, or an error code
+   */
+  public static int parse(ByteBuffer buffer, int from, int to) {
+    return parse(null, buffer, from, to);
+  }
+
+  /**
+   * The one parse loop, over either a text or a buffer; the other one is null
+   */
+  private static int parse(CharSequence text, ByteBuffer buffer, int from, int to) {
+    // skip surrounding whitespace, as Double.parseDouble does
+    while(from < to && at(text, buffer, from) <= ' ') {
+      from++;
+    }
+    while(to > from && at(text, buffer, to - 1) <= ' ') {
+      to--;
+    }
+    if(from == to) {
+      return NOT_A_NUMBER;
+    }
+
+    int sign = at(text, buffer, from);
+    boolean negative = sign == '-';
+    if(negative || sign == '+') {
+      from++;
+    }
+
+    int value = 0;
+    int digits = 0;
+    int significant = 0; // integer digits from the first non-zero one
+    int i = from;
+    for(; i < to; i++) {
+      int c = at(text, buffer, i);
+      if(!isDigit(c)) {
+        break;
+      }
+      digits++;
+      // leading zeros do not count against the limit, "000000001" is just 1
+      if(value == 0 && c == '0') {
+        continue;
+      }
+      if(++significant > MAX_INTEGER_DIGITS) {
+        return NOT_A_NUMBER;
+      }
+      value = value * 10 + (c - '0');
+    }
+
+    int tenths = 0;
+    boolean tooPrecise = false;
+    if(i < to) {
+      if(!isSeparator(at(text, buffer, i++))) {
+        return NOT_A_NUMBER;
+      }
+      for(int decimal = 0; i < to; i++, decimal++) {
+        int c = at(text, buffer, i);
+        if(!isDigit(c)) {
+          return NOT_A_NUMBER;
+        }
+        if(decimal == 0) {
+          tenths = c - '0';
+        } else if(c != '0') {
+          tooPrecise = true; // keep going, "20.15x" is not a number at all
+        }
+        digits++;
+      }
+    }
+
+    return result(digits, tooPrecise, negative, value, tenths);
+  }
+
+  /**
+   * Gets the character at an index of the text, or else the byte of the buffer as unsigned ASCII
+   */
+  private static int at(CharSequence text, ByteBuffer buffer, int index) {
+    return text != null ? text.charAt(index) : buffer.get(index) & 0xFF;
+  }
+
+  private static int result(int digits, boolean tooPrecise, boolean negative, int value, int tenths) {
+    if(digits == 0) {
+      return NOT_A_NUMBER; // just a sign and/or a separator
+    }
+    if(tooPrecise) {
+      return TOO_PRECISE;
+    }
+    int result = value * 10 + tenths;
+    return negative ? -result : result;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isSeparator(int c) {
+    return c == '.' || c == ',';
+  }
+}
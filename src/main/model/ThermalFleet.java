@@ -0,0 +1,269 @@
+package main.model;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays fleet of zones with RC (resistance-capacitance) thermal physics
+ * Unlike ThermostatModel, where the temperature moves a fixed 0.1°C per tick, here every
+ * zone loses heat towards the outdoor temperature and the HVAC pushes it back:
+ *
+ *   t' = t + (outdoor - t) * loss + drive, drive = +hvac heating, -hvac cooling, 0 idle
+ *
+ * The thermostat heats while the zone reads below its target and cools while it reads
+ * above it, reading being the temperature rounded to a tenth of a degree
+ * How a tick is computed is left to an {@link IThermalPhysics} strategy
+ * Use {@link #zone(int)} to get an IThermostatModel for a single zone
+ */
+public class ThermalFleet {
+
+  // Defaults: a 10 hour time constant and an HVAC as strong as ThermostatModel's step
+  public static final double DEFAULT_LOSS_COEFFICIENT = 1.0 / 36_000;
+  public static final double DEFAULT_HVAC_RATE = DeciDegrees.toCelsius(DeciDegrees.STEP);
+
+  // State arrays, indexed by zone; read and written directly by the physics
+  final float[] temperature;     // °C, unrounded
+  final float[] heatBelow;       // heat while the temperature is below this (target - 0.05°C)
+  final float[] coolAbove;       // cool while the temperature is above this (target + 0.05°C)
+  final float[] lossCoefficient; // share of the indoor/outdoor difference lost per tick
+  final float[] hvacRate;        // °C per tick the HVAC adds or removes
+  final boolean[] heatingOn;
+  final boolean[] coolingOn;
+  float outdoorTemperature;
+
+  private final short[] targetTenths;
+  private final IThermalPhysics physics;
+
+  /**
+   * Constructs a fleet using the fastest physics available on this JVM
+   * @param size the number of zones in the fleet
+   */
+  public ThermalFleet(int size) {
+    this(size, IThermalPhysics.fastest());
+  }
+
+  /**
+   * Constructs a fleet of zones at the default temperature, idle, with the outdoor
+   * temperature at the same default so nothing drifts until something changes
+   * @param size the number of zones in the fleet
+   * @param physics the strategy that computes the ticks
+   * @throws IllegalArgumentException if size is negative
+   */
+  public ThermalFleet(int size, IThermalPhysics physics) {
+    if(size < 0) {
+      throw new IllegalArgumentException("Fleet size must not be negative. Provided: " + size);
+    }
+
+    this.physics = physics;
+    this.temperature = new float[size];
+    this.heatBelow = new float[size];
+    this.coolAbove = new float[size];
+    this.lossCoefficient = new float[size];
+    this.hvacRate = new float[size];
+    this.heatingOn = new boolean[size];
+    this.coolingOn = new boolean[size];
+    this.targetTenths = new short[size];
+    this.outdoorTemperature = (float) DeciDegrees.toCelsius(DeciDegrees.DEFAULT);
+
+    Arrays.fill(temperature, outdoorTemperature);
+    Arrays.fill(lossCoefficient, (float) DEFAULT_LOSS_COEFFICIENT);
+    Arrays.fill(hvacRate, (float) DEFAULT_HVAC_RATE);
+    for(int zone = 0; zone < size; zone++) {
+      setTargetTenths(zone, DeciDegrees.DEFAULT);
+    }
+  }
+
+  public int size() {
+    return temperature.length;
+  }
+
+  public IThermalPhysics getPhysics() {
+    return physics;
+  }
+
+  public double getOutdoorTemperature() {
+    return outdoorTemperature;
+  }
+
+  /**
+   * Sets the outdoor temperature all zones lose heat towards
+   * @param temperature the outdoor temperature in Celsius
+   */
+  public void setOutdoorTemperature(double temperature) {
+    this.outdoorTemperature = (float) temperature;
+  }
+
+  /**
+   * Sets how well a zone is insulated
+   * @param zone the zone index
+   * @param loss the share of the indoor/outdoor difference lost per tick, 0 (perfect) to 1
+   * @throws IllegalArgumentException if loss is outside [0, 1]
+   */
+  public void setLossCoefficient(int zone, double loss) {
+    if(!(loss >= 0 && loss <= 1)) {
+      throw new IllegalArgumentException("Loss coefficient must be between 0 and 1. Provided: " + loss);
+    }
+    lossCoefficient[zone] = (float) loss;
+  }
+
+  /**
+   * Sets how strong a zone's heating/cooling is
+   * @param zone the zone index
+   * @param degreesPerTick the temperature change per tick with the HVAC running
+   * @throws IllegalArgumentException if the rate is negative
+   */
+  public void setHvacRate(int zone, double degreesPerTick) {
+    if(!(degreesPerTick >= 0)) {
+      throw new IllegalArgumentException("HVAC rate must not be negative. Provided: " + degreesPerTick);
+    }
+    hvacRate[zone] = (float) degreesPerTick;
+  }
+
+  /**
+   * Sets the target temperature of one zone
+   * @param zone the zone index
+   * @param temperature the desired temperature in Celsius
+   * @throws IllegalArgumentException if temperature is outside valid range or not in 0.1 increments
+   */
+  public void setTargetTemperature(int zone, double temperature) {
+    setTargetTenths(zone, ThermostatModel.toValidTenths(temperature));
+  }
+
+  private void setTargetTenths(int zone, int tenths) {
+    targetTenths[zone] = (short) tenths;
+    heatBelow[zone] = (tenths - 0.5f) / 10f;
+    coolAbove[zone] = (tenths + 0.5f) / 10f;
+  }
+
+  /**
+   * Gets the unrounded temperature of a zone
+   * @param zone the zone index
+   * @return the temperature in Celsius
+   */
+  public float getExactTemperature(int zone) {
+    return temperature[zone];
+  }
+
+  public double getCurrentTemperature(int zone) {
+    return DeciDegrees.toCelsius(getCurrentTenths(zone));
+  }
+
+  public double getTargetTemperature(int zone) {
+    return DeciDegrees.toCelsius(targetTenths[zone]);
+  }
+
+  public int getCurrentTenths(int zone) {
+    return Math.round(temperature[zone] * 10f);
+  }
+
+  public int getTargetTenths(int zone) {
+    return targetTenths[zone];
+  }
+
+  public boolean isHeating(int zone) {
+    return heatingOn[zone];
+  }
+
+  public boolean isCooling(int zone) {
+    return coolingOn[zone];
+  }
+
+  /**
+   * Updates every zone in the fleet by one tick
+   */
+  public void updateSystem() {
+    physics.step(this, 0, size());
+  }
+
+  /**
+   * Updates the zones in [from, to) by one tick
+   * @param from the first zone index (inclusive)
+   * @param to the last zone index (exclusive)
+   */
+  public void updateSystem(int from, int to) {
+    physics.step(this, from, to);
+  }
+
+  /**
+   * Gets a model view over a single zone
+   * @param zone the zone index
+   * @return an IThermostatModel backed by this fleet
+   * @throws IndexOutOfBoundsException if zone is not a valid index
+   */
+  public IThermostatModel zone(int zone) {
+    if(zone < 0 || zone >= size()) {
+      throw new IndexOutOfBoundsException("Zone " + zone + " out of range for fleet of " + size());
+    }
+    return new ZoneView(zone);
+  }
+
+  /**
+   * Single-zone adapter so controllers and views can work with a thermal zone
+   * updateSystem() runs the fleet's physics over just this zone
+   */
+  private final class ZoneView implements IThermostatModel {
+    private final int zone;
+
+    private ZoneView(int zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public void setTargetTemperature(double temperature) {
+      ThermalFleet.this.setTargetTemperature(zone, temperature);
+    }
+
+    @Override
+    public double getCurrentTemperature() {
+      return ThermalFleet.this.getCurrentTemperature(zone);
+    }
+
+    @Override
+    public double getTargetTemperature() {
+      return ThermalFleet.this.getTargetTemperature(zone);
+    }
+
+    @Override
+    public int getCurrentTenths() {
+      return ThermalFleet.this.getCurrentTenths(zone);
+    }
+
+    @Override
+    public int getTargetTenths() {
+      return targetTenths[zone];
+    }
+
+    @Override
+    public boolean isHeating() {
+      return heatingOn[zone];
+    }
+
+    @Override
+    public boolean isCooling() {
+      return coolingOn[zone];
+    }
+
+    @Override
+    public void updateSystem() {
+      physics.step(ThermalFleet.this, zone, zone + 1);
+    }
+
+    @Override
+    public double getMinTemperature() {
+      return ThermostatModel.MIN_TEMPERATURE;
+    }
+
+    @Override
+    public double getMaxTemperature() {
+      return ThermostatModel.MAX_TEMPERATURE;
+    }
+
+    @Override
+    public String toString() {
+      return "zone: " + zone + "\n" +
+          "curr temp: " + temperature[zone] + "\n" +
+          "target temp: " + getTargetTemperature() + "\n" +
+          "heatingOn: " + isHeating() + "\n" +
+          "coolingOn: " + isCooling() + "\n";
+    }
+  }
+}
@@ -0,0 +1,621 @@
+package main.model;
+
+import java.util.Arrays;
+import main.model.IThermostatModel.ChangeListener;
+
+/**
+ * Struct-of-arrays engine that simulates many thermostat zones at once
+ * Each zone follows exactly the same rules as ThermostatModel, but the state of
+ * all zones lives in parallel primitive arrays so a fleet-wide tick is one tight loop
+ * Temperatures are stored as short tenths of a degree (see {@link DeciDegrees})
+ * Use {@link #zone(int)} to get an IThermostatModel for a single zone
+ * (e.g., to hand it to a ThermostatController)
+ *
+ * Zones that sit idle at their target are not touched by {@link #updateSystem()}:
+ * the fleet keeps an active set of zones that are heating, cooling or have a new
+ * setpoint, so a tick costs time proportional to the active zones only
+ */
+public class ThermostatFleet {
+
+  // State arrays, indexed by zone; temperatures in tenths of a degree
+  private final short[] currentTenths;
+  private final short[] targetTenths;
+  private final boolean[] heatingOn;
+  private final boolean[] coolingOn;
+
+  // Active set: membership bits plus the member zones in no particular order
+  // Every zone that is not idle at its target is a member; members may go idle until the next compaction
+  private final long[] activeBits;
+  private int[] activeZones = new int[16];
+  private int activeCount;
+
+  // Change listeners per zone, allocated on first registration
+  // Register listeners before ticking the fleet from several threads
+  private ChangeListener[][] zoneListeners;
+
+  // Heating/cooling transitions and target changes of every zone, reported straight from the tick loop
+  // null when nobody listens
+  private TransitionListener[] transitionListeners;
+
+  /**
+   * Callback for the heating/cooling state changes and target changes of any zone,
+   * without per-zone registration
+   * Transitions are called from the thread that steps the zone, possibly several threads
+   * at once for different zones; target changes from the thread that sets the target
+   */
+  @FunctionalInterface
+  public interface TransitionListener {
+    /**
+     * Called when a tick turned heating or cooling on or off
+     * @param zone the zone index
+     * @param heating true if heating is on now
+     * @param cooling true if cooling is on now
+     */
+    void transition(int zone, boolean heating, boolean cooling);
+
+    /**
+     * Called when a zone got a new target; ignored unless overridden
+     * @param zone the zone index
+     * @param currentTenths the current temperature in tenths of a degree
+     * @param targetTenths the new target in tenths of a degree
+     */
+    default void targetChanged(int zone, int currentTenths, int targetTenths) {
+      // only heating/cooling changes by default
+    }
+  }
+
+  /**
+   * Constructs a fleet of zones, all starting at the default temperature and idle
+   * @param size the number of zones in the fleet
+   * @throws IllegalArgumentException if size is negative
+   */
+  public ThermostatFleet(int size) {
+    if(size < 0) {
+      throw new IllegalArgumentException("Fleet size must not be negative. Provided: " + size);
+    }
+
+    this.currentTenths = new short[size];
+    this.targetTenths = new short[size];
+    this.heatingOn = new boolean[size];
+    this.coolingOn = new boolean[size];
+    this.activeBits = new long[(size + 63) >>> 6];
+
+    Arrays.fill(currentTenths, (short) DeciDegrees.DEFAULT);
+    Arrays.fill(targetTenths, (short) DeciDegrees.DEFAULT);
+  }
+
+  /**
+   * Gets the number of zones in the fleet
+   * @return the fleet size
+   */
+  public int size() {
+    return currentTenths.length;
+  }
+
+  /**
+   * Sets the target temperature of one zone
+   * @param zone the zone index
+   * @param temperature the desired temperature in Celsius
+   * @throws IllegalArgumentException if temperature is outside valid range or not in 0.1 increments
+   */
+  public void setTargetTemperature(int zone, double temperature) {
+    setTargetTenths(zone, ThermostatModel.toValidTenths(temperature));
+  }
+
+  private void setTargetTenths(int zone, short newTarget) {
+    if(newTarget != targetTenths[zone]) {
+      targetTenths[zone] = newTarget;
+      activate(zone);
+      if(zoneListeners != null && zoneListeners[zone] != null) {
+        ChangeListeners.fire(zoneListeners[zone], ChangeListener.TARGET_TEMPERATURE);
+      }
+      if(transitionListeners != null) {
+        for(TransitionListener listener : transitionListeners) {
+          listener.targetChanged(zone, currentTenths[zone], newTarget);
+        }
+      }
+    }
+  }
+
+  /**
+   * Validates and applies many targets at once without throwing for bad entries
+   * Invalid entries are skipped and reported in the result; listeners are notified
+   * exactly as by setTargetTemperature
+   * @param zones the zone of each entry
+   * @param temperatures the target of each entry in Celsius
+   * @return the per-entry results
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public SetpointResults applyTargets(int[] zones, double[] temperatures) {
+    if(zones.length != temperatures.length) {
+      throw new IllegalArgumentException("Got " + zones.length + " zones but "
+          + temperatures.length + " temperatures");
+    }
+
+    byte[] codes = new byte[zones.length];
+    for(int i = 0; i < zones.length; i++) {
+      codes[i] = Setpoints.check(temperatures[i],
+          ThermostatModel.MIN_TEMPERATURE, ThermostatModel.MAX_TEMPERATURE);
+      if(codes[i] == Setpoints.ACCEPTED) {
+        setTargetTenths(zones[i], (short) DeciDegrees.fromCelsius(temperatures[i]));
+      }
+    }
+    return new SetpointResults(codes, temperatures,
+        ThermostatModel.MIN_TEMPERATURE, ThermostatModel.MAX_TEMPERATURE);
+  }
+
+  public double getCurrentTemperature(int zone) {
+    return DeciDegrees.toCelsius(currentTenths[zone]);
+  }
+
+  public double getTargetTemperature(int zone) {
+    return DeciDegrees.toCelsius(targetTenths[zone]);
+  }
+
+  public int getCurrentTenths(int zone) {
+    return currentTenths[zone];
+  }
+
+  public int getTargetTenths(int zone) {
+    return targetTenths[zone];
+  }
+
+  public boolean isHeating(int zone) {
+    return heatingOn[zone];
+  }
+
+  public boolean isCooling(int zone) {
+    return coolingOn[zone];
+  }
+
+  /**
+   * Gets how many zones the next updateSystem() will step
+   * @return the size of the active set
+   */
+  public int getActiveCount() {
+    return activeCount;
+  }
+
+  /**
+   * Updates every zone in the fleet by one tick
+   * Same semantics as calling ThermostatModel.updateSystem() on each zone,
+   * but only the active zones are visited - the others would not change anyway
+   */
+  public void updateSystem() {
+    if(isActiveDense()) {
+      updateSystem(0, size());
+    } else {
+      updateActive(0, activeCount);
+    }
+    compactActive();
+  }
+
+  /**
+   * Checks whether so many zones are active that a straight scan over all zones
+   * beats hopping through the active set (stepping an idle zone is a no-op)
+   */
+  boolean isActiveDense() {
+    return activeCount > (size() >>> 2);
+  }
+
+  /**
+   * Steps the active zones at positions [from, to) of the active set
+   * Disjoint position ranges can be stepped from different threads;
+   * call {@link #compactActive()} once they are all done
+   * @param from the first position (inclusive)
+   * @param to the last position (exclusive)
+   */
+  void updateActive(int from, int to) {
+    if(zoneListeners != null) {
+      for(int i = from; i < to; i++) {
+        updateSystem(activeZones[i], activeZones[i] + 1);
+      }
+      return;
+    }
+    if(transitionListeners != null) {
+      for(int i = from; i < to; i++) {
+        stepReporting(activeZones[i], activeZones[i] + 1, transitionListeners);
+      }
+      return;
+    }
+
+    final int[] zones = this.activeZones;
+    final short[] current = this.currentTenths;
+    final short[] target = this.targetTenths;
+    final boolean[] heating = this.heatingOn;
+    final boolean[] cooling = this.coolingOn;
+
+    // same rules as step(), through the index array
+    for(int i = from; i < to; i++) {
+      int zone = zones[i];
+      int curr = current[zone];
+      int goal = target[zone];
+      if(curr != goal) {
+        current[zone] = (short) (curr < goal ? curr + DeciDegrees.STEP : curr - DeciDegrees.STEP);
+      }
+      heating[zone] = curr < goal;
+      cooling[zone] = curr > goal;
+    }
+  }
+
+  /**
+   * Drops the zones that went idle from the active set
+   */
+  void compactActive() {
+    final int[] zones = this.activeZones;
+    int kept = 0;
+    for(int i = 0; i < activeCount; i++) {
+      int zone = zones[i];
+      if(currentTenths[zone] == targetTenths[zone] && !heatingOn[zone] && !coolingOn[zone]) {
+        activeBits[zone >>> 6] &= ~(1L << zone);
+      } else {
+        zones[kept++] = zone;
+      }
+    }
+    activeCount = kept;
+  }
+
+  /**
+   * Adds a zone to the active set, if it is not a member yet
+   */
+  private void activate(int zone) {
+    long bit = 1L << zone; // shifts use the low 6 bits only
+    if((activeBits[zone >>> 6] & bit) != 0) {
+      return;
+    }
+    activeBits[zone >>> 6] |= bit;
+    if(activeCount == activeZones.length) {
+      activeZones = Arrays.copyOf(activeZones, Math.min(activeCount * 2, size()));
+    }
+    activeZones[activeCount++] = zone;
+  }
+
+  /**
+   * Updates the zones in [from, to) by one tick
+   * @param from the first zone index (inclusive)
+   * @param to the last zone index (exclusive)
+   */
+  public void updateSystem(int from, int to) {
+    if(zoneListeners == null) {
+      step(from, to);
+      return;
+    }
+
+    // someone is listening - step zone by zone and report what changed
+    for(int i = from; i < to; i++) {
+      ChangeListener[] listeners = zoneListeners[i];
+      if(listeners == null) {
+        step(i, i + 1);
+        continue;
+      }
+
+      int oldCurrent = currentTenths[i];
+      boolean wasHeating = heatingOn[i];
+      boolean wasCooling = coolingOn[i];
+      step(i, i + 1);
+      ChangeListeners.fire(listeners, ChangeListeners.stepMask(oldCurrent, currentTenths[i],
+          wasHeating, heatingOn[i], wasCooling, coolingOn[i]));
+    }
+  }
+
+  /**
+   * The tight loop: steps the zones in [from, to) without any notification
+   */
+  private void step(int from, int to) {
+    final TransitionListener[] transitions = this.transitionListeners;
+    if(transitions != null) {
+      stepReporting(from, to, transitions);
+      return;
+    }
+
+    final short[] current = this.currentTenths;
+    final short[] target = this.targetTenths;
+    final boolean[] heating = this.heatingOn;
+    final boolean[] cooling = this.coolingOn;
+
+    for(int i = from; i < to; i++) {
+      int curr = current[i];
+      int goal = target[i];
+
+      if(curr < goal) {
+        // too cold - heat up
+        current[i] = (short) (curr + DeciDegrees.STEP);
+        heating[i] = true;
+        cooling[i] = false;
+      } else if(curr > goal) {
+        // too hot - cool down
+        current[i] = (short) (curr - DeciDegrees.STEP);
+        heating[i] = false;
+        cooling[i] = true;
+      } else {
+        // at target - turn off
+        heating[i] = false;
+        cooling[i] = false;
+      }
+    }
+  }
+
+  /**
+   * Steps the zones in [from, to) like step() and reports every heating/cooling change
+   */
+  private void stepReporting(int from, int to, TransitionListener[] transitions) {
+    final short[] current = this.currentTenths;
+    final short[] target = this.targetTenths;
+    final boolean[] heating = this.heatingOn;
+    final boolean[] cooling = this.coolingOn;
+
+    for(int i = from; i < to; i++) {
+      int curr = current[i];
+      int goal = target[i];
+      boolean heat = curr < goal;
+      boolean cool = curr > goal;
+      boolean changed = heat != heating[i] | cool != cooling[i];
+      current[i] = (short) (heat ? curr + DeciDegrees.STEP : cool ? curr - DeciDegrees.STEP : curr);
+      heating[i] = heat;
+      cooling[i] = cool;
+      if(changed) {
+        fireTransition(transitions, i, heat, cool);
+      }
+    }
+  }
+
+  private static void fireTransition(TransitionListener[] transitions, int zone, boolean heating, boolean cooling) {
+    for(TransitionListener listener : transitions) {
+      listener.transition(zone, heating, cooling);
+    }
+  }
+
+  /**
+   * Puts one zone back into a previously saved state (e.g., recovered from a journal)
+   * Does not notify change listeners; restore before registering them
+   * Transition listeners track the zones incrementally and would silently drift, so restoring
+   * once one is registered fails instead
+   * @param zone the zone index
+   * @param currentTenths the current temperature in tenths of a degree
+   * @param targetTenths the target temperature in tenths of a degree
+   * @param heating true if heating was on
+   * @param cooling true if cooling was on
+   * @throws IllegalArgumentException if the target is outside the valid range
+   * @throws IllegalStateException if a transition listener is registered
+   */
+  public void restoreState(int zone, int currentTenths, int targetTenths,
+      boolean heating, boolean cooling) {
+    if(transitionListeners != null) {
+      throw new IllegalStateException("Restore zones before adding transition listeners");
+    }
+    if(targetTenths < DeciDegrees.MIN || targetTenths > DeciDegrees.MAX) {
+      throw new IllegalArgumentException("Saved target out of range: " + targetTenths + " tenths");
+    }
+    this.currentTenths[zone] = (short) currentTenths;
+    this.targetTenths[zone] = (short) targetTenths;
+    this.heatingOn[zone] = heating;
+    this.coolingOn[zone] = cooling;
+    if(currentTenths != targetTenths || heating || cooling) {
+      activate(zone);
+    }
+  }
+
+  /**
+   * Registers a change listener for one zone
+   * @param zone the zone index
+   * @param listener the listener to add
+   */
+  public void addChangeListener(int zone, ChangeListener listener) {
+    if(zoneListeners == null) {
+      zoneListeners = new ChangeListener[size()][];
+    }
+    ChangeListener[] current = zoneListeners[zone];
+    zoneListeners[zone] = ChangeListeners.add(current == null ? ChangeListeners.NONE : current, listener);
+  }
+
+  /**
+   * Removes a change listener from one zone
+   * @param zone the zone index
+   * @param listener the listener to remove
+   */
+  public void removeChangeListener(int zone, ChangeListener listener) {
+    if(zoneListeners == null || zoneListeners[zone] == null) {
+      return;
+    }
+    ChangeListener[] remaining = ChangeListeners.remove(zoneListeners[zone], listener);
+    zoneListeners[zone] = remaining.length == 0 ? null : remaining;
+  }
+
+  /**
+   * Registers a listener for the heating/cooling transitions and target changes of all zones
+   * Costs one comparison per stepped zone, much less than a change listener per zone
+   * Register listeners before ticking the fleet from several threads
+   * @param listener the listener to add
+   */
+  public void addTransitionListener(TransitionListener listener) {
+    TransitionListener[] current = transitionListeners == null ? new TransitionListener[0] : transitionListeners;
+    TransitionListener[] added = Arrays.copyOf(current, current.length + 1);
+    added[current.length] = listener;
+    transitionListeners = added;
+  }
+
+  /**
+   * Removes a listener registered with addTransitionListener
+   * @param listener the listener to remove
+   */
+  public void removeTransitionListener(TransitionListener listener) {
+    if(transitionListeners == null) {
+      return;
+    }
+    for(int i = 0; i < transitionListeners.length; i++) {
+      if(transitionListeners[i] == listener) {
+        TransitionListener[] remaining = new TransitionListener[transitionListeners.length - 1];
+        System.arraycopy(transitionListeners, 0, remaining, 0, i);
+        System.arraycopy(transitionListeners, i + 1, remaining, i, remaining.length - i);
+        transitionListeners = remaining.length == 0 ? null : remaining;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Advances every zone by many ticks at once, in constant time per zone
+   * Exactly the same result as calling updateSystem() `ticks` times
+   * @param ticks the number of ticks, not negative
+   */
+  public void advance(long ticks) {
+    advance(0, size(), ticks);
+  }
+
+  /**
+   * Advances the zones in [from, to) by many ticks at once
+   * Listeners are notified once per zone with the net change, the transition listener included
+   * @param from the first zone index (inclusive)
+   * @param to the last zone index (exclusive)
+   * @param ticks the number of ticks, not negative
+   */
+  public void advance(int from, int to, long ticks) {
+    if(ticks < 0) {
+      throw new IllegalArgumentException("Ticks must not be negative. Provided: " + ticks);
+    }
+    if(ticks == 0) {
+      return;
+    }
+
+    for(int i = from; i < to; i++) {
+      int curr = currentTenths[i];
+      int distance = targetTenths[i] - curr;
+      boolean wasHeating = heatingOn[i];
+      boolean wasCooling = coolingOn[i];
+
+      if(ticks <= ticksToTarget(i)) {
+        // still on the way after the last tick
+        currentTenths[i] = (short) (curr + Integer.signum(distance) * DeciDegrees.STEP * (int) ticks);
+        heatingOn[i] = distance > 0;
+        coolingOn[i] = distance < 0;
+      } else {
+        // arrived, and at least one idle tick after that
+        currentTenths[i] = targetTenths[i];
+        heatingOn[i] = false;
+        coolingOn[i] = false;
+      }
+
+      if(zoneListeners != null && zoneListeners[i] != null) {
+        ChangeListeners.fire(zoneListeners[i], ChangeListeners.stepMask(curr, currentTenths[i],
+            wasHeating, heatingOn[i], wasCooling, coolingOn[i]));
+      }
+      if(transitionListeners != null && (heatingOn[i] != wasHeating || coolingOn[i] != wasCooling)) {
+        for(TransitionListener listener : transitionListeners) {
+          listener.transition(i, heatingOn[i], coolingOn[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets how many ticks a zone needs until its current temperature equals its target
+   * @param zone the zone index
+   * @return the tick count, 0 if the zone is already at its target
+   */
+  public int ticksToTarget(int zone) {
+    return Math.abs(targetTenths[zone] - currentTenths[zone]) / DeciDegrees.STEP;
+  }
+
+  /**
+   * Gets a model view over a single zone
+   * The view holds no state of its own - reads and writes go straight to the fleet arrays
+   * Calling updateSystem() on the view only steps that one zone
+   * @param zone the zone index
+   * @return an IThermostatModel backed by this fleet
+   * @throws IndexOutOfBoundsException if zone is not a valid index
+   */
+  public IThermostatModel zone(int zone) {
+    if(zone < 0 || zone >= size()) {
+      throw new IndexOutOfBoundsException("Zone " + zone + " out of range for fleet of " + size());
+    }
+    return new ZoneView(zone);
+  }
+
+  /**
+   * Single-zone adapter so controllers and views can work with a fleet zone
+   */
+  private final class ZoneView implements IThermostatModel {
+    private final int zone;
+
+    private ZoneView(int zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public void setTargetTemperature(double temperature) {
+      ThermostatFleet.this.setTargetTemperature(zone, temperature);
+    }
+
+    @Override
+    public double getCurrentTemperature() {
+      return ThermostatFleet.this.getCurrentTemperature(zone);
+    }
+
+    @Override
+    public double getTargetTemperature() {
+      return ThermostatFleet.this.getTargetTemperature(zone);
+    }
+
+    @Override
+    public int getCurrentTenths() {
+      return currentTenths[zone];
+    }
+
+    @Override
+    public int getTargetTenths() {
+      return targetTenths[zone];
+    }
+
+    @Override
+    public boolean isHeating() {
+      return heatingOn[zone];
+    }
+
+    @Override
+    public boolean isCooling() {
+      return coolingOn[zone];
+    }
+
+    @Override
+    public void updateSystem() {
+      ThermostatFleet.this.updateSystem(zone, zone + 1);
+    }
+
+    @Override
+    public long advance(long ticks) {
+      int steps = ticksToTarget(zone);
+      ThermostatFleet.this.advance(zone, zone + 1, ticks);
+      return steps <= ticks ? steps : -1;
+    }
+
+    @Override
+    public boolean addChangeListener(ChangeListener listener) {
+      ThermostatFleet.this.addChangeListener(zone, listener);
+      return true;
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+      ThermostatFleet.this.removeChangeListener(zone, listener);
+    }
+
+    @Override
+    public double getMinTemperature() {
+      return ThermostatModel.MIN_TEMPERATURE;
+    }
+
+    @Override
+    public double getMaxTemperature() {
+      return ThermostatModel.MAX_TEMPERATURE;
+    }
+
+    @Override
+    public String toString() {
+      return "zone: " + zone + "\n" +
+          "curr temp: " + getCurrentTemperature() + "\n" +
+          "target temp: " + getTargetTemperature() + "\n" +
+          "heatingOn: " + isHeating() + "\n" +
+          "coolingOn: " + isCooling() + "\n";
+    }
+  }
+}
@@ -3,65 +3,77 @@ package main.model;
 /**
  * Implementation of the thermostat model following MVC pattern
  * Manages thermostat state, temperature control logic, and system behavior
+ * Temperatures are kept as whole tenths of a degree (see {@link DeciDegrees}),
+ * the double getters convert on the way out
  */
 public class ThermostatModel implements IThermostatModel {
 
   // Temperature bounds
-  private static final double MIN_TEMPERATURE = 10.0;
-  private static final double MAX_TEMPERATURE = 35.0;
+  static final double MIN_TEMPERATURE = DeciDegrees.toCelsius(DeciDegrees.MIN);
+  static final double MAX_TEMPERATURE = DeciDegrees.toCelsius(DeciDegrees.MAX);
 
-  // System behavior constants
-  private static final double TEMPERATURE_CHANGE_RATE = 0.1;
-  private static final double TOLERANCE = 0.05; // small tolerance to prevent oscillation
-
-  // Initial temperature
-  private static final double DEFAULT_TEMPERATURE = 20.0; // 20°C
-
-  // State variables
-  private double currentTemperature;
-  private double targetTemperature;
+  // State variables, in tenths of a degree
+  private short currentTenths;
+  private short targetTenths;
   private boolean heatingOn;
   private boolean coolingOn;
 
+  private ChangeListener[] listeners = ChangeListeners.NONE;
+
   /**
    * Constructs a new ThermostatModel with default settings
    */
   public ThermostatModel() {
-    this.currentTemperature = DEFAULT_TEMPERATURE;
-    this.targetTemperature = DEFAULT_TEMPERATURE;
+    this.currentTenths = DeciDegrees.DEFAULT;
+    this.targetTenths = DeciDegrees.DEFAULT;
     this.heatingOn = false;
     this.coolingOn = false;
   }
 
   @Override
   public void setTargetTemperature(double temperature) {
-    // first check bounds
-    if(temperature < MIN_TEMPERATURE || temperature > MAX_TEMPERATURE) {
-      throw new IllegalArgumentException(
-          String.format("Temperature range: %.1f°C – %.1f°C. Provided: %.1f°C",
-              MIN_TEMPERATURE, MAX_TEMPERATURE, temperature)
-      );
+    short newTarget = toValidTenths(temperature);
+    if(newTarget != targetTenths) {
+      this.targetTenths = newTarget;
+      ChangeListeners.fire(listeners, ChangeListener.TARGET_TEMPERATURE);
     }
+  }
 
-    // check if it's in 0.1 increments
-    double scaled = temperature * 10;
-    if(scaled != Math.floor(scaled)) {
+  /**
+   * Checks a target temperature against the bounds and the 0.1°C precision rule
+   * Shared with ThermostatFleet so both engines reject exactly the same input
+   * @param temperature the desired temperature in Celsius
+   * @return the temperature in tenths of a degree
+   * @throws IllegalArgumentException if temperature is out of range or too precise
+   */
+  static short toValidTenths(double temperature) {
+    byte result = Setpoints.check(temperature, MIN_TEMPERATURE, MAX_TEMPERATURE);
+    if(result != Setpoints.ACCEPTED) {
       throw new IllegalArgumentException(
-          "Temperature must be in 0.1°C increments (e.g., 20.0, 20.1, 20.2)"
-      );
+          Setpoints.describe(result, temperature, MIN_TEMPERATURE, MAX_TEMPERATURE));
     }
 
-    this.targetTemperature = temperature;
+    return (short) DeciDegrees.fromCelsius(temperature);
   }
 
   @Override
   public double getCurrentTemperature() {
-    return this.currentTemperature;
+    return DeciDegrees.toCelsius(this.currentTenths);
   }
 
   @Override
   public double getTargetTemperature() {
-    return this.targetTemperature;
+    return DeciDegrees.toCelsius(this.targetTenths);
+  }
+
+  @Override
+  public int getCurrentTenths() {
+    return this.currentTenths;
+  }
+
+  @Override
+  public int getTargetTenths() {
+    return this.targetTenths;
   }
 
   @Override
@@ -76,21 +88,109 @@ public class ThermostatModel implements IThermostatModel {
 
   @Override
   public void updateSystem() {
-    if(currentTemperature < targetTemperature - TOLERANCE) {
+    short oldCurrent = currentTenths;
+    boolean wasHeating = heatingOn;
+    boolean wasCooling = coolingOn;
+
+    // whole tenths on both sides, so "within tolerance" simply means equal
+    if(currentTenths < targetTenths) {
       // too cold - heat up
-      currentTemperature += TEMPERATURE_CHANGE_RATE;
+      currentTenths += DeciDegrees.STEP;
       heatingOn = true;
       coolingOn = false;
-    } else if(currentTemperature > targetTemperature + TOLERANCE) {
+    } else if(currentTenths > targetTenths) {
       // too hot - cool down
-      currentTemperature -= TEMPERATURE_CHANGE_RATE;
+      currentTenths -= DeciDegrees.STEP;
       heatingOn = false;
       coolingOn = true;
     } else {
-      // within tolerance - turn off
+      // at target - turn off
       coolingOn = false;
       heatingOn = false;
     }
+
+    if(listeners.length != 0) {
+      ChangeListeners.fire(listeners, ChangeListeners.stepMask(
+          oldCurrent, currentTenths, wasHeating, heatingOn, wasCooling, coolingOn));
+    }
+  }
+
+  /**
+   * Closed form of updateSystem() repeated: the temperature moves one step per tick
+   * until it equals the target, and the tick after that everything is off
+   * Runs in constant time and notifies listeners once with the net change
+   */
+  @Override
+  public long advance(long ticks) {
+    if(ticks < 0) {
+      throw new IllegalArgumentException("Ticks must not be negative. Provided: " + ticks);
+    }
+
+    int distance = targetTenths - currentTenths;
+    int steps = Math.abs(distance) / DeciDegrees.STEP; // ticks needed to reach the target
+    if(ticks == 0) {
+      return steps == 0 ? 0 : -1;
+    }
+
+    short oldCurrent = currentTenths;
+    boolean wasHeating = heatingOn;
+    boolean wasCooling = coolingOn;
+
+    if(ticks <= steps) {
+      // still on the way after the last tick
+      currentTenths += (short) (Integer.signum(distance) * DeciDegrees.STEP * ticks);
+      heatingOn = distance > 0;
+      coolingOn = distance < 0;
+    } else {
+      // arrived, and at least one idle tick after that
+      currentTenths = targetTenths;
+      heatingOn = false;
+      coolingOn = false;
+    }
+
+    if(listeners.length != 0) {
+      ChangeListeners.fire(listeners, ChangeListeners.stepMask(
+          oldCurrent, currentTenths, wasHeating, heatingOn, wasCooling, coolingOn));
+    }
+    return steps <= ticks ? steps : -1;
+  }
+
+  /**
+   * Puts the model back into a previously saved state (e.g., recovered from a journal)
+   * Listeners are notified about whatever differs from the current state
+   * @param currentTenths the current temperature in tenths of a degree
+   * @param targetTenths the target temperature in tenths of a degree
+   * @param heating true if heating was on
+   * @param cooling true if cooling was on
+   * @throws IllegalArgumentException if the target is outside the valid range
+   */
+  public void restoreState(int currentTenths, int targetTenths, boolean heating, boolean cooling) {
+    if(targetTenths < DeciDegrees.MIN || targetTenths > DeciDegrees.MAX) {
+      throw new IllegalArgumentException("Saved target out of range: " + targetTenths + " tenths");
+    }
+
+    int mask = ChangeListeners.stepMask(this.currentTenths, currentTenths,
+        this.heatingOn, heating, this.coolingOn, cooling);
+    if(this.targetTenths != targetTenths) {
+      mask |= ChangeListener.TARGET_TEMPERATURE;
+    }
+
+    this.currentTenths = (short) currentTenths;
+    this.targetTenths = (short) targetTenths;
+    this.heatingOn = heating;
+    this.coolingOn = cooling;
+    ChangeListeners.fire(listeners, mask);
+  }
+
+  @Override
+  public boolean addChangeListener(ChangeListener listener) {
+    listeners = ChangeListeners.add(listeners, listener);
+    return true;
+  }
+
+  @Override
+  public void removeChangeListener(ChangeListener listener) {
+    listeners = ChangeListeners.remove(listeners, listener);
   }
 
   @Override
@@ -105,8 +205,8 @@ public class ThermostatModel implements IThermostatModel {
 
   @Override
   public String toString() {
-    return "curr temp: " + currentTemperature + "\n" +
-        "target temp: " + targetTemperature + "\n" +
+    return "curr temp: " + getCurrentTemperature() + "\n" +
+        "target temp: " + getTargetTemperature() + "\n" +
         "heatingOn: " + heatingOn + "\n" +
         "coolingOn: " + coolingOn + "\n";
   }
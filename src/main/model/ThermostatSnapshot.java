@@ -0,0 +1,52 @@
+package main.model;
+
+/**
+ * Immutable, consistent view of one thermostat at one instant
+ * All four values were read together, so they always belong to the same state
+ */
+public final class ThermostatSnapshot {
+
+  private final int currentTenths;
+  private final int targetTenths;
+  private final boolean heating;
+  private final boolean cooling;
+
+  public ThermostatSnapshot(int currentTenths, int targetTenths, boolean heating, boolean cooling) {
+    this.currentTenths = currentTenths;
+    this.targetTenths = targetTenths;
+    this.heating = heating;
+    this.cooling = cooling;
+  }
+
+  public int getCurrentTenths() {
+    return currentTenths;
+  }
+
+  public int getTargetTenths() {
+    return targetTenths;
+  }
+
+  public double getCurrentTemperature() {
+    return DeciDegrees.toCelsius(currentTenths);
+  }
+
+  public double getTargetTemperature() {
+    return DeciDegrees.toCelsius(targetTenths);
+  }
+
+  public boolean isHeating() {
+    return heating;
+  }
+
+  public boolean isCooling() {
+    return cooling;
+  }
+
+  @Override
+  public String toString() {
+    return "curr temp: " + getCurrentTemperature() + "\n" +
+        "target temp: " + getTargetTemperature() + "\n" +
+        "heatingOn: " + heating + "\n" +
+        "coolingOn: " + cooling + "\n";
+  }
+}
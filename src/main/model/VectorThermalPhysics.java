@@ -0,0 +1,49 @@
+package main.model;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * RC physics on SIMD lanes with the incubating Vector API
+ * Needs --add-modules jdk.incubator.vector at compile and run time;
+ * get it through {@link IThermalPhysics#vector()} rather than directly
+ */
+final class VectorThermalPhysics implements IThermalPhysics {
+
+  private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+  @Override
+  public void step(ThermalFleet fleet, int from, int to) {
+    final float[] temperature = fleet.temperature;
+    final float[] heatBelow = fleet.heatBelow;
+    final float[] coolAbove = fleet.coolAbove;
+    final float[] loss = fleet.lossCoefficient;
+    final float[] hvac = fleet.hvacRate;
+    final boolean[] heating = fleet.heatingOn;
+    final boolean[] cooling = fleet.coolingOn;
+
+    FloatVector outdoor = FloatVector.broadcast(SPECIES, fleet.outdoorTemperature);
+    FloatVector zero = FloatVector.zero(SPECIES);
+
+    int i = from;
+    int bound = from + SPECIES.loopBound(to - from);
+    for(; i < bound; i += SPECIES.length()) {
+      FloatVector t = FloatVector.fromArray(SPECIES, temperature, i);
+      FloatVector power = FloatVector.fromArray(SPECIES, hvac, i);
+      VectorMask<Float> heat = t.lt(FloatVector.fromArray(SPECIES, heatBelow, i));
+      VectorMask<Float> cool = FloatVector.fromArray(SPECIES, coolAbove, i).lt(t);
+      FloatVector drive = zero.blend(power, heat).blend(power.neg(), cool);
+
+      // t + (outdoor - t) * loss + drive, exactly like the scalar code
+      t.add(outdoor.sub(t).mul(FloatVector.fromArray(SPECIES, loss, i)))
+          .add(drive)
+          .intoArray(temperature, i);
+      heat.intoArray(heating, i);
+      cool.intoArray(cooling, i);
+    }
+
+    // whatever does not fill a whole vector
+    ScalarThermalPhysics.INSTANCE.step(fleet, i, to);
+  }
+}
@@ -0,0 +1,81 @@
+package main.persistence;
+
+import java.util.Arrays;
+import main.model.DeciDegrees;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+
+/**
+ * Zone states rebuilt from a journal by {@link StateJournal#recover}
+ * Zones the journal never mentioned keep the model defaults
+ */
+public final class JournalState {
+
+  private final short[] currentTenths;
+  private final short[] targetTenths;
+  private final boolean[] heatingOn;
+  private final boolean[] coolingOn;
+
+  JournalState(int zones) {
+    this.currentTenths = new short[zones];
+    this.targetTenths = new short[zones];
+    this.heatingOn = new boolean[zones];
+    this.coolingOn = new boolean[zones];
+
+    Arrays.fill(currentTenths, (short) DeciDegrees.DEFAULT);
+    Arrays.fill(targetTenths, (short) DeciDegrees.DEFAULT);
+  }
+
+  void set(int zone, int current, int target, boolean heating, boolean cooling) {
+    currentTenths[zone] = (short) current;
+    targetTenths[zone] = (short) target;
+    heatingOn[zone] = heating;
+    coolingOn[zone] = cooling;
+  }
+
+  void setTarget(int zone, int target) {
+    targetTenths[zone] = (short) target;
+  }
+
+  public int size() {
+    return currentTenths.length;
+  }
+
+  public int getCurrentTenths(int zone) {
+    return currentTenths[zone];
+  }
+
+  public int getTargetTenths(int zone) {
+    return targetTenths[zone];
+  }
+
+  public boolean isHeating(int zone) {
+    return heatingOn[zone];
+  }
+
+  public boolean isCooling(int zone) {
+    return coolingOn[zone];
+  }
+
+  /**
+   * Restores one zone into a model
+   * @param zone the zone index
+   * @param model the model to restore
+   */
+  public void applyTo(int zone, ThermostatModel model) {
+    model.restoreState(currentTenths[zone], targetTenths[zone], heatingOn[zone], coolingOn[zone]);
+  }
+
+  /**
+   * Restores every zone into a fleet, zone i into zone i
+   * @param fleet the fleet to restore
+   * @throws IllegalStateException if the fleet already has transition listeners
+   */
+  public void applyTo(ThermostatFleet fleet) {
+    int count = Math.min(size(), fleet.size());
+    for(int zone = 0; zone < count; zone++) {
+      fleet.restoreState(zone, currentTenths[zone], targetTenths[zone],
+          heatingOn[zone], coolingOn[zone]);
+    }
+  }
+}
@@ -0,0 +1,463 @@
+package main.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import main.model.IThermostatModel;
+import main.model.ThermostatFleet;
+
+/**
+ * Append-only journal of setpoint changes and periodic state snapshots
+ * Records are fixed-width (24 bytes) and written into memory-mapped segment files
+ * (journal-0000000001.seg, ...) that roll over when full
+ *
+ * Callers only put entries on a queue; a background writer appends everything that queued
+ * up since its last write and then forces the pages to disk once for the whole batch (group commit).
+ * Nothing is written or synced on the caller's thread, so the tick path is not slowed down
+ *
+ * Recovery loads the last committed snapshot and replays the setpoints written after it;
+ * once a snapshot is durable, the segments before it are deleted
+ *
+ * If the writer fails (e.g., the disk is full) it logs the error once and the journal turns
+ * itself off: later records are dropped instead of failing the callers, which record from
+ * inside model change listeners. flush() still reports the failure
+ */
+public class StateJournal implements AutoCloseable {
+
+  // Record layout: type | state bits | current | target | pad | zone | pad | timestamp
+  static final int RECORD_SIZE = 24;
+  private static final int TYPE_OFFSET = 0;
+  private static final int STATE_OFFSET = 1;
+  private static final int CURRENT_OFFSET = 2;
+  private static final int TARGET_OFFSET = 4;
+  private static final int ZONE_OFFSET = 8;
+  private static final int TIMESTAMP_OFFSET = 16;
+
+  // Record types; 0 marks the unwritten tail of a segment
+  private static final byte END = 0;
+  private static final byte SETPOINT = 1;
+  private static final byte SNAPSHOT_ZONE = 2;
+  private static final byte SNAPSHOT_COMMIT = 3;
+
+  // State bits
+  private static final int HEATING = 1;
+  private static final int COOLING = 1 << 1;
+
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024; // 16 MB
+
+  private final Path directory;
+  private final int segmentSize;
+
+  // writer thread state
+  private long segmentIndex;
+  private FileChannel channel;
+  private MappedByteBuffer segment;
+  private int position;
+  private int unforcedFrom;
+
+  // queue between callers and the writer thread
+  private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+  private final Object sequenceLock = new Object();
+  private long enqueuedSequence;
+  private long durableSequence;
+  private volatile IOException failure;
+  private boolean closed;
+  private final Thread writer;
+
+  /**
+   * Something to append; carries the sequence number used by flush()
+   */
+  private abstract static class Entry {
+    long sequence;
+  }
+
+  private static final class Setpoint extends Entry {
+    final int zone;
+    final int targetTenths;
+    final long timestamp;
+
+    Setpoint(int zone, int targetTenths, long timestamp) {
+      this.zone = zone;
+      this.targetTenths = targetTenths;
+      this.timestamp = timestamp;
+    }
+  }
+
+  private static final class Snapshot extends Entry {
+    final short[] currentTenths;
+    final short[] targetTenths;
+    final byte[] stateBits;
+    final long timestamp;
+
+    Snapshot(int zones, long timestamp) {
+      this.currentTenths = new short[zones];
+      this.targetTenths = new short[zones];
+      this.stateBits = new byte[zones];
+      this.timestamp = timestamp;
+    }
+  }
+
+  private static final class Close extends Entry {
+  }
+
+  private StateJournal(Path directory, int segmentSize) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+
+    Files.createDirectories(directory);
+    List<Path> segments = listSegments(directory);
+    if(segments.isEmpty()) {
+      openSegment(1);
+    } else {
+      // continue after the last record of the newest segment
+      Path newest = segments.get(segments.size() - 1);
+      openSegment(segmentIndexOf(newest));
+      while(position + RECORD_SIZE <= segmentSize && segment.get(position + TYPE_OFFSET) != END) {
+        position += RECORD_SIZE;
+      }
+      unforcedFrom = position;
+    }
+
+    this.writer = new Thread(this::writeLoop, "state-journal");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Opens (or creates) a journal in a directory and starts its writer thread
+   * @param directory the directory holding the segment files
+   * @return the open journal
+   * @throws IOException if the directory or a segment cannot be opened
+   */
+  public static StateJournal open(Path directory) throws IOException {
+    return open(directory, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Opens a journal with a custom segment size
+   * @param directory the directory holding the segment files
+   * @param segmentSize the size of each segment file in bytes, at least one record
+   * @return the open journal
+   * @throws IOException if the directory or a segment cannot be opened
+   */
+  public static StateJournal open(Path directory, int segmentSize) throws IOException {
+    if(segmentSize < RECORD_SIZE) {
+      throw new IllegalArgumentException("Segment size must be at least " + RECORD_SIZE
+          + " bytes. Provided: " + segmentSize);
+    }
+    return new StateJournal(directory, segmentSize - segmentSize % RECORD_SIZE);
+  }
+
+  /**
+   * Queues a setpoint change; returns immediately, dropped if the writer failed
+   * @param zone the zone index
+   * @param targetTenths the new target in tenths of a degree
+   */
+  public void recordSetpoint(int zone, int targetTenths) {
+    enqueue(new Setpoint(zone, targetTenths, System.currentTimeMillis()));
+  }
+
+  /**
+   * Queues a snapshot of one model as zone 0
+   * The state is copied now, on the caller's thread; the writing happens later
+   * @param model the model to snapshot
+   */
+  public void snapshot(IThermostatModel model) {
+    snapshot(List.of(model));
+  }
+
+  /**
+   * Queues a snapshot of one zone, as zone 0, from state captured earlier
+   * For callers that must not touch the model, e.g., a shutdown hook
+   * @param currentTenths the current temperature in tenths of a degree
+   * @param targetTenths the target temperature in tenths of a degree
+   * @param heating whether the zone was heating
+   * @param cooling whether the zone was cooling
+   */
+  public void snapshot(int currentTenths, int targetTenths, boolean heating, boolean cooling) {
+    Snapshot snapshot = new Snapshot(1, System.currentTimeMillis());
+    snapshot.currentTenths[0] = (short) currentTenths;
+    snapshot.targetTenths[0] = (short) targetTenths;
+    snapshot.stateBits[0] = stateBits(heating, cooling);
+    enqueue(snapshot);
+  }
+
+  /**
+   * Queues a snapshot of a list of models, model i as zone i
+   * @param models the models to snapshot
+   */
+  public void snapshot(List<? extends IThermostatModel> models) {
+    Snapshot snapshot = new Snapshot(models.size(), System.currentTimeMillis());
+    for(int zone = 0; zone < models.size(); zone++) {
+      IThermostatModel model = models.get(zone);
+      snapshot.currentTenths[zone] = (short) model.getCurrentTenths();
+      snapshot.targetTenths[zone] = (short) model.getTargetTenths();
+      snapshot.stateBits[zone] = stateBits(model.isHeating(), model.isCooling());
+    }
+    enqueue(snapshot);
+  }
+
+  /**
+   * Queues a snapshot of every zone of a fleet
+   * @param fleet the fleet to snapshot
+   */
+  public void snapshot(ThermostatFleet fleet) {
+    Snapshot snapshot = new Snapshot(fleet.size(), System.currentTimeMillis());
+    for(int zone = 0; zone < fleet.size(); zone++) {
+      snapshot.currentTenths[zone] = (short) fleet.getCurrentTenths(zone);
+      snapshot.targetTenths[zone] = (short) fleet.getTargetTenths(zone);
+      snapshot.stateBits[zone] = stateBits(fleet.isHeating(zone), fleet.isCooling(zone));
+    }
+    enqueue(snapshot);
+  }
+
+  /**
+   * Waits until everything queued so far has been written and forced to disk
+   * @throws UncheckedIOException if the writer failed
+   */
+  public void flush() {
+    synchronized(sequenceLock) {
+      long target = enqueuedSequence;
+      while(durableSequence < target && failure == null) {
+        try {
+          sequenceLock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    checkFailure();
+  }
+
+  /**
+   * Checks whether the writer failed and the journal dropped everything since
+   * @return true if nothing is saved anymore
+   */
+  public boolean isFailed() {
+    return failure != null;
+  }
+
+  /**
+   * Writes out everything queued, stops the writer and closes the current segment
+   * Does not throw if the writer failed; that was logged when it happened
+   */
+  @Override
+  public void close() {
+    synchronized(sequenceLock) {
+      if(closed) {
+        return;
+      }
+      Close close = new Close();
+      close.sequence = ++enqueuedSequence;
+      queue.add(close);
+      closed = true;
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Rebuilds zone states from the journal in a directory
+   * @param directory the directory holding the segment files
+   * @param zones the number of zones to rebuild; records for other zones are ignored
+   * @return the recovered states (model defaults if the journal is empty or missing)
+   * @throws IOException if a segment cannot be read
+   */
+  public static JournalState recover(Path directory, int zones) throws IOException {
+    JournalState state = new JournalState(zones);
+    JournalState staged = null; // snapshot being read, applied on its commit record
+
+    if(!Files.isDirectory(directory)) {
+      return state;
+    }
+
+    for(Path file : listSegments(directory)) {
+      try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+        MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        for(int pos = 0; pos + RECORD_SIZE <= buffer.limit(); pos += RECORD_SIZE) {
+          byte type = buffer.get(pos + TYPE_OFFSET);
+          if(type == END) {
+            break;
+          }
+
+          int zone = buffer.getInt(pos + ZONE_OFFSET);
+          int current = buffer.getShort(pos + CURRENT_OFFSET);
+          int target = buffer.getShort(pos + TARGET_OFFSET);
+          int bits = buffer.get(pos + STATE_OFFSET);
+
+          if(type == SETPOINT) {
+            if(zone >= 0 && zone < zones) {
+              state.setTarget(zone, target);
+            }
+          } else if(type == SNAPSHOT_ZONE) {
+            if(staged == null) {
+              staged = new JournalState(zones);
+            }
+            if(zone >= 0 && zone < zones) {
+              staged.set(zone, current, target, (bits & HEATING) != 0, (bits & COOLING) != 0);
+            }
+          } else if(type == SNAPSHOT_COMMIT && staged != null) {
+            state = staged;
+            staged = null;
+          }
+        }
+      }
+    }
+    return state;
+  }
+
+  private void enqueue(Entry entry) {
+    if(failure != null) {
+      return; // turned off, see the class comment
+    }
+    synchronized(sequenceLock) {
+      if(closed) {
+        throw new IllegalStateException("Journal is closed");
+      }
+      // numbered and queued under one lock, so queue order matches sequence order
+      entry.sequence = ++enqueuedSequence;
+      queue.add(entry);
+    }
+  }
+
+  private void checkFailure() {
+    IOException e = failure;
+    if(e != null) {
+      throw new UncheckedIOException("Journal writer failed", e);
+    }
+  }
+
+  /**
+   * Writer thread: take whatever is queued, append it, force once, repeat
+   */
+  private void writeLoop() {
+    ArrayList<Entry> batch = new ArrayList<>();
+    boolean closing = false;
+
+    while(!closing) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        break;
+      }
+      queue.drainTo(batch);
+
+      long deleteBelow = 0;
+      try {
+        for(Entry entry : batch) {
+          if(entry instanceof Setpoint setpoint) {
+            append(SETPOINT, setpoint.zone, 0, setpoint.targetTenths, 0, setpoint.timestamp);
+          } else if(entry instanceof Snapshot snapshot) {
+            deleteBelow = segmentIndex; // everything before the snapshot's first segment
+            for(int zone = 0; zone < snapshot.currentTenths.length; zone++) {
+              append(SNAPSHOT_ZONE, zone, snapshot.currentTenths[zone],
+                  snapshot.targetTenths[zone], snapshot.stateBits[zone], snapshot.timestamp);
+            }
+            append(SNAPSHOT_COMMIT, snapshot.currentTenths.length, 0, 0, 0, snapshot.timestamp);
+          } else {
+            closing = true;
+          }
+        }
+        force();
+        if(deleteBelow > 0) {
+          deleteSegmentsBefore(deleteBelow);
+        }
+        if(closing) {
+          channel.close();
+        }
+      } catch (IOException e) {
+        failure = e;
+        closing = true;
+        System.err.println("Journal writer failed, settings will no longer be saved: " + e.getMessage());
+      }
+
+      synchronized(sequenceLock) {
+        durableSequence = batch.get(batch.size() - 1).sequence;
+        sequenceLock.notifyAll();
+      }
+      batch.clear();
+    }
+  }
+
+  private void append(byte type, int zone, int current, int target, int bits, long timestamp)
+      throws IOException {
+    if(position + RECORD_SIZE > segmentSize) {
+      force();
+      channel.close();
+      openSegment(segmentIndex + 1);
+    }
+
+    segment.put(position + STATE_OFFSET, (byte) bits);
+    segment.putShort(position + CURRENT_OFFSET, (short) current);
+    segment.putShort(position + TARGET_OFFSET, (short) target);
+    segment.putInt(position + ZONE_OFFSET, zone);
+    segment.putLong(position + TIMESTAMP_OFFSET, timestamp);
+    segment.put(position + TYPE_OFFSET, type); // last, a record without a type is not there
+    position += RECORD_SIZE;
+  }
+
+  private void force() {
+    if(position > unforcedFrom) {
+      segment.force(unforcedFrom, position - unforcedFrom);
+      unforcedFrom = position;
+    }
+  }
+
+  private void openSegment(long index) throws IOException {
+    Path file = directory.resolve(segmentName(index));
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    segmentIndex = index;
+    position = 0;
+    unforcedFrom = 0;
+  }
+
+  private void deleteSegmentsBefore(long index) throws IOException {
+    for(Path file : listSegments(directory)) {
+      if(segmentIndexOf(file) < index) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private static List<Path> listSegments(Path directory) throws IOException {
+    try(Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(p -> {
+            String name = p.getFileName().toString();
+            return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+          })
+          .sorted() // zero-padded names sort by index
+          .toList();
+    }
+  }
+
+  private static String segmentName(long index) {
+    return String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+  }
+
+  private static long segmentIndexOf(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+        name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static byte stateBits(boolean heating, boolean cooling) {
+    return (byte) ((heating ? HEATING : 0) | (cooling ? COOLING : 0));
+  }
+}
@@ -0,0 +1,219 @@
+package main.query;
+
+import main.model.DeciDegrees;
+import main.model.ThermostatFleet;
+
+/**
+ * Exact fleet-wide statistics of the current temperature - mean, min, max and percentiles -
+ * without visiting the zones
+ *
+ * The temperatures are counted in 0.1 °C bins, in three Fenwick trees (binary indexed trees):
+ * one for idle zones, keyed by temperature, one for heating zones, keyed by temperature minus
+ * the tick, and one for cooling zones, keyed by temperature plus the tick. A heating zone
+ * warms by exactly one step per tick, so its key stays the same while it heats; the trees
+ * only change when a zone starts or stops heating or cooling, never on an ordinary step.
+ * The keys of a tree fit in a ring of 256 bins, since every current temperature lies in the
+ * 10-35 °C target range
+ *
+ * Reads: the sum (and mean) is O(1), a percentile is a binary search over the bins with
+ * O(log bins) prefix sums per probe, min and max are the first and last percentile
+ *
+ * Thread-safe, like FleetIndex: transitions may come from several ParallelTickEngine workers.
+ * Call {@link #tick()} once per fleet tick, after every zone was stepped; a multi-tick fleet
+ * advance() is not supported
+ */
+public class FleetAggregates implements ThermostatFleet.TransitionListener {
+
+  private static final int RING = 256; // power of two, at least MAX - MIN + 1 bins
+  private static final byte IDLE = 0;
+  private static final byte HEATING = 1;
+  private static final byte COOLING = 2;
+
+  private final ThermostatFleet fleet;
+  private final byte[] mode;
+  private final int[] key;       // the zone's key in the tree of its mode
+
+  // per mode: Fenwick tree over the ring of keys, key count and key sum
+  private final int[][] trees = new int[3][RING + 1];
+  private final int[] counts = new int[3];
+  private final long[] keySums = new long[3];
+
+  private long now; // completed ticks
+
+  /**
+   * Counts the current state of a fleet and keeps following it
+   * Restore saved states before, the fleet refuses to restore afterwards
+   * @param fleet the fleet to aggregate
+   * @throws IllegalArgumentException if a zone's current temperature is outside the target range
+   */
+  public FleetAggregates(ThermostatFleet fleet) {
+    this.fleet = fleet;
+    int size = fleet.size();
+    this.mode = new byte[size];
+    this.key = new int[size];
+
+    for(int zone = 0; zone < size; zone++) {
+      int current = fleet.getCurrentTenths(zone);
+      if(current < DeciDegrees.MIN || current > DeciDegrees.MAX) {
+        throw new IllegalArgumentException("Zone " + zone + " is outside the target range: "
+            + DeciDegrees.toCelsius(current) + "°C");
+      }
+      byte state = fleet.isHeating(zone) ? HEATING : fleet.isCooling(zone) ? COOLING : IDLE;
+      insert(zone, state, current, now);
+    }
+    fleet.addTransitionListener(this);
+  }
+
+  @Override
+  public synchronized void transition(int zone, boolean heats, boolean cools) {
+    byte next = heats ? HEATING : cools ? COOLING : IDLE;
+    if(next == mode[zone]) {
+      return;
+    }
+    // called while the tick is stepped: the temperature already is the one after this tick
+    remove(zone);
+    insert(zone, next, fleet.getCurrentTenths(zone), now + 1);
+  }
+
+  /**
+   * Completes a tick: heating and cooling zones moved one step, their keys stay
+   */
+  public synchronized void tick() {
+    now++;
+  }
+
+  /**
+   * Counts a zone in the tree of a mode
+   * @param tick the tick at which the zone has the given temperature
+   */
+  private void insert(int zone, byte state, int tenths, long tick) {
+    int k = (int) (state == HEATING ? tenths - tick : state == COOLING ? tenths + tick : tenths);
+    mode[zone] = state;
+    key[zone] = k;
+    add(trees[state], k & (RING - 1), 1);
+    counts[state]++;
+    keySums[state] += k;
+  }
+
+  private void remove(int zone) {
+    byte state = mode[zone];
+    int k = key[zone];
+    add(trees[state], k & (RING - 1), -1);
+    counts[state]--;
+    keySums[state] -= k;
+  }
+
+  private static void add(int[] tree, int slot, int delta) {
+    for(int i = slot + 1; i <= RING; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /**
+   * Counts the keys in slots [0, slot]
+   */
+  private static int prefix(int[] tree, int slot) {
+    int sum = 0;
+    for(int i = slot + 1; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Counts the zones of a mode at or below a temperature (all of them are at or above MIN)
+   */
+  private int countAtOrBelow(byte state, int tenths) {
+    long shift = state == HEATING ? now : state == COOLING ? -now : 0; // temperature = key + shift
+    int first = (int) ((DeciDegrees.MIN - shift) & (RING - 1));
+    int last = (int) ((tenths - shift) & (RING - 1));
+    int[] tree = trees[state];
+    if(first <= last) {
+      return prefix(tree, last) - (first == 0 ? 0 : prefix(tree, first - 1));
+    }
+    // the range wraps around the ring
+    return prefix(tree, last) + prefix(tree, RING - 1) - prefix(tree, first - 1);
+  }
+
+  /**
+   * Gets the number of zones
+   * @return the zone count
+   */
+  public int getCount() {
+    return mode.length;
+  }
+
+  /**
+   * Gets the sum of the current temperatures
+   * @return the sum in tenths of a degree
+   */
+  public synchronized long getSumTenths() {
+    return keySums[IDLE] + keySums[HEATING] + counts[HEATING] * now + keySums[COOLING] - counts[COOLING] * now;
+  }
+
+  /**
+   * Gets the mean current temperature
+   * @return the mean in Celsius, NaN for an empty fleet
+   */
+  public double getMean() {
+    return getSumTenths() / (double) mode.length / 10.0;
+  }
+
+  /**
+   * Gets the lowest current temperature
+   * @return the temperature in Celsius
+   */
+  public double getMin() {
+    return getPercentile(0);
+  }
+
+  /**
+   * Gets the highest current temperature
+   * @return the temperature in Celsius
+   */
+  public double getMax() {
+    return getPercentile(100);
+  }
+
+  /**
+   * Gets a percentile of the current temperatures, by nearest rank: the lowest temperature
+   * that at least the given share of zones is at or below
+   * @param percentile the percentile, 0 to 100
+   * @return the temperature in Celsius
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public double getPercentile(double percentile) {
+    return DeciDegrees.toCelsius(getPercentileTenths(percentile));
+  }
+
+  /**
+   * Gets a percentile of the current temperatures, see {@link #getPercentile(double)}
+   * @param percentile the percentile, 0 to 100
+   * @return the temperature in tenths of a degree
+   * @throws IllegalArgumentException if the percentile is out of range or the fleet is empty
+   */
+  public synchronized int getPercentileTenths(double percentile) {
+    if(!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100. Provided: " + percentile);
+    }
+    if(mode.length == 0) {
+      throw new IllegalArgumentException("An empty fleet has no temperatures");
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mode.length));
+
+    // lowest temperature with at least rank zones at or below it
+    int low = DeciDegrees.MIN;
+    int high = DeciDegrees.MAX;
+    while(low < high) {
+      int middle = (low + high) >>> 1;
+      long atOrBelow = (long) countAtOrBelow(IDLE, middle) + countAtOrBelow(HEATING, middle)
+          + countAtOrBelow(COOLING, middle);
+      if(atOrBelow >= rank) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+}
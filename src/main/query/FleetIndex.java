@@ -0,0 +1,238 @@
+package main.query;
+
+import main.model.DeciDegrees;
+import main.model.ThermostatFleet;
+
+/**
+ * Bitmap indexes over a fleet for "which zones are heating" or "which zones are more than
+ * 2 °C off target" without asking every zone
+ *
+ * Heating, cooling and idle zones are kept in three ZoneBitmaps, updated from the fleet's
+ * transitions. The distance to target is not stored per tick: a zone moves one step towards its
+ * target every tick, so once its target is set it reaches it at a known tick, its arrival, and
+ * its deviation at any later tick is (arrival - now). Zones are bucketed by arrival tick,
+ * 8 ticks per bucket, in a ring that covers more than the widest possible deviation, so the
+ * deviation index only changes when a target changes; a bucket whose ticks have passed only
+ * holds zones that arrived, and is cleared. A deviation query takes the buckets beyond the
+ * threshold whole and checks the zones of the one bucket that straddles it
+ *
+ * Thread-safe: transitions may come from several ParallelTickEngine workers at once, queries
+ * from any thread. Call {@link #tick()} once per fleet tick, after every zone was stepped;
+ * a multi-tick fleet advance() is not supported
+ */
+public class FleetIndex implements ThermostatFleet.TransitionListener {
+
+  private static final int BUCKET_BITS = 3; // 8 ticks per bucket
+  private static final int BUCKETS = 64;    // a ring of 512 ticks
+  // Longest distance kept exactly, 49.6 °C; far more than any target range allows
+  private static final long MAX_DEVIATION_TICKS = (BUCKETS - 2) << BUCKET_BITS;
+  private static final byte IDLE = 0;
+  private static final byte HEATING = 1;
+  private static final byte COOLING = 2;
+
+  private final int size;
+  private final ZoneBitmap heating;
+  private final ZoneBitmap cooling;
+  private final ZoneBitmap idle;
+  private final byte[] mode;
+
+  private final ZoneBitmap[] arrivals; // zones by arrival tick bucket, ring
+  private final long[] arrival;        // tick at which each zone is at its target
+  private final boolean[] bucketed;    // whether the zone is in its arrival bucket
+  private long now;                    // completed ticks
+
+  /**
+   * Indexes the current state of a fleet and keeps following it
+   * Restore saved states before, the fleet refuses to restore afterwards
+   * @param fleet the fleet to index
+   */
+  public FleetIndex(ThermostatFleet fleet) {
+    this.size = fleet.size();
+    this.heating = new ZoneBitmap(size);
+    this.cooling = new ZoneBitmap(size);
+    this.idle = new ZoneBitmap(size);
+    this.mode = new byte[size];
+    this.arrivals = new ZoneBitmap[BUCKETS];
+    for(int i = 0; i < BUCKETS; i++) {
+      arrivals[i] = new ZoneBitmap(size);
+    }
+    this.arrival = new long[size];
+    this.bucketed = new boolean[size];
+
+    for(int zone = 0; zone < size; zone++) {
+      if(fleet.isHeating(zone)) {
+        heating.add(zone);
+        mode[zone] = HEATING;
+      } else if(fleet.isCooling(zone)) {
+        cooling.add(zone);
+        mode[zone] = COOLING;
+      } else {
+        idle.add(zone);
+      }
+      targetChanged(zone, fleet.getCurrentTenths(zone), fleet.getTargetTenths(zone));
+    }
+    fleet.addTransitionListener(this);
+  }
+
+  @Override
+  public synchronized void transition(int zone, boolean heats, boolean cools) {
+    byte next = heats ? HEATING : cools ? COOLING : IDLE;
+    byte previous = mode[zone];
+    if(next == previous) {
+      return;
+    }
+    stateSet(previous).remove(zone);
+    stateSet(next).add(zone);
+    mode[zone] = next;
+  }
+
+  @Override
+  public synchronized void targetChanged(int zone, int currentTenths, int targetTenths) {
+    // an arrived zone stays in its bucket until the bucket is cleared
+    if(bucketed[zone]) {
+      arrivals[bucketOf(arrival[zone])].remove(zone);
+    }
+    // from the next tick on the zone moves one step per tick until it is there
+    long arrives = now + Math.min(Math.abs(targetTenths - currentTenths) / DeciDegrees.STEP, MAX_DEVIATION_TICKS);
+    arrival[zone] = arrives;
+    bucketed[zone] = arrives > now;
+    if(bucketed[zone]) {
+      arrivals[bucketOf(arrives)].add(zone);
+    }
+  }
+
+  /**
+   * Completes a tick; clears the arrival bucket whose ticks have all passed
+   */
+  public synchronized void tick() {
+    now++;
+    if((now & ((1 << BUCKET_BITS) - 1)) == 0) {
+      ZoneBitmap passed = arrivals[bucketOf(now - 1)];
+      passed.forEach(zone -> bucketed[zone] = false);
+      passed.clear();
+    }
+  }
+
+  private static int bucketOf(long tick) {
+    return (int) (tick >>> BUCKET_BITS) & (BUCKETS - 1);
+  }
+
+  private ZoneBitmap stateSet(byte state) {
+    return state == HEATING ? heating : state == COOLING ? cooling : idle;
+  }
+
+  /**
+   * Gets the zones that are heating
+   * @return a copy of the index
+   */
+  public synchronized ZoneBitmap heating() {
+    return heating.copy();
+  }
+
+  /**
+   * Gets the zones that are cooling
+   * @return a copy of the index
+   */
+  public synchronized ZoneBitmap cooling() {
+    return cooling.copy();
+  }
+
+  /**
+   * Gets the zones that are neither heating nor cooling
+   * @return a copy of the index
+   */
+  public synchronized ZoneBitmap idle() {
+    return idle.copy();
+  }
+
+  public synchronized int getHeatingCount() {
+    return heating.cardinality();
+  }
+
+  public synchronized int getCoolingCount() {
+    return cooling.cardinality();
+  }
+
+  public synchronized int getIdleCount() {
+    return idle.cardinality();
+  }
+
+  /**
+   * Gets how far a zone is from its target
+   * @param zone the zone index
+   * @return the distance in tenths of a degree, as getCurrentTenths/getTargetTenths would give it
+   */
+  public synchronized int getDeviationTenths(int zone) {
+    return (int) Math.max(0, arrival[zone] - now) * DeciDegrees.STEP;
+  }
+
+  /**
+   * Gets the zones whose current temperature is more than the given distance from their target
+   * @param celsius the distance in degrees, not negative
+   * @return a new set
+   * @throws IllegalArgumentException if the distance is negative
+   */
+  public synchronized ZoneBitmap offTarget(double celsius) {
+    long threshold = now + thresholdTicks(celsius);
+    long first = (threshold >>> BUCKET_BITS) + 1;
+    ZoneBitmap[] parts = new ZoneBitmap[(int) Math.max(0, lastBucket() - first + 1) + 1];
+    parts[0] = straddlingZones(threshold);
+    for(int i = 1; i < parts.length; i++) {
+      parts[i] = arrivals[(int) (first + i - 1) & (BUCKETS - 1)];
+    }
+    return ZoneBitmap.union(size, parts);
+  }
+
+  /**
+   * Counts the zones whose current temperature is more than the given distance from their target
+   * Same as offTarget(celsius).cardinality(), without building the set
+   * @param celsius the distance in degrees, not negative
+   * @return the zone count
+   * @throws IllegalArgumentException if the distance is negative
+   */
+  public synchronized int countOffTarget(double celsius) {
+    long threshold = now + thresholdTicks(celsius);
+    int[] count = new int[1];
+    arrivals[bucketOf(threshold)].forEach(zone -> {
+      if(arrival[zone] > threshold) {
+        count[0]++;
+      }
+    });
+    for(long bucket = (threshold >>> BUCKET_BITS) + 1; bucket <= lastBucket(); bucket++) {
+      count[0] += arrivals[(int) bucket & (BUCKETS - 1)].cardinality();
+    }
+    return count[0];
+  }
+
+  /**
+   * Gets the zones of the bucket holding the threshold tick that arrive after it
+   */
+  private ZoneBitmap straddlingZones(long threshold) {
+    ZoneBitmap zones = new ZoneBitmap(size);
+    arrivals[bucketOf(threshold)].forEach(zone -> {
+      if(arrival[zone] > threshold) {
+        zones.add(zone);
+      }
+    });
+    return zones;
+  }
+
+  /**
+   * Gets the bucket of the latest possible arrival
+   */
+  private long lastBucket() {
+    return (now + MAX_DEVIATION_TICKS) >>> BUCKET_BITS;
+  }
+
+  /**
+   * Converts a distance to ticks: more than celsius off means more than this many steps left
+   */
+  private static long thresholdTicks(double celsius) {
+    if(!(celsius >= 0)) {
+      throw new IllegalArgumentException("Distance must not be negative. Provided: " + celsius);
+    }
+    // a hair of tolerance so 2.0 means 20 tenths, not 19.999...
+    // no zone is further off than MAX_DEVIATION_TICKS, and now + ticks must not overflow
+    return Math.min((long) Math.floor(celsius * 10 + 1e-9) / DeciDegrees.STEP, MAX_DEVIATION_TICKS);
+  }
+}
@@ -0,0 +1,419 @@
+package main.query;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of zone indexes in [0, universe), in the style of a Roaring bitmap
+ *
+ * Zones are split into chunks of 65536 by their high 16 bits. A chunk with few members
+ * keeps their low 16 bits as a sorted char array (2 bytes per member), a chunk with many
+ * keeps one bit per zone (8 KB), so sparse and dense sets both stay small and set
+ * operations work a chunk at a time, mostly on whole 64-bit words
+ *
+ * Not thread-safe
+ */
+public final class ZoneBitmap {
+
+  private static final int CHUNK_BITS = 16;
+  private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+  private static final int WORDS = (1 << CHUNK_BITS) / 64;
+  private static final int ARRAY_MAX = 4096; // above this a chunk becomes a bitmap (8 KB either way)
+  private static final int ARRAY_BACK = ARRAY_MAX / 2; // below this a bitmap chunk becomes an array again
+
+  private final int universe;
+  private final char[][] arrays;  // per chunk: sorted members, or null
+  private final long[][] bitmaps; // per chunk: member bits, or null
+  private final int[] counts;     // per chunk: member count
+  private int cardinality;
+
+  /**
+   * Creates an empty set
+   * @param universe the number of zones; members are in [0, universe)
+   */
+  public ZoneBitmap(int universe) {
+    if(universe < 0) {
+      throw new IllegalArgumentException("Universe must not be negative. Provided: " + universe);
+    }
+    this.universe = universe;
+    int chunks = (universe + CHUNK_MASK) >>> CHUNK_BITS;
+    this.arrays = new char[chunks][];
+    this.bitmaps = new long[chunks][];
+    this.counts = new int[chunks];
+  }
+
+  public int getUniverse() {
+    return universe;
+  }
+
+  /**
+   * Gets the number of members
+   * @return the member count
+   */
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Adds a zone
+   * @param zone the zone index
+   * @return true if it was not a member yet
+   */
+  public boolean add(int zone) {
+    checkZone(zone);
+    int chunk = zone >>> CHUNK_BITS;
+    int low = zone & CHUNK_MASK;
+
+    long[] bits = bitmaps[chunk];
+    if(bits != null) {
+      long mask = 1L << low;
+      if((bits[low >>> 6] & mask) != 0) {
+        return false;
+      }
+      bits[low >>> 6] |= mask;
+      counts[chunk]++;
+      cardinality++;
+      return true;
+    }
+
+    char[] members = arrays[chunk];
+    int count = counts[chunk];
+    int position = members == null ? -1 : Arrays.binarySearch(members, 0, count, (char) low);
+    if(position >= 0) {
+      return false;
+    }
+    position = -position - 1;
+    if(count == ARRAY_MAX) {
+      // full: switch to a bitmap
+      bitmaps[chunk] = toWords(members, count);
+      arrays[chunk] = null;
+      return add(zone);
+    }
+    if(members == null || count == members.length) {
+      members = Arrays.copyOf(members == null ? new char[0] : members, Math.min(Math.max(4, count * 2), ARRAY_MAX));
+      arrays[chunk] = members;
+    }
+    System.arraycopy(members, position, members, position + 1, count - position);
+    members[position] = (char) low;
+    counts[chunk] = count + 1;
+    cardinality++;
+    return true;
+  }
+
+  /**
+   * Removes a zone
+   * @param zone the zone index
+   * @return true if it was a member
+   */
+  public boolean remove(int zone) {
+    checkZone(zone);
+    int chunk = zone >>> CHUNK_BITS;
+    int low = zone & CHUNK_MASK;
+
+    long[] bits = bitmaps[chunk];
+    if(bits != null) {
+      long mask = 1L << low;
+      if((bits[low >>> 6] & mask) == 0) {
+        return false;
+      }
+      bits[low >>> 6] &= ~mask;
+      cardinality--;
+      if(--counts[chunk] < ARRAY_BACK) {
+        arrays[chunk] = toMembers(bits, counts[chunk]);
+        bitmaps[chunk] = null;
+      }
+      return true;
+    }
+
+    char[] members = arrays[chunk];
+    int count = counts[chunk];
+    int position = members == null ? -1 : Arrays.binarySearch(members, 0, count, (char) low);
+    if(position < 0) {
+      return false;
+    }
+    System.arraycopy(members, position + 1, members, position, count - position - 1);
+    counts[chunk] = count - 1;
+    cardinality--;
+    return true;
+  }
+
+  /**
+   * Checks whether a zone is a member
+   * @param zone the zone index
+   * @return true if it is
+   */
+  public boolean contains(int zone) {
+    checkZone(zone);
+    int chunk = zone >>> CHUNK_BITS;
+    int low = zone & CHUNK_MASK;
+    long[] bits = bitmaps[chunk];
+    if(bits != null) {
+      return (bits[low >>> 6] & (1L << low)) != 0;
+    }
+    char[] members = arrays[chunk];
+    return members != null && Arrays.binarySearch(members, 0, counts[chunk], (char) low) >= 0;
+  }
+
+  /**
+   * Removes every member
+   */
+  public void clear() {
+    if(cardinality == 0) {
+      return;
+    }
+    Arrays.fill(arrays, null);
+    Arrays.fill(bitmaps, null);
+    Arrays.fill(counts, 0);
+    cardinality = 0;
+  }
+
+  /**
+   * Gets the members of both sets
+   * @param other a set over the same universe
+   * @return a new set
+   */
+  public ZoneBitmap and(ZoneBitmap other) {
+    ZoneBitmap result = new ZoneBitmap(checkUniverse(other));
+    for(int chunk = 0; chunk < counts.length; chunk++) {
+      if(counts[chunk] == 0 || other.counts[chunk] == 0) {
+        continue;
+      }
+      if(bitmaps[chunk] == null) {
+        result.filter(chunk, arrays[chunk], counts[chunk], other, true);
+      } else if(other.bitmaps[chunk] == null) {
+        result.filter(chunk, other.arrays[chunk], other.counts[chunk], this, true);
+      } else {
+        long[] a = bitmaps[chunk];
+        long[] b = other.bitmaps[chunk];
+        long[] words = new long[WORDS];
+        for(int w = 0; w < WORDS; w++) {
+          words[w] = a[w] & b[w];
+        }
+        result.store(chunk, words);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the members of either set
+   * @param other a set over the same universe
+   * @return a new set
+   */
+  public ZoneBitmap or(ZoneBitmap other) {
+    return union(checkUniverse(other), this, other);
+  }
+
+  /**
+   * Gets the members of any of many sets, a chunk at a time without intermediate sets
+   * @param universe the universe of every set
+   * @param sets the sets to combine
+   * @return a new set
+   */
+  public static ZoneBitmap union(int universe, ZoneBitmap... sets) {
+    ZoneBitmap result = new ZoneBitmap(universe);
+    for(ZoneBitmap set : sets) {
+      result.checkUniverse(set);
+    }
+    for(int chunk = 0; chunk < result.counts.length; chunk++) {
+      long[] words = null;
+      for(ZoneBitmap set : sets) {
+        if(set.counts[chunk] == 0) {
+          continue;
+        }
+        if(words == null) {
+          words = new long[WORDS];
+        }
+        if(set.bitmaps[chunk] != null) {
+          long[] b = set.bitmaps[chunk];
+          for(int w = 0; w < WORDS; w++) {
+            words[w] |= b[w];
+          }
+        } else {
+          char[] members = set.arrays[chunk];
+          for(int i = 0; i < set.counts[chunk]; i++) {
+            words[members[i] >>> 6] |= 1L << members[i];
+          }
+        }
+      }
+      if(words != null) {
+        result.store(chunk, words);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the members of this set that are not in the other
+   * @param other a set over the same universe
+   * @return a new set
+   */
+  public ZoneBitmap andNot(ZoneBitmap other) {
+    ZoneBitmap result = new ZoneBitmap(checkUniverse(other));
+    for(int chunk = 0; chunk < counts.length; chunk++) {
+      if(counts[chunk] == 0) {
+        continue;
+      }
+      if(bitmaps[chunk] == null) {
+        result.filter(chunk, arrays[chunk], counts[chunk], other, false);
+      } else {
+        long[] words = bitmaps[chunk].clone();
+        if(other.bitmaps[chunk] != null) {
+          long[] b = other.bitmaps[chunk];
+          for(int w = 0; w < WORDS; w++) {
+            words[w] &= ~b[w];
+          }
+        } else if(other.counts[chunk] > 0) {
+          char[] members = other.arrays[chunk];
+          for(int i = 0; i < other.counts[chunk]; i++) {
+            words[members[i] >>> 6] &= ~(1L << members[i]);
+          }
+        }
+        result.store(chunk, words);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Makes an independent copy
+   * @return a new set with the same members
+   */
+  public ZoneBitmap copy() {
+    ZoneBitmap result = new ZoneBitmap(universe);
+    for(int chunk = 0; chunk < counts.length; chunk++) {
+      if(counts[chunk] == 0) {
+        continue;
+      }
+      if(bitmaps[chunk] != null) {
+        result.bitmaps[chunk] = bitmaps[chunk].clone();
+      } else {
+        result.arrays[chunk] = Arrays.copyOf(arrays[chunk], counts[chunk]);
+      }
+      result.counts[chunk] = counts[chunk];
+    }
+    result.cardinality = cardinality;
+    return result;
+  }
+
+  /**
+   * Calls an action for every member, in ascending order
+   * @param action the action
+   */
+  public void forEach(IntConsumer action) {
+    for(int chunk = 0; chunk < counts.length; chunk++) {
+      int base = chunk << CHUNK_BITS;
+      if(bitmaps[chunk] != null) {
+        long[] bits = bitmaps[chunk];
+        for(int w = 0; w < WORDS; w++) {
+          for(long word = bits[w]; word != 0; word &= word - 1) {
+            action.accept(base + (w << 6) + Long.numberOfTrailingZeros(word));
+          }
+        }
+      } else {
+        char[] members = arrays[chunk];
+        for(int i = 0; i < counts[chunk]; i++) {
+          action.accept(base + members[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the members
+   * @return the zone indexes in ascending order
+   */
+  public int[] toArray() {
+    int[] zones = new int[cardinality];
+    int[] next = new int[1];
+    forEach(zone -> zones[next[0]++] = zone);
+    return zones;
+  }
+
+  /**
+   * Gets the approximate memory used by the members, for comparing with one flag per zone
+   * @return the size in bytes
+   */
+  public long getSizeInBytes() {
+    long bytes = 0;
+    for(int chunk = 0; chunk < counts.length; chunk++) {
+      bytes += bitmaps[chunk] != null ? WORDS * 8L : arrays[chunk] != null ? arrays[chunk].length * 2L : 0;
+    }
+    return bytes;
+  }
+
+  /**
+   * Sets a chunk of this (empty) set to the members of a sorted array that are (or are not) in another set
+   */
+  private void filter(int chunk, char[] members, int count, ZoneBitmap other, boolean keepContained) {
+    int base = chunk << CHUNK_BITS;
+    char[] kept = new char[count];
+    int size = 0;
+    for(int i = 0; i < count; i++) {
+      if(other.contains(base + members[i]) == keepContained) {
+        kept[size++] = members[i];
+      }
+    }
+    if(size > 0) {
+      arrays[chunk] = kept;
+      counts[chunk] = size;
+      cardinality += size;
+    }
+  }
+
+  /**
+   * Sets a chunk of this (empty) set from member bits, as an array if there are few
+   */
+  private void store(int chunk, long[] words) {
+    int count = 0;
+    for(long word : words) {
+      count += Long.bitCount(word);
+    }
+    if(count == 0) {
+      return;
+    }
+    if(count <= ARRAY_MAX) {
+      arrays[chunk] = toMembers(words, count);
+    } else {
+      bitmaps[chunk] = words;
+    }
+    counts[chunk] = count;
+    cardinality += count;
+  }
+
+  private static long[] toWords(char[] members, int count) {
+    long[] words = new long[WORDS];
+    for(int i = 0; i < count; i++) {
+      words[members[i] >>> 6] |= 1L << members[i];
+    }
+    return words;
+  }
+
+  private static char[] toMembers(long[] words, int count) {
+    char[] members = new char[Math.max(count, 4)];
+    int size = 0;
+    for(int w = 0; w < WORDS; w++) {
+      for(long word = words[w]; word != 0; word &= word - 1) {
+        members[size++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return members;
+  }
+
+  private void checkZone(int zone) {
+    if(zone < 0 || zone >= universe) {
+      throw new IndexOutOfBoundsException("Zone " + zone + " out of range for " + universe + " zones");
+    }
+  }
+
+  private int checkUniverse(ZoneBitmap other) {
+    if(other.universe != universe) {
+      throw new IllegalArgumentException("Universes differ: " + universe + " and " + other.universe);
+    }
+    return universe;
+  }
+}
@@ -0,0 +1,443 @@
+package main.remote;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import main.controller.IThermostatController;
+import main.model.ConcurrentThermostatModel;
+import main.model.DeciDegrees;
+import main.model.IThermostatModel;
+import main.model.Setpoints;
+import main.model.TenthsParser;
+import main.model.ThermostatSnapshot;
+import main.scheduler.TimingWheelScheduler;
+
+/**
+ * Read-mostly HTTP/JSON API over thermostat zones, on the loopback interface
+ * Every request runs on its own virtual thread, so thousands of slow or idle
+ * keep-alive clients cost no platform threads
+ *
+ *   GET  /zones        every zone, streamed as a chunked JSON array
+ *   GET  /zones/{id}   one zone
+ *   POST /setpoints    bulk setpoints, one "zone,temperature" per line
+ *
+ * A zone is {"zone":0,"current":20.0,"target":22.5,"heating":true,"cooling":false}.
+ * The POST reply is {"accepted":n,"rejected":n,"codes":[...]} with one code per line:
+ * the Setpoints codes, or ThermostatProtocol.UNKNOWN_ZONE
+ *
+ * Handlers read and change the models from many threads at once; use
+ * {@link ConcurrentThermostatModel} zones, which never show a torn state, when anything
+ * else (a ticker, the EDT) updates them at the same time
+ *
+ * The JDK server closes keep-alive connections beyond 200 idle ones, which turns every
+ * request of a large client population into a new connection. Raise the JVM-wide limit with
+ * -Dsun.net.httpserver.maxIdleConnections=16384; it is read once, when the first HttpServer
+ * is created. {@link #main} sets it to MAX_IDLE_CONNECTIONS unless given
+ */
+public class ThermostatHttpServer implements IThermostatController, Closeable {
+
+  private static final int MAX_BODY_SIZE = 4 * 1024 * 1024;
+  private static final int BACKLOG = 16 * 1024;
+  private static final int MAX_IDLE_CONNECTIONS = 16 * 1024; // keep-alive clients kept open, main() only
+
+  private final IThermostatModel[] zones;
+  private final int requestedPort;
+
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * Creates a server over individual models
+   * @param zones the zones to serve, zone i is zones.get(i)
+   * @param port the loopback port, 0 for any free port
+   */
+  public ThermostatHttpServer(List<? extends IThermostatModel> zones, int port) {
+    this.zones = zones.toArray(new IThermostatModel[0]);
+    this.requestedPort = port;
+  }
+
+  /**
+   * Binds the port and starts serving; returns right away
+   * @throws UncheckedIOException if the port cannot be bound
+   */
+  @Override
+  public void run() {
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort), BACKLOG);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot start HTTP server on port " + requestedPort, e);
+    }
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext("/zones", this::handleZones);
+    server.createContext("/setpoints", this::handleSetpoints);
+    server.start();
+  }
+
+  /**
+   * Gets the port the server listens on, useful after binding port 0
+   * @return the local port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops accepting requests and closes every connection
+   */
+  @Override
+  public void close() {
+    if(server != null) {
+      server.stop(0);
+      executor.shutdown();
+    }
+  }
+
+  private void handleZones(HttpExchange exchange) throws IOException {
+    try(exchange) {
+      if(!"GET".equals(exchange.getRequestMethod())) {
+        sendError(exchange, 405, "Use GET");
+        return;
+      }
+
+      String path = exchange.getRequestURI().getPath();
+      if(path.equals("/zones") || path.equals("/zones/")) {
+        sendAllZones(exchange);
+        return;
+      }
+
+      int zone = parseZone(path, "/zones/".length());
+      if(zone < 0) {
+        sendError(exchange, 404, "Unknown zone");
+        return;
+      }
+      JsonWriter json = new JsonWriter(null);
+      writeZone(json, zone);
+      json.send(exchange, 200);
+    }
+  }
+
+  /**
+   * Streams the fleet in chunks of one buffer, never holding more than that in memory
+   */
+  private void sendAllZones(HttpExchange exchange) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, 0); // chunked
+    JsonWriter json = new JsonWriter(exchange.getResponseBody());
+    json.ascii('[');
+    for(int zone = 0; zone < zones.length; zone++) {
+      if(zone > 0) {
+        json.ascii(',');
+      }
+      writeZone(json, zone);
+    }
+    json.ascii(']');
+    json.flush();
+  }
+
+  private void writeZone(JsonWriter json, int zone) throws IOException {
+    ThermostatSnapshot state = snapshot(zones[zone]);
+    json.ascii("{\"zone\":").integer(zone)
+        .ascii(",\"current\":").tenths(state.getCurrentTenths())
+        .ascii(",\"target\":").tenths(state.getTargetTenths())
+        .ascii(",\"heating\":").ascii(state.isHeating() ? "true" : "false")
+        .ascii(",\"cooling\":").ascii(state.isCooling() ? "true" : "false")
+        .ascii('}');
+  }
+
+  private static ThermostatSnapshot snapshot(IThermostatModel model) {
+    if(model instanceof ConcurrentThermostatModel concurrent) {
+      return concurrent.snapshot();
+    }
+    return new ThermostatSnapshot(model.getCurrentTenths(), model.getTargetTenths(),
+        model.isHeating(), model.isCooling());
+  }
+
+  private void handleSetpoints(HttpExchange exchange) throws IOException {
+    try(exchange) {
+      if(!"POST".equals(exchange.getRequestMethod())) {
+        sendError(exchange, 405, "Use POST");
+        return;
+      }
+
+      byte[] body;
+      try(InputStream in = exchange.getRequestBody()) {
+        body = in.readNBytes(MAX_BODY_SIZE + 1);
+      }
+      if(body.length > MAX_BODY_SIZE) {
+        sendError(exchange, 413, "At most " + MAX_BODY_SIZE + " bytes per request");
+        return;
+      }
+
+      byte[] codes = applySetpoints(ByteBuffer.wrap(body));
+      int rejected = 0;
+      for(byte code : codes) {
+        if(code != Setpoints.ACCEPTED) {
+          rejected++;
+        }
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, 0); // chunked
+      JsonWriter json = new JsonWriter(exchange.getResponseBody());
+      json.ascii("{\"accepted\":").integer(codes.length - rejected)
+          .ascii(",\"rejected\":").integer(rejected)
+          .ascii(",\"codes\":[");
+      for(int i = 0; i < codes.length; i++) {
+        if(i > 0) {
+          json.ascii(',');
+        }
+        json.integer(codes[i]);
+      }
+      json.ascii("]}");
+      json.flush();
+    }
+  }
+
+  /**
+   * Applies one "zone,temperature" line at a time, straight from the request bytes
+   * @return one result code per non-blank line
+   */
+  private byte[] applySetpoints(ByteBuffer body) {
+    int lines = 0;
+    for(int i = 0; i < body.limit(); i++) {
+      if(body.get(i) == '\n') {
+        lines++;
+      }
+    }
+    byte[] codes = new byte[lines + 1];
+    int count = 0;
+
+    int start = 0;
+    while(start < body.limit()) {
+      int end = start;
+      while(end < body.limit() && body.get(end) != '\n') {
+        end++;
+      }
+      if(!isBlank(body, start, end)) {
+        codes[count++] = applySetpoint(body, start, end);
+      }
+      start = end + 1;
+    }
+    return count == codes.length ? codes : Arrays.copyOf(codes, count);
+  }
+
+  private byte applySetpoint(ByteBuffer body, int from, int to) {
+    int comma = from;
+    while(comma < to && body.get(comma) != ',') {
+      comma++;
+    }
+    int zone = parseZone(body, from, comma);
+    if(zone < 0) {
+      return ThermostatProtocol.UNKNOWN_ZONE;
+    }
+
+    int tenths = comma < to ? TenthsParser.parse(body, comma + 1, to) : TenthsParser.NOT_A_NUMBER;
+    if(TenthsParser.isError(tenths)) {
+      return Setpoints.NOT_TENTHS;
+    }
+
+    IThermostatModel model = zones[zone];
+    double temperature = DeciDegrees.toCelsius(tenths);
+    byte result = Setpoints.check(temperature, model.getMinTemperature(), model.getMaxTemperature());
+    if(result == Setpoints.ACCEPTED) {
+      model.setTargetTemperature(temperature);
+    }
+    return result;
+  }
+
+  private static boolean isBlank(ByteBuffer body, int from, int to) {
+    for(int i = from; i < to; i++) {
+      if((body.get(i) & 0xFF) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses the zone number at the end of a path
+   * @return the zone, or -1 if it is not a valid zone
+   */
+  private int parseZone(String path, int from) {
+    long zone = 0;
+    if(from >= path.length() || path.length() - from > 10) {
+      return -1;
+    }
+    for(int i = from; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if(c < '0' || c > '9') {
+        return -1;
+      }
+      zone = zone * 10 + (c - '0');
+    }
+    return zone < zones.length ? (int) zone : -1;
+  }
+
+  /**
+   * Parses a zone number from the request bytes, surrounding whitespace allowed
+   * @return the zone, or -1 if it is not a valid zone
+   */
+  private int parseZone(ByteBuffer body, int from, int to) {
+    while(from < to && (body.get(from) & 0xFF) <= ' ') {
+      from++;
+    }
+    while(to > from && (body.get(to - 1) & 0xFF) <= ' ') {
+      to--;
+    }
+    if(from == to || to - from > 10) {
+      return -1;
+    }
+    long zone = 0;
+    for(int i = from; i < to; i++) {
+      byte c = body.get(i);
+      if(c < '0' || c > '9') {
+        return -1;
+      }
+      zone = zone * 10 + (c - '0');
+    }
+    return zone < zones.length ? (int) zone : -1;
+  }
+
+  private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+    byte[] body = message.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  /**
+   * Appends ASCII JSON to a fixed buffer and hands it to the stream whenever it fills up
+   * With no stream the whole response stays in the buffer, for small fixed-length replies
+   */
+  private static final class JsonWriter {
+    private static final int SIZE = 8 * 1024;
+    private static final int MAX_TOKEN = 32; // longest thing written in one call, besides ascii(String)
+
+    private final OutputStream out;
+    private byte[] buffer = new byte[SIZE];
+    private int position;
+
+    private JsonWriter(OutputStream out) {
+      this.out = out;
+    }
+
+    private JsonWriter ascii(char c) throws IOException {
+      room(1);
+      buffer[position++] = (byte) c;
+      return this;
+    }
+
+    private JsonWriter ascii(String text) throws IOException {
+      room(text.length());
+      for(int i = 0; i < text.length(); i++) {
+        buffer[position++] = (byte) text.charAt(i);
+      }
+      return this;
+    }
+
+    private JsonWriter integer(int value) throws IOException {
+      room(MAX_TOKEN);
+      if(value < 0) {
+        buffer[position++] = '-';
+        value = -value;
+      }
+      int digits = 1;
+      for(int rest = value / 10; rest != 0; rest /= 10) {
+        digits++;
+      }
+      for(int i = position + digits - 1; i >= position; i--) {
+        buffer[i] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+      position += digits;
+      return this;
+    }
+
+    /**
+     * Writes tenths of a degree as a decimal, e.g., 225 as 22.5 and -5 as -0.5
+     */
+    private JsonWriter tenths(int tenths) throws IOException {
+      room(MAX_TOKEN);
+      if(tenths < 0) {
+        buffer[position++] = '-';
+        tenths = -tenths;
+      }
+      integer(tenths / 10);
+      buffer[position++] = '.';
+      buffer[position++] = (byte) ('0' + tenths % 10);
+      return this;
+    }
+
+    private void room(int bytes) throws IOException {
+      if(position + bytes <= buffer.length) {
+        return;
+      }
+      if(out != null && bytes <= SIZE) {
+        out.write(buffer, 0, position);
+        position = 0;
+      } else {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+      }
+    }
+
+    private void flush() throws IOException {
+      out.write(buffer, 0, position);
+      position = 0;
+      out.flush();
+    }
+
+    /**
+     * Sends a buffered reply with a Content-Length
+     */
+    private void send(HttpExchange exchange, int status) throws IOException {
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, position);
+      exchange.getResponseBody().write(buffer, 0, position);
+    }
+  }
+
+  /**
+   * Runs a server on its own: ThermostatHttpServer [port] [zones] [tickMillis]
+   * Every zone is stepped once per tick, so setpoints show up as moving temperatures
+   */
+  public static void main(String[] args) {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    int zones = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    long tickMillis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+    // a process of its own, so the JVM-wide limit is ours to set
+    if(System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+      System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+    }
+
+    List<ConcurrentThermostatModel> models = new ArrayList<>(zones);
+    for(int i = 0; i < zones; i++) {
+      models.add(new ConcurrentThermostatModel());
+    }
+    TimingWheelScheduler ticker = new TimingWheelScheduler(10, Runnable::run);
+    ticker.scheduleAtFixedRate(() -> {
+      for(ConcurrentThermostatModel model : models) {
+        model.updateSystem();
+      }
+    }, tickMillis);
+    ticker.start();
+
+    ThermostatHttpServer server = new ThermostatHttpServer(models, port);
+    server.run();
+    System.out.println("Serving " + zones + " zones on http://127.0.0.1:" + server.getPort() + "/zones");
+  }
+}
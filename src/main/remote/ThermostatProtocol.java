@@ -0,0 +1,67 @@
+package main.remote;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary wire format shared by {@link ThermostatServer} and its clients (e.g., the load
+ * client in bench/)
+ *
+ * Every frame is [int length][byte type][payload], big-endian, where length counts the
+ * type byte and the payload. Temperatures travel as short tenths of a degree
+ *
+ *   SET_TARGET  client to server  int requestId, int zone, short targetTenths
+ *   SUBSCRIBE   client to server  (empty) - server sends every zone once, then changes only
+ *   ACK         server to client  int requestId, byte result
+ *   STATE       server to client  int zone, short currentTenths, short targetTenths, byte flags
+ *
+ * Commands may be pipelined: a client can send many SET_TARGETs without waiting, the
+ * ACKs come back in the same order
+ */
+public final class ThermostatProtocol {
+
+  // Frame types
+  public static final byte SET_TARGET = 1;
+  public static final byte SUBSCRIBE = 2;
+  public static final byte ACK = 101;
+  public static final byte STATE = 102;
+
+  // Frame sizes, length prefix included
+  public static final int HEADER_SIZE = 5;
+  public static final int SET_TARGET_SIZE = HEADER_SIZE + 10;
+  public static final int SUBSCRIBE_SIZE = HEADER_SIZE;
+  public static final int ACK_SIZE = HEADER_SIZE + 5;
+  public static final int STATE_SIZE = HEADER_SIZE + 9;
+
+  // Largest frame either side accepts, anything longer is a protocol error
+  public static final int MAX_FRAME_SIZE = 64;
+
+  // ACK results: 0-3 are the Setpoints codes (ACCEPTED, BELOW_MIN, ABOVE_MAX, NOT_TENTHS)
+  public static final byte UNKNOWN_ZONE = 16;
+
+  // STATE flags
+  public static final byte HEATING = 1;
+  public static final byte COOLING = 2;
+
+  private ThermostatProtocol() {
+  }
+
+  public static void putSetTarget(ByteBuffer out, int requestId, int zone, int targetTenths) {
+    out.putInt(SET_TARGET_SIZE - 4).put(SET_TARGET)
+        .putInt(requestId).putInt(zone).putShort((short) targetTenths);
+  }
+
+  public static void putSubscribe(ByteBuffer out) {
+    out.putInt(SUBSCRIBE_SIZE - 4).put(SUBSCRIBE);
+  }
+
+  public static void putAck(ByteBuffer out, int requestId, byte result) {
+    out.putInt(ACK_SIZE - 4).put(ACK).putInt(requestId).put(result);
+  }
+
+  public static void putState(ByteBuffer out, int zone, int currentTenths, int targetTenths,
+      boolean heating, boolean cooling) {
+    out.putInt(STATE_SIZE - 4).put(STATE)
+        .putInt(zone).putShort((short) currentTenths).putShort((short) targetTenths)
+        .put((byte) ((heating ? HEATING : 0) | (cooling ? COOLING : 0)));
+  }
+}
@@ -0,0 +1,467 @@
+package main.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import main.controller.IThermostatController;
+import main.model.DeciDegrees;
+import main.model.IThermostatModel;
+import main.model.Setpoints;
+import main.model.ThermostatFleet;
+
+/**
+ * Headless controller that serves thermostat zones over TCP on the loopback interface
+ * One selector thread does everything: it accepts connections, applies pipelined
+ * SET_TARGET commands, ticks the zones and streams state changes to subscribers
+ * (see {@link ThermostatProtocol}). Because that thread is the only one touching the
+ * models, they need no locking - do not step or change them from anywhere else
+ *
+ * Replies and state updates are collected per connection during one selector round
+ * and written with one write call per connection at the end of the round
+ */
+public class ThermostatServer implements IThermostatController, Closeable {
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int MIN_OUTPUT_LIMIT = 4 * 1024 * 1024;
+
+  private final IThermostatModel[] zones;
+  private final Runnable ticker;
+  private final long tickNanos;
+  private final int requestedPort;
+  private final int outputLimit; // a client this far behind is disconnected
+
+  // What subscribers last saw of each zone
+  private final short[] sentCurrent;
+  private final short[] sentTarget;
+  private final byte[] sentFlags;
+
+  // Zones changed by commands since the last publish
+  private final boolean[] dirty;
+  private final int[] dirtyZones;
+  private int dirtyCount;
+  private boolean ticked;
+
+  private final List<Connection> connections = new ArrayList<>();
+  private final List<Connection> subscribers = new ArrayList<>();
+  private final List<Connection> newSubscribers = new ArrayList<>();
+
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private Thread loop;
+  private volatile boolean running;
+
+  /**
+   * Creates a server over individual models, each ticked with updateSystem()
+   * @param zones the zones to serve, zone i is zones.get(i)
+   * @param port the loopback port, 0 for any free port
+   * @param tickMillis how often the zones are stepped, 0 to never step them
+   */
+  public ThermostatServer(List<? extends IThermostatModel> zones, int port, long tickMillis) {
+    this(zones.toArray(new IThermostatModel[0]), null, port, tickMillis);
+  }
+
+  /**
+   * Creates a server over a fleet, ticked with one fleet-wide updateSystem()
+   * @param fleet the zones to serve
+   * @param port the loopback port, 0 for any free port
+   * @param tickMillis how often the zones are stepped, 0 to never step them
+   */
+  public ThermostatServer(ThermostatFleet fleet, int port, long tickMillis) {
+    this(zoneViews(fleet), fleet::updateSystem, port, tickMillis);
+  }
+
+  private ThermostatServer(IThermostatModel[] zones, Runnable ticker, int port, long tickMillis) {
+    if(tickMillis < 0) {
+      throw new IllegalArgumentException("Tick interval must not be negative. Provided: " + tickMillis);
+    }
+
+    this.zones = zones;
+    this.ticker = ticker != null ? ticker : () -> {
+      for(IThermostatModel zone : zones) {
+        zone.updateSystem();
+      }
+    };
+    this.tickNanos = tickMillis * 1_000_000;
+    this.requestedPort = port;
+    this.outputLimit = Math.max(MIN_OUTPUT_LIMIT, 2 * zones.length * ThermostatProtocol.STATE_SIZE);
+    this.sentCurrent = new short[zones.length];
+    this.sentTarget = new short[zones.length];
+    this.sentFlags = new byte[zones.length];
+    this.dirty = new boolean[zones.length];
+    this.dirtyZones = new int[zones.length];
+  }
+
+  private static IThermostatModel[] zoneViews(ThermostatFleet fleet) {
+    IThermostatModel[] views = new IThermostatModel[fleet.size()];
+    for(int zone = 0; zone < views.length; zone++) {
+      views[zone] = fleet.zone(zone);
+    }
+    return views;
+  }
+
+  /**
+   * Binds the port and starts the selector thread; returns right away
+   * @throws UncheckedIOException if the port cannot be bound
+   */
+  @Override
+  public void run() {
+    try {
+      selector = Selector.open();
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort));
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot start thermostat server on port " + requestedPort, e);
+    }
+
+    running = true;
+    loop = new Thread(this::eventLoop, "thermostat-server");
+    loop.start();
+  }
+
+  /**
+   * Gets the port the server listens on, useful after binding port 0
+   * @return the local port
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Stops the selector thread and closes every connection
+   */
+  @Override
+  public void close() {
+    running = false;
+    if(selector != null) {
+      selector.wakeup();
+    }
+    if(loop != null && loop != Thread.currentThread()) {
+      try {
+        loop.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void eventLoop() {
+    long nextTick = System.nanoTime() + tickNanos;
+    try {
+      while(running) {
+        long timeoutMillis = tickNanos == 0 ? 0 : Math.max(1, (nextTick - System.nanoTime()) / 1_000_000);
+        selector.select(timeoutMillis);
+
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while(keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          handle(key);
+        }
+
+        long now = System.nanoTime();
+        if(tickNanos != 0 && now - nextTick >= 0) {
+          ticker.run();
+          ticked = true;
+          // a late tick is not made up for, the next one is a full interval away
+          nextTick = Math.max(nextTick + tickNanos, now + 1);
+        }
+
+        publishChanges();
+        flushAll();
+      }
+    } catch (IOException e) {
+      System.err.println("Thermostat server stopped: " + e.getMessage());
+    } finally {
+      shutDown();
+    }
+  }
+
+  private void handle(SelectionKey key) {
+    if(!key.isValid()) {
+      return;
+    }
+    if(key.isAcceptable()) {
+      accept();
+      return;
+    }
+
+    Connection connection = (Connection) key.attachment();
+    try {
+      if(key.isReadable()) {
+        connection.read();
+      }
+      if(key.isValid() && key.isWritable()) {
+        connection.flush();
+      }
+    } catch (IOException | ProtocolException e) {
+      connection.close();
+    }
+  }
+
+  private void accept() {
+    try {
+      SocketChannel channel = serverChannel.accept();
+      if(channel == null) {
+        return;
+      }
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      Connection connection = new Connection(channel);
+      connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+      connections.add(connection);
+    } catch (IOException e) {
+      System.err.println("Could not accept connection: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Applies one SET_TARGET command and queues its ACK
+   */
+  private void setTarget(Connection connection, int requestId, int zone, int tenths) {
+    byte result;
+    if(zone < 0 || zone >= zones.length) {
+      result = ThermostatProtocol.UNKNOWN_ZONE;
+    } else {
+      IThermostatModel model = zones[zone];
+      double temperature = DeciDegrees.toCelsius(tenths);
+      result = Setpoints.check(temperature, model.getMinTemperature(), model.getMaxTemperature());
+      if(result == Setpoints.ACCEPTED) {
+        model.setTargetTemperature(temperature);
+        markDirty(zone);
+      }
+    }
+    ThermostatProtocol.putAck(connection.output(ThermostatProtocol.ACK_SIZE), requestId, result);
+  }
+
+  private void markDirty(int zone) {
+    if(!dirty[zone]) {
+      dirty[zone] = true;
+      dirtyZones[dirtyCount++] = zone;
+    }
+  }
+
+  /**
+   * Sends what changed since the last round to the subscribers, then a full
+   * snapshot to the ones that subscribed during this round
+   */
+  private void publishChanges() {
+    if(!subscribers.isEmpty()) {
+      if(ticked) {
+        // a tick may have moved any zone
+        for(int zone = 0; zone < zones.length; zone++) {
+          publishIfChanged(zone);
+        }
+      } else {
+        for(int i = 0; i < dirtyCount; i++) {
+          publishIfChanged(dirtyZones[i]);
+        }
+      }
+    }
+    for(int i = 0; i < dirtyCount; i++) {
+      dirty[dirtyZones[i]] = false;
+    }
+    dirtyCount = 0;
+    ticked = false;
+
+    if(!newSubscribers.isEmpty()) {
+      for(int zone = 0; zone < zones.length; zone++) {
+        remember(zone);
+        for(Connection subscriber : newSubscribers) {
+          putState(subscriber, zone);
+        }
+      }
+      subscribers.addAll(newSubscribers);
+      newSubscribers.clear();
+    }
+  }
+
+  private void publishIfChanged(int zone) {
+    IThermostatModel model = zones[zone];
+    if(model.getCurrentTenths() == sentCurrent[zone] && model.getTargetTenths() == sentTarget[zone]
+        && flags(model) == sentFlags[zone]) {
+      return;
+    }
+    remember(zone);
+    for(Connection subscriber : subscribers) {
+      putState(subscriber, zone);
+    }
+  }
+
+  private void remember(int zone) {
+    IThermostatModel model = zones[zone];
+    sentCurrent[zone] = (short) model.getCurrentTenths();
+    sentTarget[zone] = (short) model.getTargetTenths();
+    sentFlags[zone] = flags(model);
+  }
+
+  private void putState(Connection subscriber, int zone) {
+    ThermostatProtocol.putState(subscriber.output(ThermostatProtocol.STATE_SIZE), zone,
+        sentCurrent[zone], sentTarget[zone],
+        (sentFlags[zone] & ThermostatProtocol.HEATING) != 0,
+        (sentFlags[zone] & ThermostatProtocol.COOLING) != 0);
+  }
+
+  private static byte flags(IThermostatModel model) {
+    return (byte) ((model.isHeating() ? ThermostatProtocol.HEATING : 0)
+        | (model.isCooling() ? ThermostatProtocol.COOLING : 0));
+  }
+
+  private void flushAll() {
+    // copy, a failed flush removes the connection from the list
+    for(Connection connection : connections.toArray(new Connection[0])) {
+      try {
+        connection.flush();
+      } catch (IOException | ProtocolException e) {
+        connection.close();
+      }
+    }
+  }
+
+  private void shutDown() {
+    for(Connection connection : connections.toArray(new Connection[0])) {
+      connection.close();
+    }
+    try {
+      serverChannel.close();
+      selector.close();
+    } catch (IOException e) {
+      // closing anyway
+    }
+  }
+
+  /**
+   * A client broke the protocol or fell too far behind; its connection is dropped
+   */
+  private static final class ProtocolException extends Exception {
+    private ProtocolException(String message) {
+      super(message, null, false, false);
+    }
+  }
+
+  /**
+   * One client connection with its read and write buffers
+   */
+  private final class Connection {
+    private final SocketChannel channel;
+    private final ByteBuffer input = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private ByteBuffer output = ByteBuffer.allocateDirect(16 * 1024); // write mode between flushes
+    private SelectionKey key;
+    private boolean overflowed;
+
+    private Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    private void read() throws IOException, ProtocolException {
+      if(channel.read(input) < 0) {
+        close();
+        return;
+      }
+
+      input.flip();
+      while(input.remaining() >= 4) {
+        int length = input.getInt(input.position());
+        if(length < 1 || length + 4 > ThermostatProtocol.MAX_FRAME_SIZE) {
+          throw new ProtocolException("Bad frame length " + length);
+        }
+        if(input.remaining() < length + 4) {
+          break;
+        }
+
+        int start = input.position();
+        byte type = input.get(start + 4);
+        if(type == ThermostatProtocol.SET_TARGET && length + 4 == ThermostatProtocol.SET_TARGET_SIZE) {
+          setTarget(this, input.getInt(start + 5), input.getInt(start + 9), input.getShort(start + 13));
+        } else if(type == ThermostatProtocol.SUBSCRIBE && length + 4 == ThermostatProtocol.SUBSCRIBE_SIZE) {
+          if(!subscribers.contains(this) && !newSubscribers.contains(this)) {
+            newSubscribers.add(this);
+          }
+        } else {
+          throw new ProtocolException("Bad frame of type " + type + " and length " + length);
+        }
+        input.position(start + 4 + length);
+      }
+      input.compact();
+    }
+
+    /**
+     * Gets the output buffer with room for at least the given number of bytes
+     */
+    private ByteBuffer output(int bytes) {
+      if(output.remaining() < bytes) {
+        int needed = output.position() + bytes;
+        if(needed > outputLimit) {
+          // too far behind; stop queueing, the next flush drops the connection
+          overflowed = true;
+          output.clear();
+        } else {
+          ByteBuffer larger = ByteBuffer.allocateDirect(Math.min(outputLimit,
+              Math.max(needed, output.capacity() * 2)));
+          output.flip();
+          larger.put(output);
+          output = larger;
+        }
+      }
+      return output;
+    }
+
+    private void flush() throws IOException, ProtocolException {
+      if(overflowed) {
+        throw new ProtocolException("Client too slow, " + outputLimit + " bytes queued");
+      }
+      if(output.position() == 0) {
+        return;
+      }
+
+      output.flip();
+      channel.write(output);
+      output.compact();
+
+      // ask for OP_WRITE only while something is left over
+      int ops = output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+      if(key.interestOps() != ops) {
+        key.interestOps(ops);
+      }
+    }
+
+    private void close() {
+      connections.remove(this);
+      subscribers.remove(this);
+      newSubscribers.remove(this);
+      if(key != null) {
+        key.cancel();
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // already gone
+      }
+    }
+  }
+
+  /**
+   * Runs a server on its own: ThermostatServer [port] [zones] [tickMillis]
+   */
+  public static void main(String[] args) {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+    int zones = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    long tickMillis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+    ThermostatServer server = new ThermostatServer(new ThermostatFleet(zones), port, tickMillis);
+    server.run();
+    System.out.println("Serving " + zones + " zones on 127.0.0.1:" + server.getPort());
+  }
+}
@@ -0,0 +1,257 @@
+package main.schedule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import main.model.DeciDegrees;
+import main.model.IThermostatModel;
+import main.model.Setpoints;
+
+/**
+ * Drives the targets of many zones from weekly programs
+ *
+ * Zones with equal programs share one program instance (a flyweight), and the transitions
+ * of all programs in use are indexed by minute of the week in one flat table, so moving the
+ * clock forward only visits the minutes that passed and the transitions due in them. A tick
+ * costs O(minutes passed + transitions due + zones whose target changes), no matter how many
+ * zones or programs exist; nothing is scanned per zone
+ *
+ * Not thread-safe: call it from the thread that updates the models
+ */
+public class ScheduleEngine {
+
+  private static final int NO_PROGRAM = -1;
+
+  private final IThermostatModel[] zones;
+  private final int[] zoneProgram;  // program id per zone, or NO_PROGRAM
+  private final int[] zonePosition; // index of the zone in its program's zone list
+
+  // Flyweights: one id per distinct program, with the zones that follow it
+  private final Map<WeeklyProgram, Integer> programIds = new HashMap<>();
+  private final List<WeeklyProgram> programs = new ArrayList<>();
+  private int[][] programZones = new int[8][];
+  private int[] programZoneCount = new int[8];
+
+  // Transitions of the programs in use by minute of the week: the ones due at minute m are
+  // entries slotStart[m] until slotStart[m + 1]
+  private final int[] slotStart = new int[WeeklyProgram.MINUTES_PER_WEEK + 1];
+  private int[] entryProgram = new int[0];
+  private short[] entryTenths = new short[0];
+  private boolean indexStale;
+
+  private int minute; // the last minute of the week that was applied
+  private long rejectedCount;
+
+  /**
+   * Creates an engine with no programs assigned yet
+   * @param zones the zones to drive, zone i is zones.get(i)
+   * @param minuteOfWeek the current minute of the week, see {@link WeeklyProgram#minuteOfWeek}
+   */
+  public ScheduleEngine(List<? extends IThermostatModel> zones, int minuteOfWeek) {
+    checkMinute(minuteOfWeek);
+    this.zones = zones.toArray(new IThermostatModel[0]);
+    this.zoneProgram = new int[this.zones.length];
+    this.zonePosition = new int[this.zones.length];
+    Arrays.fill(zoneProgram, NO_PROGRAM);
+    this.minute = minuteOfWeek;
+  }
+
+  /**
+   * Makes a zone follow a program, and sets the target the program has right now
+   * @param zone the zone
+   * @param program the program; an equal program already in use is shared instead
+   */
+  public void assign(int zone, WeeklyProgram program) {
+    unassign(zone);
+
+    Integer known = programIds.get(program);
+    int id;
+    if(known != null) {
+      id = known;
+    } else {
+      id = programs.size();
+      programIds.put(program, id);
+      programs.add(program);
+      if(id == programZones.length) {
+        programZones = Arrays.copyOf(programZones, id * 2);
+        programZoneCount = Arrays.copyOf(programZoneCount, id * 2);
+      }
+      programZones[id] = new int[4];
+    }
+
+    int count = programZoneCount[id];
+    if(count == 0) {
+      indexStale = true; // its transitions are not in the index yet
+    }
+    if(count == programZones[id].length) {
+      programZones[id] = Arrays.copyOf(programZones[id], count * 2);
+    }
+    programZones[id][count] = zone;
+    programZoneCount[id] = count + 1;
+    zoneProgram[zone] = id;
+    zonePosition[zone] = count;
+
+    apply(zone, programs.get(id).tenthsAt(minute));
+  }
+
+  /**
+   * Stops driving a zone; its current target stays
+   * @param zone the zone
+   */
+  public void unassign(int zone) {
+    int id = zoneProgram[zone];
+    if(id == NO_PROGRAM) {
+      return;
+    }
+    // swap the last zone of the program into the gap
+    int position = zonePosition[zone];
+    int last = --programZoneCount[id];
+    int moved = programZones[id][last];
+    programZones[id][position] = moved;
+    zonePosition[moved] = position;
+    zoneProgram[zone] = NO_PROGRAM;
+    if(last == 0) {
+      indexStale = true; // nobody follows it any more, drop it from the index
+    }
+  }
+
+  /**
+   * Gets the program a zone follows
+   * @param zone the zone
+   * @return the shared program instance, or null
+   */
+  public WeeklyProgram getProgram(int zone) {
+    int id = zoneProgram[zone];
+    return id == NO_PROGRAM ? null : programs.get(id);
+  }
+
+  /**
+   * Gets the number of distinct programs followed by at least one zone
+   * @return the program count
+   */
+  public int getProgramCount() {
+    int inUse = 0;
+    for(int id = 0; id < programs.size(); id++) {
+      if(programZoneCount[id] > 0) {
+        inUse++;
+      }
+    }
+    return inUse;
+  }
+
+  /**
+   * Gets the last minute of the week that was applied
+   * @return the minute of the week
+   */
+  public int getMinute() {
+    return minute;
+  }
+
+  /**
+   * Gets how many scheduled targets the zones refused so far, e.g., because a zone
+   * allows a narrower range than the program uses
+   * @return the rejected count
+   */
+  public long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  /**
+   * Moves the clock forward to the given time, see {@link #advanceTo(int)}
+   * @param time the local time
+   * @return the number of targets set
+   */
+  public int advanceTo(LocalDateTime time) {
+    return advanceTo(WeeklyProgram.minuteOfWeek(time));
+  }
+
+  /**
+   * Moves the clock forward and applies every transition of the minutes that passed,
+   * in time order; going past Sunday 23:59 wraps around to Monday
+   * @param minuteOfWeek the new minute of the week; the current one means no change
+   * @return the number of targets set
+   */
+  public int advanceTo(int minuteOfWeek) {
+    checkMinute(minuteOfWeek);
+    if(indexStale) {
+      rebuildIndex();
+    }
+
+    int applied = 0;
+    int m = minute;
+    while(m != minuteOfWeek) {
+      m = m + 1 == WeeklyProgram.MINUTES_PER_WEEK ? 0 : m + 1;
+      for(int e = slotStart[m], end = slotStart[m + 1]; e < end; e++) {
+        int id = entryProgram[e];
+        int[] followers = programZones[id];
+        int tenths = entryTenths[e];
+        for(int i = 0, count = programZoneCount[id]; i < count; i++) {
+          if(apply(followers[i], tenths)) {
+            applied++;
+          }
+        }
+      }
+    }
+    minute = minuteOfWeek;
+    return applied;
+  }
+
+  /**
+   * Sets a target, without an exception if the zone refuses it
+   * @return true if the target was set
+   */
+  private boolean apply(int zone, int tenths) {
+    IThermostatModel model = zones[zone];
+    double temperature = DeciDegrees.toCelsius(tenths);
+    if(Setpoints.check(temperature, model.getMinTemperature(), model.getMaxTemperature()) != Setpoints.ACCEPTED) {
+      rejectedCount++;
+      return false;
+    }
+    model.setTargetTemperature(temperature);
+    return true;
+  }
+
+  /**
+   * Rebuilds the minute index from the programs in use: a counting sort of their transitions
+   */
+  private void rebuildIndex() {
+    Arrays.fill(slotStart, 0);
+    int total = 0;
+    for(int id = 0; id < programs.size(); id++) {
+      if(programZoneCount[id] > 0) {
+        WeeklyProgram program = programs.get(id);
+        for(int i = 0; i < program.size(); i++) {
+          slotStart[program.getMinute(i) + 1]++;
+        }
+        total += program.size();
+      }
+    }
+    for(int m = 0; m < WeeklyProgram.MINUTES_PER_WEEK; m++) {
+      slotStart[m + 1] += slotStart[m];
+    }
+
+    entryProgram = new int[total];
+    entryTenths = new short[total];
+    int[] next = Arrays.copyOf(slotStart, WeeklyProgram.MINUTES_PER_WEEK);
+    for(int id = 0; id < programs.size(); id++) {
+      if(programZoneCount[id] > 0) {
+        WeeklyProgram program = programs.get(id);
+        for(int i = 0; i < program.size(); i++) {
+          int e = next[program.getMinute(i)]++;
+          entryProgram[e] = id;
+          entryTenths[e] = (short) program.getTenths(i);
+        }
+      }
+    }
+    indexStale = false;
+  }
+
+  private static void checkMinute(int minuteOfWeek) {
+    if(minuteOfWeek < 0 || minuteOfWeek >= WeeklyProgram.MINUTES_PER_WEEK) {
+      throw new IllegalArgumentException("Minute of week out of range: " + minuteOfWeek);
+    }
+  }
+}
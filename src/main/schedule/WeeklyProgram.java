@@ -0,0 +1,224 @@
+package main.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import main.model.DeciDegrees;
+
+/**
+ * Immutable weekly setpoint program: a sorted list of (minute of the week, target) transitions
+ * Each target holds from its minute until the next transition, wrapping around from Sunday
+ * to Monday, so a program with transitions is always defined for the whole week
+ *
+ * Programs are values (equals/hashCode compare the transitions), so zones with the same
+ * program can share one instance; {@link ScheduleEngine} does that automatically
+ */
+public final class WeeklyProgram {
+
+  public static final int MINUTES_PER_DAY = 24 * 60;
+  public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+  private final int[] minutes; // ascending, distinct, within [0, MINUTES_PER_WEEK)
+  private final short[] tenths;
+  private final int hash;
+
+  private WeeklyProgram(int[] minutes, short[] tenths) {
+    this.minutes = minutes;
+    this.tenths = tenths;
+    this.hash = 31 * Arrays.hashCode(minutes) + Arrays.hashCode(tenths);
+  }
+
+  /**
+   * Gets the minute of the week, Monday 00:00 being 0
+   * @param time the local time
+   * @return the minute of the week
+   */
+  public static int minuteOfWeek(LocalDateTime time) {
+    return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+  }
+
+  /**
+   * Starts a new program
+   * @return an empty builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Gets the number of transitions in a week
+   * @return the transition count
+   */
+  public int size() {
+    return minutes.length;
+  }
+
+  /**
+   * Gets the minute of the week of a transition
+   * @param index the transition, 0 being the earliest in the week
+   * @return the minute of the week
+   */
+  public int getMinute(int index) {
+    return minutes[index];
+  }
+
+  /**
+   * Gets the target of a transition
+   * @param index the transition, 0 being the earliest in the week
+   * @return the target in tenths of a degree
+   */
+  public int getTenths(int index) {
+    return tenths[index];
+  }
+
+  /**
+   * Gets the target in effect at a minute of the week: the last transition at or before it,
+   * or the last of the week if none is
+   * @param minuteOfWeek the minute of the week
+   * @return the target in tenths of a degree
+   */
+  public int tenthsAt(int minuteOfWeek) {
+    int index = Arrays.binarySearch(minutes, minuteOfWeek);
+    if(index < 0) {
+      index = -index - 2; // the transition before the insertion point
+    }
+    return tenths[index >= 0 ? index : minutes.length - 1];
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if(this == other) {
+      return true;
+    }
+    if(!(other instanceof WeeklyProgram)) {
+      return false;
+    }
+    WeeklyProgram program = (WeeklyProgram) other;
+    return hash == program.hash && Arrays.equals(minutes, program.minutes)
+        && Arrays.equals(tenths, program.tenths);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder("WeeklyProgram[");
+    for(int i = 0; i < minutes.length; i++) {
+      if(i > 0) {
+        text.append(", ");
+      }
+      int minute = minutes[i];
+      text.append(DayOfWeek.of(minute / MINUTES_PER_DAY + 1).name(), 0, 3).append(' ')
+          .append(String.format("%02d:%02d", minute % MINUTES_PER_DAY / 60, minute % 60))
+          .append(' ').append(DeciDegrees.toCelsius(tenths[i]));
+    }
+    return text.append(']').toString();
+  }
+
+  /**
+   * Collects transitions in any order; a later transition at the same minute replaces the earlier one
+   */
+  public static final class Builder {
+    private int[] minutes = new int[8];
+    private short[] tenths = new short[8];
+    private int count;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a transition on one day of the week
+     * @param day the day
+     * @param hour the hour, 0-23
+     * @param minute the minute, 0-59
+     * @param celsius the target from then on
+     * @return this builder
+     * @throws IllegalArgumentException if the time or the target is invalid
+     */
+    public Builder at(DayOfWeek day, int hour, int minute, double celsius) {
+      if(hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+        throw new IllegalArgumentException("Invalid time of day: " + hour + ":" + minute);
+      }
+      return atMinute((day.getValue() - 1) * MINUTES_PER_DAY + hour * 60 + minute, celsius);
+    }
+
+    /**
+     * Adds the same transition on every day of the week
+     * @param hour the hour, 0-23
+     * @param minute the minute, 0-59
+     * @param celsius the target from then on
+     * @return this builder
+     * @throws IllegalArgumentException if the time or the target is invalid
+     */
+    public Builder daily(int hour, int minute, double celsius) {
+      for(DayOfWeek day : DayOfWeek.values()) {
+        at(day, hour, minute, celsius);
+      }
+      return this;
+    }
+
+    /**
+     * Adds a transition at a minute of the week
+     * @param minuteOfWeek the minute of the week, Monday 00:00 being 0
+     * @param celsius the target from then on
+     * @return this builder
+     * @throws IllegalArgumentException if the minute or the target is invalid
+     */
+    public Builder atMinute(int minuteOfWeek, double celsius) {
+      if(minuteOfWeek < 0 || minuteOfWeek >= MINUTES_PER_WEEK) {
+        throw new IllegalArgumentException("Minute of week out of range: " + minuteOfWeek);
+      }
+      int value = DeciDegrees.fromCelsius(celsius);
+      if(!DeciDegrees.isWholeTenths(celsius) || value < DeciDegrees.MIN || value > DeciDegrees.MAX) {
+        throw new IllegalArgumentException("Program target must be in 0.1°C steps between "
+            + DeciDegrees.toCelsius(DeciDegrees.MIN) + " and " + DeciDegrees.toCelsius(DeciDegrees.MAX)
+            + ". Provided: " + celsius);
+      }
+      if(count == minutes.length) {
+        minutes = Arrays.copyOf(minutes, count * 2);
+        tenths = Arrays.copyOf(tenths, count * 2);
+      }
+      minutes[count] = minuteOfWeek;
+      tenths[count] = (short) value;
+      count++;
+      return this;
+    }
+
+    /**
+     * Builds the program
+     * @return the program
+     * @throws IllegalStateException if no transition was added
+     */
+    public WeeklyProgram build() {
+      if(count == 0) {
+        throw new IllegalStateException("A program needs at least one transition");
+      }
+
+      // sort by minute, keeping the order of addition for equal minutes (the last one wins)
+      long[] keyed = new long[count];
+      for(int i = 0; i < count; i++) {
+        keyed[i] = (long) minutes[i] << 32 | i;
+      }
+      Arrays.sort(keyed);
+
+      int[] sortedMinutes = new int[count];
+      short[] sortedTenths = new short[count];
+      int size = 0;
+      for(long key : keyed) {
+        int minute = (int) (key >>> 32);
+        short value = tenths[(int) key];
+        if(size > 0 && sortedMinutes[size - 1] == minute) {
+          sortedTenths[size - 1] = value;
+        } else {
+          sortedMinutes[size] = minute;
+          sortedTenths[size] = value;
+          size++;
+        }
+      }
+      return new WeeklyProgram(Arrays.copyOf(sortedMinutes, size), Arrays.copyOf(sortedTenths, size));
+    }
+  }
+}
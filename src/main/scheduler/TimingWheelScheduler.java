@@ -0,0 +1,378 @@
+package main.scheduler;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.SwingUtilities;
+import main.metrics.LatencyHistogram;
+
+/**
+ * Hierarchical timing wheel shared by all controllers and views
+ * Replaces one javax.swing.Timer per periodic update / message timeout with a single
+ * driver thread and O(1) insert and cancel, no matter how many timeouts are pending
+ *
+ * The wheel has 4 levels of 64 slots: level 0 holds timeouts due in the next 64 ticks,
+ * level 1 the next 64^2 ticks and so on; when a lower level wraps around, the matching
+ * bucket of the level above is cascaded down (the classic Varghese &amp; Lauck / Linux scheme)
+ *
+ * Tasks that expire on the same tick are handed to the dispatcher as one batch, and a batch
+ * that has not been run yet keeps collecting, so the EDT sees at most one event per tick
+ */
+public class TimingWheelScheduler {
+
+  // Wheel geometry
+  private static final int WHEEL_BITS = 6;
+  private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final int LEVELS = 4;
+  private static final long MAX_DELAY_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+  // Resolution of the shared scheduler
+  private static final long DEFAULT_TICK_MS = 10;
+
+  private static TimingWheelScheduler shared;
+
+  private final long tickMillis;
+  private final Executor dispatcher;
+
+  // bucket heads, each bucket is a doubly linked list of timeouts
+  private final Timeout[][] wheels = new Timeout[LEVELS][WHEEL_SIZE];
+  private long currentTick; // the next tick to be processed
+  private int pendingCount;
+
+  // expired tasks waiting for the dispatcher
+  private final Object batchLock = new Object();
+  private ArrayList<Timeout> pendingBatch = new ArrayList<>();
+  private boolean batchPosted;
+  private long batchPostedNanos;
+
+  // time from posting a batch to the dispatcher running it
+  private final LatencyHistogram queueDelay = new LatencyHistogram();
+
+  private volatile boolean running;
+  private Thread driver;
+
+  /**
+   * Handle for a scheduled task
+   */
+  public final class Timeout {
+    private final Runnable task;
+    private final long periodTicks; // 0 for one-shot timeouts
+    private long deadline;
+    private volatile boolean cancelled;
+
+    // position in the wheel, level -1 when not linked
+    private int level = -1;
+    private int slot;
+    private Timeout prev;
+    private Timeout next;
+
+    private Timeout(Runnable task, long deadline, long periodTicks) {
+      this.task = task;
+      this.deadline = deadline;
+      this.periodTicks = periodTicks;
+    }
+
+    /**
+     * Cancels the task; it will not run again, even if it already expired
+     * but the dispatcher has not run its batch yet
+     */
+    public void cancel() {
+      TimingWheelScheduler.this.cancel(this);
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+
+  /**
+   * Creates a scheduler; call {@link #start()} to drive it in real time,
+   * or call {@link #advance()} directly to drive it manually
+   * @param tickMillis the wheel resolution in milliseconds
+   * @param dispatcher runs each batch of expired tasks; must run batches one at a time
+   */
+  public TimingWheelScheduler(long tickMillis, Executor dispatcher) {
+    if(tickMillis <= 0) {
+      throw new IllegalArgumentException("Tick must be positive. Provided: " + tickMillis);
+    }
+    this.tickMillis = tickMillis;
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * Gets the scheduler shared by the whole application
+   * It is started on first use and dispatches to the EDT
+   * @return the shared scheduler
+   */
+  public static synchronized TimingWheelScheduler shared() {
+    if(shared == null) {
+      shared = new TimingWheelScheduler(DEFAULT_TICK_MS, SwingUtilities::invokeLater);
+      shared.start();
+    }
+    return shared;
+  }
+
+  /**
+   * Runs a task once after the given delay
+   * @param task the task to run on the dispatcher
+   * @param delayMillis the delay in milliseconds
+   * @return a handle to cancel the task
+   */
+  public Timeout schedule(Runnable task, long delayMillis) {
+    return add(task, toTicks(delayMillis), 0);
+  }
+
+  /**
+   * Runs a task repeatedly, first after one period and then once every period
+   * @param task the task to run on the dispatcher
+   * @param periodMillis the period in milliseconds
+   * @return a handle to cancel the task
+   */
+  public Timeout scheduleAtFixedRate(Runnable task, long periodMillis) {
+    long periodTicks = toTicks(periodMillis);
+    return add(task, periodTicks, periodTicks);
+  }
+
+  /**
+   * Gets the number of timeouts currently waiting in the wheel
+   * @return the pending count
+   */
+  public synchronized int getPendingCount() {
+    return pendingCount;
+  }
+
+  public long getTickMillis() {
+    return tickMillis;
+  }
+
+  /**
+   * Gets how long batches of expired tasks waited for the dispatcher
+   * (for the shared scheduler: the EDT event queue delay)
+   * @return the live histogram
+   */
+  public LatencyHistogram getQueueDelay() {
+    return queueDelay;
+  }
+
+  /**
+   * Starts the driver thread that advances the wheel in real time
+   */
+  public synchronized void start() {
+    if(running) {
+      return;
+    }
+    running = true;
+    driver = new Thread(this::drive, "timing-wheel");
+    driver.setDaemon(true);
+    driver.start();
+  }
+
+  /**
+   * Stops the driver thread; pending timeouts stay in the wheel
+   */
+  public synchronized void stop() {
+    running = false;
+    if(driver != null) {
+      LockSupport.unpark(driver);
+      driver = null;
+    }
+  }
+
+  /**
+   * Processes one tick: cascades higher levels if needed, collects the expired timeouts,
+   * re-arms periodic ones and hands the batch to the dispatcher
+   */
+  public void advance() {
+    ArrayList<Timeout> expired = null;
+
+    synchronized(this) {
+      int index = (int) (currentTick & WHEEL_MASK);
+      if(index == 0) {
+        cascade(1);
+      }
+      currentTick++;
+
+      Timeout t = wheels[0][index];
+      wheels[0][index] = null;
+      while(t != null) {
+        Timeout next = t.next;
+        t.prev = null;
+        t.next = null;
+        t.level = -1;
+        pendingCount--;
+
+        if(!t.cancelled) {
+          if(t.periodTicks > 0) {
+            t.deadline += t.periodTicks;
+            insert(t);
+          }
+          if(expired == null) {
+            expired = new ArrayList<>();
+          }
+          expired.add(t);
+        }
+        t = next;
+      }
+    }
+
+    if(expired != null) {
+      post(expired);
+    }
+  }
+
+  private long toTicks(long millis) {
+    if(millis < 0) {
+      throw new IllegalArgumentException("Delay must not be negative. Provided: " + millis);
+    }
+    // round up so a timeout never fires early
+    return Math.max(1, (millis + tickMillis - 1) / tickMillis);
+  }
+
+  private synchronized Timeout add(Runnable task, long delayTicks, long periodTicks) {
+    // currentTick is processed within one tick from now, so this never fires early
+    Timeout t = new Timeout(task, currentTick + delayTicks, periodTicks);
+    insert(t);
+    return t;
+  }
+
+  private synchronized void cancel(Timeout t) {
+    t.cancelled = true;
+    if(t.level >= 0) {
+      unlink(t);
+      pendingCount--;
+    }
+  }
+
+  /**
+   * Links a timeout into the level that covers its distance from now
+   */
+  private void insert(Timeout t) {
+    long delta = t.deadline - currentTick;
+    long position = t.deadline;
+
+    if(delta < 0) {
+      // already due - run on the next tick
+      delta = 0;
+      position = currentTick;
+    } else if(delta > MAX_DELAY_TICKS) {
+      // beyond the top level - park it at the far end, it is re-inserted when cascaded
+      delta = MAX_DELAY_TICKS;
+      position = currentTick + MAX_DELAY_TICKS;
+    }
+
+    int level = 0;
+    while(delta >= 1L << (WHEEL_BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) ((position >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+    Timeout head = wheels[level][slot];
+    t.level = level;
+    t.slot = slot;
+    t.prev = null;
+    t.next = head;
+    if(head != null) {
+      head.prev = t;
+    }
+    wheels[level][slot] = t;
+    pendingCount++;
+  }
+
+  private void unlink(Timeout t) {
+    if(t.prev != null) {
+      t.prev.next = t.next;
+    } else {
+      wheels[t.level][t.slot] = t.next;
+    }
+    if(t.next != null) {
+      t.next.prev = t.prev;
+    }
+    t.prev = null;
+    t.next = null;
+    t.level = -1;
+  }
+
+  /**
+   * Moves the current bucket of a level down to the levels below it,
+   * cascading further up when this level wraps around as well
+   */
+  private void cascade(int level) {
+    if(level >= LEVELS) {
+      return;
+    }
+
+    int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    Timeout t = wheels[level][index];
+    wheels[level][index] = null;
+    while(t != null) {
+      Timeout next = t.next;
+      t.level = -1;
+      pendingCount--;
+      insert(t);
+      t = next;
+    }
+
+    if(index == 0) {
+      cascade(level + 1);
+    }
+  }
+
+  /**
+   * Adds expired timeouts to the pending batch and posts it unless it is already posted
+   */
+  private void post(ArrayList<Timeout> expired) {
+    boolean postNow;
+    synchronized(batchLock) {
+      pendingBatch.addAll(expired);
+      postNow = !batchPosted;
+      if(postNow) {
+        batchPosted = true;
+        batchPostedNanos = System.nanoTime();
+      }
+    }
+    if(postNow) {
+      dispatcher.execute(this::runBatch);
+    }
+  }
+
+  private void runBatch() {
+    ArrayList<Timeout> batch;
+    long postedNanos;
+    synchronized(batchLock) {
+      batch = pendingBatch;
+      pendingBatch = new ArrayList<>();
+      batchPosted = false;
+      postedNanos = batchPostedNanos;
+    }
+    queueDelay.record(System.nanoTime() - postedNanos);
+
+    for(Timeout t : batch) {
+      if(t.cancelled) {
+        continue;
+      }
+      try {
+        t.task.run();
+      } catch (RuntimeException e) {
+        // one failing task must not swallow the rest of the batch
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+      }
+    }
+  }
+
+  private void drive() {
+    long tickNanos = tickMillis * 1_000_000L;
+    long nextTick = System.nanoTime() + tickNanos;
+
+    while(running) {
+      long wait = nextTick - System.nanoTime();
+      if(wait > 0) {
+        LockSupport.parkNanos(this, wait);
+        continue;
+      }
+      advance();
+      nextTick += tickNanos;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package main.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import main.model.DeciDegrees;
+import main.model.IThermostatModel;
+
+/**
+ * Discrete-event simulator over a set of thermostat zones
+ * Instead of calling updateSystem() on every zone every tick, time jumps straight
+ * to the next tick at which some zone changes state: it settles at its target,
+ * or a scheduled setpoint fires. Zones are brought up to date lazily with
+ * {@link IThermostatModel#advance(long)}, so the cost scales with the number of
+ * transitions rather than zones × ticks
+ *
+ * A tick here means the same as one updateSystem() call; "at tick t" is the state
+ * after t calls. Zone models are only current up to their last event, read them
+ * through {@link #getZone(int)} (or call {@link #syncAll()}) to see the state at
+ * {@link #getTick()}
+ */
+public class EventSimulator {
+
+  /**
+   * Callback for zone transitions
+   * Called on the thread running the simulation, after the zone is up to date
+   */
+  @FunctionalInterface
+  public interface EventListener {
+    // Event kinds
+    int SETPOINT = 1; // a scheduled setpoint was applied
+    int SETTLED = 2;  // the zone reached its target and heating/cooling turned off
+
+    /**
+     * @param tick the tick the event happened at
+     * @param zone the zone index
+     * @param model the zone's model, current as of tick
+     * @param event SETPOINT or SETTLED
+     */
+    void zoneChanged(long tick, int zone, IThermostatModel model, int event);
+  }
+
+  private final List<IThermostatModel> zones = new ArrayList<>();
+  private long[] zoneTicks = new long[16]; // tick each zone model is current to
+  private final ZoneEventQueue settleEvents = new ZoneEventQueue();
+  private final PriorityQueue<Setpoint> setpoints = new PriorityQueue<>();
+  private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+
+  private long tick;
+  private long setpointSequence; // keeps setpoints for the same tick in scheduling order
+
+  /**
+   * Adds a zone to the simulation, starting at the current tick
+   * @param model the zone model, not stepped by anyone else from now on
+   * @return the zone index
+   */
+  public int addZone(IThermostatModel model) {
+    int zone = zones.size();
+    zones.add(model);
+    if(zone == zoneTicks.length) {
+      zoneTicks = Arrays.copyOf(zoneTicks, zone * 2);
+    }
+    zoneTicks[zone] = tick;
+    scheduleSettle(zone);
+    return zone;
+  }
+
+  /**
+   * Schedules a new target temperature for a zone
+   * The value is validated now so a bad entry never surfaces in the middle of a run
+   * @param zone the zone index
+   * @param atTick the tick after which the setpoint applies, not before the current tick
+   * @param temperature the target temperature in Celsius
+   * @throws IllegalArgumentException if the tick is in the past or the temperature invalid
+   */
+  public void scheduleSetpoint(int zone, long atTick, double temperature) {
+    IThermostatModel model = zones.get(zone);
+    if(atTick < tick) {
+      throw new IllegalArgumentException("Setpoint tick " + atTick + " is before the current tick " + tick);
+    }
+    if(temperature < model.getMinTemperature() || temperature > model.getMaxTemperature()
+        || !DeciDegrees.isWholeTenths(temperature)) {
+      throw new IllegalArgumentException("Invalid setpoint for zone " + zone + ": " + temperature);
+    }
+    setpoints.add(new Setpoint(atTick, setpointSequence++, zone, temperature));
+  }
+
+  /**
+   * Runs every event up to and including the given tick, then moves the clock there
+   * @param endTick the tick to run to, not before the current tick
+   * @return the number of events processed
+   */
+  public int runUntil(long endTick) {
+    if(endTick < tick) {
+      throw new IllegalArgumentException("Cannot run backwards from tick " + tick + " to " + endTick);
+    }
+
+    int events = 0;
+    while(true) {
+      long settleTick = settleEvents.peekTick();
+      long setpointTick = setpoints.isEmpty() ? Long.MAX_VALUE : setpoints.peek().tick;
+      long next = Math.min(settleTick, setpointTick);
+      if(next > endTick) {
+        break;
+      }
+
+      tick = next;
+      // a zone that settles and gets a new setpoint at the same tick reports both, settling first
+      if(settleTick == next) {
+        int zone = settleEvents.peekZone();
+        settleEvents.remove(zone);
+        sync(zone);
+        notifyListeners(zone, EventListener.SETTLED);
+      } else {
+        Setpoint setpoint = setpoints.poll();
+        sync(setpoint.zone);
+        zones.get(setpoint.zone).setTargetTemperature(setpoint.temperature);
+        scheduleSettle(setpoint.zone);
+        notifyListeners(setpoint.zone, EventListener.SETPOINT);
+      }
+      events++;
+    }
+
+    tick = endTick;
+    return events;
+  }
+
+  /**
+   * Gets the tick of the next pending event
+   * @return the tick, or -1 if nothing will change any more
+   */
+  public long nextEventTick() {
+    long next = Math.min(settleEvents.peekTick(),
+        setpoints.isEmpty() ? Long.MAX_VALUE : setpoints.peek().tick);
+    return next == Long.MAX_VALUE ? -1 : next;
+  }
+
+  /**
+   * Gets a zone model brought up to the current tick
+   * @param zone the zone index
+   * @return the zone model
+   */
+  public IThermostatModel getZone(int zone) {
+    sync(zone);
+    return zones.get(zone);
+  }
+
+  /**
+   * Brings every zone model up to the current tick
+   */
+  public void syncAll() {
+    for(int zone = 0; zone < zones.size(); zone++) {
+      sync(zone);
+    }
+  }
+
+  public long getTick() {
+    return tick;
+  }
+
+  public int size() {
+    return zones.size();
+  }
+
+  public void addListener(EventListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(EventListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void sync(int zone) {
+    long behind = tick - zoneTicks[zone];
+    if(behind > 0) {
+      zones.get(zone).advance(behind);
+      zoneTicks[zone] = tick;
+    }
+  }
+
+  /**
+   * Works out when a freshly synced zone next goes idle: one step per tick until
+   * it equals the target, then off on the tick after that
+   */
+  private void scheduleSettle(int zone) {
+    IThermostatModel model = zones.get(zone);
+    int steps = Math.abs(model.getTargetTenths() - model.getCurrentTenths()) / DeciDegrees.STEP;
+    if(steps == 0 && !model.isHeating() && !model.isCooling()) {
+      settleEvents.remove(zone);
+    } else {
+      settleEvents.schedule(zone, tick + steps + 1);
+    }
+  }
+
+  private void notifyListeners(int zone, int event) {
+    IThermostatModel model = zones.get(zone);
+    for(EventListener listener : listeners) {
+      listener.zoneChanged(tick, zone, model, event);
+    }
+  }
+
+  private static final class Setpoint implements Comparable<Setpoint> {
+    final long tick;
+    final long sequence;
+    final int zone;
+    final double temperature;
+
+    Setpoint(long tick, long sequence, int zone, double temperature) {
+      this.tick = tick;
+      this.sequence = sequence;
+      this.zone = zone;
+      this.temperature = temperature;
+    }
+
+    @Override
+    public int compareTo(Setpoint other) {
+      int byTick = Long.compare(tick, other.tick);
+      return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package main.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap holding at most one pending tick per zone
+ * Each zone's entry can be moved or removed in O(log n) without searching for it
+ */
+final class ZoneEventQueue {
+
+  private int[] heap = new int[16];     // zone ids in heap order
+  private int[] position = new int[16]; // index of each zone in heap, -1 if absent
+  private long[] ticks = new long[16];  // pending tick per zone
+  private int size;
+
+  ZoneEventQueue() {
+    Arrays.fill(position, -1);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Gets the zone with the earliest tick
+   */
+  int peekZone() {
+    return heap[0];
+  }
+
+  /**
+   * Gets the earliest tick, Long.MAX_VALUE if empty
+   */
+  long peekTick() {
+    return size == 0 ? Long.MAX_VALUE : ticks[heap[0]];
+  }
+
+  /**
+   * Sets (or moves) the pending tick of a zone
+   */
+  void schedule(int zone, long tick) {
+    ensureZone(zone);
+    if(position[zone] < 0) {
+      heap[size] = zone;
+      position[zone] = size;
+      ticks[zone] = tick;
+      siftUp(size++);
+      return;
+    }
+
+    long old = ticks[zone];
+    ticks[zone] = tick;
+    if(tick < old) {
+      siftUp(position[zone]);
+    } else {
+      siftDown(position[zone]);
+    }
+  }
+
+  /**
+   * Removes the pending tick of a zone, if any
+   */
+  void remove(int zone) {
+    if(zone >= position.length || position[zone] < 0) {
+      return;
+    }
+    int index = position[zone];
+    int last = heap[--size];
+    position[zone] = -1;
+    if(index == size) {
+      return;
+    }
+    heap[index] = last;
+    position[last] = index;
+    siftDown(index);
+    siftUp(position[last]);
+  }
+
+  private void ensureZone(int zone) {
+    if(zone < position.length) {
+      return;
+    }
+    int capacity = Math.max(zone + 1, position.length * 2);
+    int oldLength = position.length;
+    heap = Arrays.copyOf(heap, capacity);
+    ticks = Arrays.copyOf(ticks, capacity);
+    position = Arrays.copyOf(position, capacity);
+    Arrays.fill(position, oldLength, capacity, -1);
+  }
+
+  private void siftUp(int index) {
+    int zone = heap[index];
+    while(index > 0) {
+      int parent = (index - 1) >>> 1;
+      if(ticks[heap[parent]] <= ticks[zone]) {
+        break;
+      }
+      move(heap[parent], index);
+      index = parent;
+    }
+    move(zone, index);
+  }
+
+  private void siftDown(int index) {
+    int zone = heap[index];
+    while(true) {
+      int child = 2 * index + 1;
+      if(child >= size) {
+        break;
+      }
+      if(child + 1 < size && ticks[heap[child + 1]] < ticks[heap[child]]) {
+        child++;
+      }
+      if(ticks[heap[child]] >= ticks[zone]) {
+        break;
+      }
+      move(heap[child], index);
+      index = child;
+    }
+    move(zone, index);
+  }
+
+  private void move(int zone, int index) {
+    heap[index] = zone;
+    position[zone] = index;
+  }
+}
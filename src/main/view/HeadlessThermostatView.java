@@ -0,0 +1,187 @@
+package main.view;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.PrintStream;
+import main.model.DeciDegrees;
+
+/**
+ * View without a window, for servers, load tests and java.awt.headless=true
+ * Display updates are kept in a small ring of packed longs (temperatures in tenths plus
+ * the two flags), so thousands of views fit in a JVM; only AWT's event classes are used,
+ * no component, toolkit or font is ever loaded
+ *
+ * Input comes from {@link #submit(String)} instead of a text field. Optionally every
+ * changed display and every message is also written as one line to a log stream
+ *
+ * Not thread-safe: call it from the thread that drives the controller
+ */
+public class HeadlessThermostatView implements IThermostatView {
+
+  private static final ActionListener[] NO_LISTENERS = new ActionListener[0];
+
+  // Packed display update layout, as in ConcurrentThermostatModel
+  private static final int TARGET_SHIFT = 16;
+  private static final long HEATING_BIT = 1L << 32;
+  private static final long COOLING_BIT = 1L << 33;
+
+  private final long[] updates; // ring, capacity is a power of two
+  private long updateCount;
+  private final PrintStream log; // may be null
+
+  private ActionListener[] listeners = NO_LISTENERS;
+  private String input = "";
+
+  private String lastMessage;
+  private boolean lastMessageError;
+  private long messageCount;
+
+  private boolean visible;
+
+  /**
+   * Creates a view that keeps the last few display updates in memory
+   * @param historySize how many updates to keep, rounded up to a power of two
+   */
+  public HeadlessThermostatView(int historySize) {
+    this(historySize, null);
+  }
+
+  /**
+   * Creates a view that also logs every changed display and every message
+   * @param historySize how many updates to keep, rounded up to a power of two
+   * @param log where to write one line per change, or null for none
+   */
+  public HeadlessThermostatView(int historySize, PrintStream log) {
+    if(historySize < 1 || historySize > 1 << 20) {
+      throw new IllegalArgumentException("History size must be between 1 and 2^20. Provided: " + historySize);
+    }
+    int capacity = Integer.highestOneBit(historySize);
+    this.updates = new long[capacity < historySize ? capacity << 1 : capacity];
+    this.log = log;
+  }
+
+  /**
+   * Types a temperature and presses "Set", i.e., notifies every listener
+   * @param text the input, as a user would type it
+   */
+  public void submit(String text) {
+    input = text;
+    ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, "set");
+    for(ActionListener listener : listeners) {
+      listener.actionPerformed(event);
+    }
+  }
+
+  @Override
+  public void addListener(ActionListener listener) {
+    ActionListener[] grown = new ActionListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, grown, 0, listeners.length);
+    grown[listeners.length] = listener;
+    listeners = grown;
+  }
+
+  @Override
+  public String getInput() {
+    return input.trim();
+  }
+
+  @Override
+  public void clearInput() {
+    input = "";
+  }
+
+  @Override
+  public void showMessage(String message, boolean isError) {
+    lastMessage = message;
+    lastMessageError = isError;
+    messageCount++;
+    if(log != null) {
+      log.println((isError ? "[error] " : "[info] ") + message);
+    }
+  }
+
+  @Override
+  public void updateDisplay(double currentTemp, double targetTemp, boolean isHeating, boolean isCooling) {
+    long update = (DeciDegrees.fromCelsius(currentTemp) & 0xFFFFL)
+        | (DeciDegrees.fromCelsius(targetTemp) & 0xFFFFL) << TARGET_SHIFT
+        | (isHeating ? HEATING_BIT : 0) | (isCooling ? COOLING_BIT : 0);
+    boolean changed = updateCount == 0 || update != updates[(int) (updateCount - 1) & (updates.length - 1)];
+    updates[(int) updateCount & (updates.length - 1)] = update;
+    updateCount++;
+
+    if(log != null && changed) {
+      log.println(currentTemp + "°C -> " + targetTemp + "°C"
+          + (isHeating ? " heating" : isCooling ? " cooling" : " idle"));
+    }
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    this.visible = visible;
+  }
+
+  public boolean isVisible() {
+    return visible;
+  }
+
+  /**
+   * Gets the number of display updates so far, including the ones no longer kept
+   * @return the update count
+   */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  /**
+   * Gets how many of the most recent updates are kept
+   * @return the number of updates {@link #getCurrentTenths(int)} and friends accept
+   */
+  public int getHistorySize() {
+    return (int) Math.min(updateCount, updates.length);
+  }
+
+  /**
+   * Gets the current temperature of a recent update
+   * @param age 0 for the latest update, 1 for the one before, up to getHistorySize() - 1
+   * @return the temperature in tenths of a degree
+   */
+  public int getCurrentTenths(int age) {
+    return (short) update(age);
+  }
+
+  /**
+   * Gets the target temperature of a recent update
+   * @param age 0 for the latest update, 1 for the one before, up to getHistorySize() - 1
+   * @return the temperature in tenths of a degree
+   */
+  public int getTargetTenths(int age) {
+    return (short) (update(age) >>> TARGET_SHIFT);
+  }
+
+  public boolean isHeating(int age) {
+    return (update(age) & HEATING_BIT) != 0;
+  }
+
+  public boolean isCooling(int age) {
+    return (update(age) & COOLING_BIT) != 0;
+  }
+
+  public String getLastMessage() {
+    return lastMessage;
+  }
+
+  public boolean isLastMessageError() {
+    return lastMessageError;
+  }
+
+  public long getMessageCount() {
+    return messageCount;
+  }
+
+  private long update(int age) {
+    if(age < 0 || age >= getHistorySize()) {
+      throw new IndexOutOfBoundsException("Update " + age + " not kept, " + getHistorySize() + " are");
+    }
+    return updates[(int) (updateCount - 1 - age) & (updates.length - 1)];
+  }
+}
@@ -0,0 +1,481 @@
+package main.view;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.TitledBorder;
+import main.scheduler.TimingWheelScheduler;
+import main.view.utils.StyleConfig;
+import main.view.utils.StyleConfig.Colors;
+import main.view.utils.StyleConfig.Fonts;
+import main.view.utils.TemperatureText;
+
+/**
+ * Content of the thermostat window: temperature display, controls and messages
+ * Only lightweight components, so it can be built and driven without a display;
+ * {@link ThermostatView} puts it in a frame
+ *
+ * The control and message panels can be added later (fast start): listeners and a message
+ * given before that are held back and handed over once the components exist
+ */
+public class ThermostatPanel extends JPanel implements IThermostatView {
+  private static final int PADDING = 10;
+
+  // Temperature unit
+  private static final String DEGREE_SYMBOL = "°C";
+
+  // Status texts
+  private static final String STATUS_HEATING = "Status: Heating";
+  private static final String STATUS_COOLING = "Status: Cooling";
+  private static final String STATUS_IDLE = "Status: Idle";
+
+  // Message display duration
+  private static final int MESSAGE_TIMEOUT_MS = 3000;
+
+  // Precomputed display text for the model's range; values outside of it are still shown,
+  // just formatted on the fly
+  private final TemperatureText temperatureText;
+  private final TimingWheelScheduler scheduler; // clears messages
+  private final Runnable onFirstPaint; // may be null
+
+  // Display components
+  private JLabel currentTempLabel;
+  private JLabel targetTempLabel;
+  private JLabel heatingIndicator;
+  private JLabel coolingIndicator;
+
+  // Controll components
+  private JLabel statusLabel;
+  private JTextField tempInputField; // input components
+  private JButton setTempButton;
+
+  // Feedback components
+  private JLabel messageLabel;
+  private TimingWheelScheduler.Timeout messageTimer; // Store timer reference to cancel if needed
+
+  // Held back until the controls exist
+  private boolean painted = false;
+  private final List<ActionListener> pendingListeners = new ArrayList<>(1);
+  private String pendingMessage;
+  private boolean pendingMessageError;
+
+  // Last rendered state, so updateDisplay only touches components that change
+  private String renderedCurrentTemp;
+  private String renderedTargetTemp;
+  private String renderedStatus;
+  private boolean heatingShown = false; // indicators start inactive
+  private boolean coolingShown = false;
+
+  /**
+   * Builds the display, and the controls unless they are added later
+   * @param minTemperature the lowest temperature of the model, in Celsius
+   * @param maxTemperature the highest temperature of the model, in Celsius
+   * @param controls true to build the control and message panels now, false for {@link #addControls()}
+   * @param scheduler clears messages after a few seconds, on the EDT
+   * @param onFirstPaint runs on the EDT when the temperatures have first been painted, may be null
+   */
+  public ThermostatPanel(double minTemperature, double maxTemperature, boolean controls,
+      TimingWheelScheduler scheduler, Runnable onFirstPaint) {
+    super(new BorderLayout(PADDING, PADDING));
+    this.temperatureText = new TemperatureText(minTemperature, maxTemperature);
+    this.scheduler = scheduler;
+    this.onFirstPaint = onFirstPaint;
+    setBorder(new EmptyBorder(PADDING, PADDING, PADDING, PADDING));
+
+    createDisplayComponents();
+    // top panel - temperature display
+    add(createDisplayPanel(), BorderLayout.NORTH);
+    if(controls) {
+      addControls();
+    }
+  }
+
+  /**
+   * Adds the control and message panels, then attaches the listeners and shows the message
+   * given so far; does nothing if they are there already
+   */
+  public void addControls() {
+    if(setTempButton != null) {
+      return;
+    }
+    createControlComponents();
+
+    // center panel - controls
+    add(createControlPanel(), BorderLayout.CENTER);
+
+    // bottom panel - message
+    add(createMessagePanel(), BorderLayout.SOUTH);
+  }
+
+  /**
+   * Checks whether the control and message panels are there
+   * @return true once they were built
+   */
+  public boolean hasControls() {
+    return setTempButton != null;
+  }
+
+  /**
+   * Creates the temperature display components
+   * Called once during construction
+   */
+  private void createDisplayComponents() {
+    this.currentTempLabel = createDisplayLabel("--.-", StyleConfig.Fonts.TEMP_CURRENT_FONT);
+    this.targetTempLabel = createDisplayLabel("--.-", StyleConfig.Fonts.TEMP_TARGET_FONT);
+    this.heatingIndicator = createStatusLabel("HEAT", Fonts.INDICATOR_FONT, StyleConfig.Colors.INDICATOR_INACTIVE_COLOR, StyleConfig.Colors.INDICATOR_INACTIVE_TEXT);
+    this.coolingIndicator = createStatusLabel("COOL", Fonts.INDICATOR_FONT, StyleConfig.Colors.INDICATOR_INACTIVE_COLOR, StyleConfig.Colors.INDICATOR_INACTIVE_TEXT);
+  }
+
+  /**
+   * Creates the control and message components
+   * Called during construction, or after the first paint in fast-start mode
+   */
+  private void createControlComponents() {
+    // control components
+    this.statusLabel = createDisplayLabel(renderedStatus != null ? renderedStatus : "Idle", Fonts.STATUS_FONT);
+    this.tempInputField = createTextField(5, Fonts.INPUT_FONT, "Enter temperature in Celsius");
+    this.setTempButton = createButton("Set Temperature", Fonts.BUTTON_FONT,"Click to set the target temperature");
+
+    // feedback components
+    this.messageLabel = createMessageLabel(Fonts.MESSAGE_FONT, Colors.MESSAGE_INFO_COLOR);
+
+    // whatever the controller did before the components existed
+    for(ActionListener listener : pendingListeners) {
+      setTempButton.addActionListener(listener);
+    }
+    pendingListeners.clear();
+    if(pendingMessage != null) {
+      showMessage(pendingMessage, pendingMessageError);
+      pendingMessage = null;
+    }
+  }
+
+  /**
+   * Creates a label to display something
+   * @param text the initial text
+   * @param font the font to use
+   * @return configured JLabel
+   */
+  private JLabel createDisplayLabel(String text, Font font) {
+    JLabel label = new JLabel(text);
+    label.setFont(font);
+
+    return label;
+  }
+
+  /**
+   * Creates a status label with specified text and color
+   * @param text the indicator text (e.g., "HEAT", "COOL")
+   * @param font the font to use
+   * @param bgColor the background color
+   * @param textColor the foreground color
+   * @return configured JLabel
+   */
+  private JLabel createStatusLabel(String text, Font font, Color bgColor, Color textColor) {
+    JLabel label = new JLabel(text);
+    label.setOpaque(true);
+    label.setBackground(bgColor);
+    label.setForeground(textColor);
+    label.setFont(font);
+    label.setBorder(BorderFactory.createCompoundBorder(
+        BorderFactory.createLineBorder(Color.GRAY),
+        new EmptyBorder(2, 5, 2, 5)
+    ));
+
+    return label;
+  }
+
+  /**
+   * Creates a styled text field
+   * @param columns the number of columns for the text field
+   * @param font the font to use
+   * @param tip the tip text
+   * @return a configured JTextField
+   */
+  private JTextField createTextField(int columns, Font font, String tip) {
+    JTextField field = new JTextField(columns);
+    field.setFont(font);
+    field.setToolTipText(tip);
+
+    return field;
+  }
+
+  /**
+   * Creates a styled button
+   * @param text the button text
+   * @param font the font to use
+   * @param tip the tip text
+   * @return a configured JButton
+   */
+  private JButton createButton(String text, Font font, String tip) {
+    JButton button = new JButton(text);
+    button.setFont(font);
+    button.setToolTipText(tip);
+
+    return button;
+  }
+
+  /**
+   * Creates a styled message label
+   * @param font the font to use
+   * @param textColor
+   * @return a configured JLabel for messages
+   */
+  private JLabel createMessageLabel(Font font, Color textColor) {
+    JLabel label = new JLabel(" "); // space to maintain consistent height
+    label.setFont(font);
+    label.setForeground(textColor);
+
+    return label;
+  }
+
+  /**
+   * Creates the temperature display panel.
+   * This panel shows current temperature, target temperature, and heating and cooling indicators
+   * @return JPanel configured for temperature display
+   */
+  private JPanel createDisplayPanel() {
+    JPanel panel = new JPanel(new GridBagLayout()) {
+      @Override
+      protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if(!painted) {
+          painted = true;
+          if(onFirstPaint != null) {
+            onFirstPaint.run();
+          }
+        }
+      }
+    };
+    panel.setBorder(new TitledBorder("Temperature Display"));
+
+    GridBagConstraints gbc = new GridBagConstraints();
+    gbc.insets = new Insets(5, 5, 5, 5);
+
+    // current temperature row
+    gbc.gridx = 0; gbc.gridy = 0;
+    panel.add(new JLabel("Current:"), gbc);
+
+    gbc.gridx = 1;
+    panel.add(currentTempLabel, gbc);
+
+    gbc.gridx = 2;
+    panel.add(new JLabel(DEGREE_SYMBOL), gbc);
+
+    // target temperature row
+    gbc.gridx = 0; gbc.gridy = 1;
+    panel.add(new JLabel("Target:"), gbc);
+
+    gbc.gridx = 1;
+    panel.add(targetTempLabel, gbc);
+
+    gbc.gridx = 2;
+    panel.add(new JLabel(DEGREE_SYMBOL), gbc);
+
+    // status indicators
+    gbc.gridx = 3; gbc.gridy = 0;
+    gbc.gridheight = 2; // span both rows
+    gbc.insets = new Insets(5, 20, 5, 5);  // extra left padding
+    panel.add(createStatusIndicatorPanel(), gbc);
+
+    return panel;
+  }
+
+  /**
+   * Creates the panel containing heating and cooling indicators.
+   * @return JPanel with both status indicators
+   */
+  private JPanel createStatusIndicatorPanel() {
+    JPanel panel = new JPanel(new FlowLayout());
+    panel.add(heatingIndicator);
+    panel.add(coolingIndicator);
+    return panel;
+  }
+
+  /**
+   * Creates the temperature control panel.
+   * This panel contains system status, input field and button for setting target temperature
+   * @return JPanel configured for temperature control
+   */
+  private JPanel createControlPanel() {
+    JPanel panel = new JPanel(new GridBagLayout());
+    panel.setBorder(new TitledBorder("Temperature Control"));
+
+    GridBagConstraints gbc = new GridBagConstraints();
+    gbc.insets = new Insets(5, 5, 5, 5);
+
+    // status label
+    gbc.gridx = 0; gbc.gridy = 0;
+    gbc.gridwidth = 3;
+    panel.add(statusLabel, gbc);
+
+    // input controls row
+    gbc.gridy = 1;
+    gbc.gridwidth = 1;
+    panel.add(new JLabel("Set Temperature:"), gbc);
+
+    gbc.gridx = 1;
+    gbc.fill = GridBagConstraints.HORIZONTAL;
+    panel.add(tempInputField, gbc);
+
+    gbc.gridx = 2;
+    gbc.fill = GridBagConstraints.NONE;
+    panel.add(setTempButton, gbc);
+
+    return panel;
+  }
+
+  /**
+   * Creates the message panel for displaying feedback to the user.
+   * Messages can be informational or error messages.
+   * @return JPanel configured for message display
+   */
+  private JPanel createMessagePanel() {
+    JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+    panel.add(messageLabel);
+
+    return panel;
+  }
+
+
+  @Override
+  public void addListener(ActionListener listener) {
+    if(setTempButton == null) {
+      pendingListeners.add(listener); // fast start, attached once the button exists
+      return;
+    }
+    setTempButton.addActionListener(listener);
+  }
+
+  @Override
+  public String getInput() {
+    if(tempInputField == null) {
+      return "";
+    }
+    return this.tempInputField.getText().trim();
+  }
+
+  @Override
+  public void clearInput() {
+    if(tempInputField == null) {
+      return;
+    }
+    this.tempInputField.setText("");
+    this.tempInputField.requestFocus();
+  }
+
+  @Override
+  public void updateDisplay(double currentTemp, double targetTemp, boolean isHeating,
+      boolean isCooling) {
+
+    updateTemperature(currentTemp, targetTemp);
+
+    updateStatus(isHeating, isCooling);
+
+    updateIndicator(heatingIndicator, isHeating, heatingShown, Colors.INDICATOR_ACTIVE_COLOR_HEATING);
+    updateIndicator(coolingIndicator, isCooling, coolingShown, Colors.INDICATOR_ACTIVE_COLOR_COOLING);
+    heatingShown = isHeating;
+    coolingShown = isCooling;
+  }
+
+  /**
+   * Update temperature displays
+   * Texts come from a shared table, so an unchanged value is the same String instance
+   * and the label is left alone
+   * @param currentTemp the current temperature reading in degrees Celsius
+   * @param targetTemp the target temperature setting in degrees Celsius
+   */
+  private void updateTemperature(double currentTemp, double targetTemp) {
+    String currentText = temperatureText.format(currentTemp);
+    if(!currentText.equals(renderedCurrentTemp)) {
+      this.currentTempLabel.setText(currentText);
+      renderedCurrentTemp = currentText;
+    }
+
+    String targetText = temperatureText.format(targetTemp);
+    if(!targetText.equals(renderedTargetTemp)) {
+      this.targetTempLabel.setText(targetText);
+      renderedTargetTemp = targetText;
+    }
+  }
+
+  /**
+   * // Update status text
+   * @param isHeating true if the heating system is currently active, false otherwise
+   * @param isCooling true if the cooling system is currently active, false otherwise
+   */
+  private void updateStatus(boolean isHeating, boolean isCooling) {
+    String status;
+    if(isHeating) {
+      status = STATUS_HEATING;
+    } else if (isCooling) {
+      status = STATUS_COOLING;
+    } else {
+      status = STATUS_IDLE;
+    }
+
+    if(status != renderedStatus) { // always one of the constants above
+      if(statusLabel != null) {
+        statusLabel.setText(status);
+      }
+      renderedStatus = status;
+    }
+  }
+
+  /**
+   * Update indicators
+   * @param indicator the indicator to update
+   * @param active true if indicator should show active state
+   * @param wasActive true if the indicator currently shows active state
+   * @param activeColor the color to use when active
+   */
+  private void updateIndicator(JLabel indicator, boolean active, boolean wasActive,
+      Color activeColor) {
+    if(active == wasActive) {
+      return; // colors already right
+    }
+
+    if(active) {
+      indicator.setBackground(activeColor);
+      indicator.setForeground(Colors.INDICATOR_ACTIVE_TEXT);
+    } else {
+      indicator.setBackground(Colors.INDICATOR_INACTIVE_COLOR);
+      indicator.setForeground(Colors.INDICATOR_INACTIVE_TEXT);
+    }
+  }
+
+  @Override
+  public void showMessage(String message, boolean isError) {
+    if(messageLabel == null) {
+      // fast start, shown once the message panel exists
+      pendingMessage = message;
+      pendingMessageError = isError;
+      return;
+    }
+
+    // cancel any existing timer
+    if (messageTimer != null) {
+      messageTimer.cancel();
+    }
+
+    messageLabel.setText(message);
+    messageLabel.setForeground(isError ? Colors.MESSAGE_ERROR_COLOR : Colors.MESSAGE_INFO_COLOR);
+
+    // clear message after 3 seconds
+    messageTimer = scheduler.schedule(() -> messageLabel.setText(" "), MESSAGE_TIMEOUT_MS);
+  }
+}
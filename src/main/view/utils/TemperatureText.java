@@ -0,0 +1,46 @@
+package main.view.utils;
+
+import java.util.Locale;
+import main.model.DeciDegrees;
+
+/**
+ * Precomputed display strings for temperatures in 0.1°C steps
+ * Every value of the range is formatted once up front, so displaying a temperature
+ * inside the range is an array lookup instead of a String.format call
+ */
+public final class TemperatureText {
+
+  private final int minTenths;
+  private final String[] table;
+
+  /**
+   * Builds the string table for every 0.1°C step between min and max (inclusive)
+   * @param minTemperature the lowest temperature in Celsius
+   * @param maxTemperature the highest temperature in Celsius
+   */
+  public TemperatureText(double minTemperature, double maxTemperature) {
+    this.minTenths = DeciDegrees.fromCelsius(minTemperature);
+    int maxTenths = DeciDegrees.fromCelsius(maxTemperature);
+
+    this.table = new String[maxTenths - minTenths + 1];
+    for(int i = 0; i < table.length; i++) {
+      table[i] = String.format(Locale.US, "%.1f", DeciDegrees.toCelsius(minTenths + i));
+    }
+  }
+
+  /**
+   * Formats a temperature with one decimal place, e.g. "20.5"
+   * @param temperature the temperature in Celsius
+   * @return the display text; a shared string when the value is a 0.1°C step inside the range
+   */
+  public String format(double temperature) {
+    int tenths = DeciDegrees.fromCelsius(temperature);
+    int index = tenths - minTenths;
+
+    // only exact 0.1 steps come from the table, anything else is formatted as before
+    if(index >= 0 && index < table.length && DeciDegrees.toCelsius(tenths) == temperature) {
+      return table[index];
+    }
+    return String.format(Locale.US, "%.1f", temperature);
+  }
+}
@@ -0,0 +1,50 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import main.StartupReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for StartupReport.
+ * Checks the CSV lines appended to a report file.
+ */
+class StartupReportTest {
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Test a new file gets the header once and every start appends one line in header order
+   */
+  @Test
+  void testAppendsCsvLines() throws IOException {
+    Path file = directory.resolve("startup.csv");
+    Instant time = Instant.parse("2026-01-02T03:04:05Z");
+
+    StartupReport.append(file, StartupReport.line(time, "fast", true, 412, 1873));
+    StartupReport.append(file, StartupReport.line(time, "headless", false, 80, 843));
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(List.of(
+        "time,mode,cds,firstPaintMillis,classesLoaded",
+        "2026-01-02T03:04:05Z,fast,true,412,1873",
+        "2026-01-02T03:04:05Z,headless,false,80,843"), lines);
+  }
+
+  /**
+   * Test a report that cannot be written does not stop the start
+   */
+  @Test
+  void testUnwritableFileIsIgnored() {
+    Path file = directory.resolve("missing").resolve("startup.csv");
+    assertDoesNotThrow(() -> StartupReport.append(file, "line"));
+    assertFalse(Files.exists(file));
+  }
+}
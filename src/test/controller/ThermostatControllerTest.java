@@ -6,6 +6,8 @@ import java.awt.event.ActionListener;
 import main.controller.IThermostatController;
 import main.controller.ThermostatController;
 import main.model.IThermostatModel;
+import main.model.ThermostatModel;
+import main.scheduler.TimingWheelScheduler;
 import main.view.IThermostatView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,12 +34,15 @@ public class ThermostatControllerTest {
   private ThermostatController controller;
   private MockThermostatModel mockModel;
   private MockThermostatView mockView;
+  private TimingWheelScheduler scheduler;
 
   @BeforeEach
   void setUp(){
+    // driven by hand, never started, so only the ticks a test makes happen
+    scheduler = new TimingWheelScheduler(10, Runnable::run);
     mockModel = new MockThermostatModel();
     mockView = new MockThermostatView();
-    controller = new ThermostatController(mockModel, mockView);
+    controller = new ThermostatController(mockModel, mockView, scheduler);
     controller.run();
   }
 
@@ -132,6 +137,108 @@ public class ThermostatControllerTest {
     assertEquals(25.0, mockModel.getLastSetTargetTemperature());
   }
 
+  @Test
+  void testScientificNotationRejected() {
+    // Double.parseDouble would read these as 10.0 and NaN
+    mockView.setUserInput("1e1");
+    mockView.simulateButtonClick();
+    assertEquals("Please enter a valid number", mockView.getLastShownMessage());
+
+    mockView.setUserInput("NaN");
+    mockView.simulateButtonClick();
+    assertEquals("Please enter a valid number", mockView.getLastShownMessage());
+    assertFalse(mockModel.wasSetTargetTemperatureCalled());
+  }
+
+  @Test
+  void testTooPreciseRejectedBeforeModel() {
+    // set up the test scenario
+    mockView.setUserInput("20,15");
+    mockView.simulateButtonClick();
+
+    // check what happened
+    assertFalse(mockModel.wasSetTargetTemperatureCalled());
+    assertEquals("Temperature must be in 0.1°C increments (e.g., 20.0, 20.1, 20.2)",
+        mockView.getLastShownMessage());
+    assertTrue(mockView.wasLastMessageAnError());
+  }
+
+  // Change notification tests
+  @Test
+  void testPollingModelRefreshesViewEveryTick() {
+    // the mock model does not publish changes, so the controller has to poll
+    int before = mockView.getUpdateDisplayCount();
+    controller.tick();
+    controller.tick();
+
+    assertEquals(before + 2, mockView.getUpdateDisplayCount());
+  }
+
+  @Test
+  void testPushingModelOnlyRefreshesViewOnChange() {
+    // set up the test scenario with a real model that publishes its changes
+    ThermostatModel model = new ThermostatModel();
+    MockThermostatView view = new MockThermostatView();
+    ThermostatController pushController = new ThermostatController(model, view, scheduler);
+    pushController.run();
+    int afterRun = view.getUpdateDisplayCount();
+
+    // idle at target - nothing changes, nothing is pushed
+    pushController.tick();
+    pushController.tick();
+    assertEquals(afterRun, view.getUpdateDisplayCount());
+
+    // new target - pushed right away, then once per heating step
+    model.setTargetTemperature(20.2);
+    assertEquals(afterRun + 1, view.getUpdateDisplayCount());
+    pushController.tick();
+    pushController.tick();
+    assertEquals(afterRun + 3, view.getUpdateDisplayCount());
+    assertEquals(20.2, view.getLastDisplayedCurrentTemp());
+  }
+
+  @Test
+  void testPushedChangeOnlyReadsWhatChanged() {
+    // set up the test scenario with a model that counts the reads of its state
+    int[] targetReads = new int[1];
+    int[] heatingReads = new int[1];
+    ThermostatModel model = new ThermostatModel() {
+      @Override
+      public double getTargetTemperature() {
+        targetReads[0]++;
+        return super.getTargetTemperature();
+      }
+
+      @Override
+      public boolean isHeating() {
+        heatingReads[0]++;
+        return super.isHeating();
+      }
+    };
+    MockThermostatView view = new MockThermostatView();
+    ThermostatController pushController = new ThermostatController(model, view, scheduler);
+    pushController.run();
+    model.setTargetTemperature(21.0);
+
+    // first step starts heating, the next ones only move the temperature
+    pushController.tick();
+    int targetReadsAfterStart = targetReads[0];
+    int heatingReadsAfterStart = heatingReads[0];
+    pushController.tick();
+    pushController.tick();
+
+    assertEquals(targetReadsAfterStart, targetReads[0]);
+    assertEquals(heatingReadsAfterStart, heatingReads[0]);
+    assertEquals(20.3, view.getLastDisplayedCurrentTemp());
+
+    // arriving stops heating: read, and reported
+    for(int i = 0; i < 8; i++) {
+      pushController.tick();
+    }
+    assertTrue(heatingReads[0] > heatingReadsAfterStart);
+    assertEquals("Heating complete", view.getLastShownMessage());
+  }
+
   // Test doubles as inner classes
   public class MockThermostatModel implements IThermostatModel {
 
@@ -217,6 +324,8 @@ public class ThermostatControllerTest {
     private String lastShownMessage;
     private boolean lastMessageWasError;
     private boolean clearInputCalled = false;
+    private int updateDisplayCount = 0;
+    private double lastDisplayedCurrentTemp;
 
     @Override
     public void clearInput() {
@@ -240,11 +349,12 @@ public class ThermostatControllerTest {
       this.lastMessageWasError = isError;
     }
 
-    // These methods are NOT used by actionPerformed
+    // Not called during button click, only counted for the change notification tests
     @Override
     public void updateDisplay(double currentTemp, double targetTemp, boolean isHeating,
         boolean isCooling) {
-      // Empty - not called during button click
+      updateDisplayCount++;
+      lastDisplayedCurrentTemp = currentTemp;
     }
 
     @Override
@@ -277,5 +387,13 @@ public class ThermostatControllerTest {
     boolean wasClearInputCalled() {
       return clearInputCalled;
     }
+
+    int getUpdateDisplayCount() {
+      return updateDisplayCount;
+    }
+
+    double getLastDisplayedCurrentTemp() {
+      return lastDisplayedCurrentTemp;
+    }
   }
 }
@@ -0,0 +1,135 @@
+package test.energy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+import main.energy.EnergyMeter;
+import main.model.ParallelTickEngine;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for EnergyMeter.
+ * Runtimes fed by transitions must equal counting every zone's state after every tick.
+ */
+class EnergyMeterTest {
+
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * Test a single model heats for exactly the ticks it reports heating
+   */
+  @Test
+  void testSingleModel() {
+    ThermostatModel model = new ThermostatModel();
+    EnergyMeter meter = new EnergyMeter(1, 1000, 2.0, 1.0);
+    assertTrue(meter.observe(0, model));
+
+    model.setTargetTemperature(21.0); // 10 steps up from 20.0
+    int heated = 0;
+    for(int tick = 0; tick < 15; tick++) {
+      model.updateSystem();
+      meter.tick();
+      if(model.isHeating()) {
+        heated++;
+      }
+      assertEquals(heated, meter.getHeatingSeconds(0), EPSILON);
+    }
+    assertEquals(10, heated);
+    assertEquals(0, meter.getCoolingSeconds(0), EPSILON);
+    assertEquals(10 * 2.0 / 3600, meter.getKwh(0), EPSILON);
+    assertEquals(meter.getKwh(0), meter.getFleetKwh(), EPSILON);
+  }
+
+  /**
+   * Test zone, building and fleet totals match per-tick counting, with the fleet stepped in parallel
+   */
+  @Test
+  void testFleetMatchesCounting() {
+    int zones = 20_000;
+    int[] buildings = new int[zones];
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    for(int zone = 0; zone < zones; zone++) {
+      buildings[zone] = zone % 7;
+      fleet.setTargetTemperature(zone, 15.0 + (zone % 101) / 10.0);
+    }
+    EnergyMeter meter = new EnergyMeter(buildings, 1000, 1.5, 2.5);
+    meter.observe(fleet);
+
+    long[] heated = new long[zones];
+    long[] cooled = new long[zones];
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelTickEngine engine = new ParallelTickEngine(fleet, pool);
+      engine.addListener(tick -> meter.tick());
+      for(int tick = 0; tick < 120; tick++) {
+        if(tick == 40) {
+          // turn some zones around mid-run
+          for(int zone = 0; zone < zones; zone += 3) {
+            fleet.setTargetTemperature(zone, 30.0 - (zone % 50) / 10.0);
+          }
+        }
+        engine.tick();
+        for(int zone = 0; zone < zones; zone++) {
+          heated[zone] += fleet.isHeating(zone) ? 1 : 0;
+          cooled[zone] += fleet.isCooling(zone) ? 1 : 0;
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    double[] buildingHeating = new double[7];
+    double[] buildingCooling = new double[7];
+    for(int zone = 0; zone < zones; zone++) {
+      assertEquals(heated[zone], meter.getHeatingSeconds(zone), EPSILON, "zone " + zone);
+      assertEquals(cooled[zone], meter.getCoolingSeconds(zone), EPSILON, "zone " + zone);
+      buildingHeating[buildings[zone]] += heated[zone];
+      buildingCooling[buildings[zone]] += cooled[zone];
+    }
+    double fleetKwh = 0;
+    for(int building = 0; building < 7; building++) {
+      assertEquals(buildingHeating[building], meter.getBuildingHeatingSeconds(building), EPSILON);
+      assertEquals(buildingCooling[building], meter.getBuildingCoolingSeconds(building), EPSILON);
+      fleetKwh += (buildingHeating[building] * 1.5 + buildingCooling[building] * 2.5) / 3600;
+    }
+    assertEquals(7, meter.getBuildingCount());
+    assertEquals(fleetKwh, meter.getFleetKwh(), 1e-6);
+    assertEquals(120, meter.getTickCount());
+  }
+
+  /**
+   * Test the hourly and daily buckets roll over and hold only their own hour or day
+   */
+  @Test
+  void testRollingBuckets() {
+    EnergyMeter meter = new EnergyMeter(new int[] {0, 1}, 60_000, 3.0, 3.0); // one tick per minute
+    meter.transition(0, true, false);
+    for(int minute = 0; minute < 90; minute++) {
+      meter.tick();
+    }
+    meter.transition(0, false, false); // off after 90 minutes
+
+    assertEquals(1.5, meter.getHourlyKwh(0, 0), EPSILON); // 30 minutes at 3 kW
+    assertEquals(3.0, meter.getHourlyKwh(0, 1), EPSILON);
+    assertEquals(0, meter.getHourlyKwh(0, 2), EPSILON);
+    assertEquals(0, meter.getHourlyKwh(1, 1), EPSILON);
+
+    meter.transition(1, false, true);
+    for(int minute = 90; minute < 25 * 60; minute++) {
+      meter.tick();
+    }
+    // building 1 cooled from minute 90 on: the rest of hour 1, then all day
+    assertEquals(3.0, meter.getHourlyKwh(1, 1), EPSILON);
+    assertEquals(0, meter.getHourlyKwh(1, 0), EPSILON); // hour 25 just started
+    assertEquals(4.5, meter.getDailyKwh(0, 1), EPSILON);
+    assertEquals((24 * 60 - 90) * 3.0 / 60, meter.getDailyKwh(1, 1), EPSILON);
+    assertEquals(3.0, meter.getDailyKwh(1, 0), EPSILON);
+    assertEquals(4.5 + (24 * 60 - 90) * 3.0 / 60, meter.getFleetDailyKwh(1), EPSILON);
+    assertEquals(3.0, meter.getFleetHourlyKwh(1), EPSILON);
+
+    assertThrows(IllegalArgumentException.class, () -> meter.getHourlyKwh(0, EnergyMeter.HOURS));
+    assertThrows(IllegalArgumentException.class, () -> new EnergyMeter(1, 7_000, 1.0, 1.0));
+  }
+}
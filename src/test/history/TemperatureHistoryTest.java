@@ -0,0 +1,108 @@
+package test.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import main.history.HistorySeries;
+import main.history.TemperatureHistory;
+import main.model.ThermostatModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TemperatureHistory.
+ * Covers ring buffer wrap-around, range queries and LTTB downsampling.
+ */
+class TemperatureHistoryTest {
+
+  private TemperatureHistory history;
+
+  @BeforeEach
+  void setUp() {
+    history = new TemperatureHistory(2, 1000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    history.close();
+  }
+
+  /**
+   * Test samples recorded from a model come back unchanged
+   */
+  @Test
+  void testRecordFromModel() {
+    ThermostatModel model = new ThermostatModel();
+    model.setTargetTemperature(21.0);
+    for(int t = 0; t < 5; t++) {
+      model.updateSystem();
+      history.record(0, t, model);
+    }
+
+    HistorySeries series = history.query(0, 0, 4, 10);
+    assertEquals(5, series.size());
+    assertEquals(20.1, series.getCurrentTemperature(0));
+    assertEquals(20.5, series.getCurrentTemperature(4));
+    assertEquals(21.0, series.getTargetTemperature(4));
+    assertTrue(series.isHeating(4));
+    assertFalse(series.isCooling(4));
+
+    // the other zone is untouched
+    assertEquals(0, history.size(1));
+  }
+
+  /**
+   * Test the ring keeps only the newest samples and range queries respect both ends
+   */
+  @Test
+  void testWrapAroundAndRange() {
+    for(int t = 0; t < 2500; t++) {
+      history.record(1, t * 1000L, 200, 200, false, false);
+    }
+
+    assertEquals(1000, history.size(1));
+    HistorySeries all = history.query(1, Long.MIN_VALUE, Long.MAX_VALUE, 5000);
+    assertEquals(1000, all.size());
+    assertEquals(1_500_000L, all.getTimestamp(0));
+    assertEquals(2_499_000L, all.getTimestamp(999));
+
+    HistorySeries range = history.query(1, 2_000_000L, 2_009_500L, 5000);
+    assertEquals(10, range.size());
+    assertEquals(2_000_000L, range.getTimestamp(0));
+    assertEquals(2_009_000L, range.getTimestamp(9));
+  }
+
+  /**
+   * Test LTTB keeps the end points and the extremes of the curve
+   */
+  @Test
+  void testDownsamplingKeepsShape() {
+    // flat at 20.0 with one spike up to 30.0 and one dip down to 12.0
+    for(int t = 0; t < 1000; t++) {
+      int tenths = 200;
+      if(t == 300) {
+        tenths = 300;
+      } else if(t == 700) {
+        tenths = 120;
+      }
+      history.record(0, t, tenths, 200, false, false);
+    }
+
+    HistorySeries series = history.query(0, 0, 999, 50);
+    assertEquals(50, series.size());
+    assertEquals(0, series.getTimestamp(0));
+    assertEquals(999, series.getTimestamp(49));
+
+    boolean spike = false;
+    boolean dip = false;
+    for(int i = 0; i < series.size(); i++) {
+      spike |= series.getCurrentTemperature(i) == 30.0;
+      dip |= series.getCurrentTemperature(i) == 12.0;
+      if(i > 0) {
+        assertTrue(series.getTimestamp(i) > series.getTimestamp(i - 1));
+      }
+    }
+    assertTrue(spike);
+    assertTrue(dip);
+  }
+}
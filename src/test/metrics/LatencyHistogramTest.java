@@ -0,0 +1,110 @@
+package test.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import main.controller.ThermostatController;
+import main.metrics.LatencyHistogram;
+import main.metrics.ThermostatMetrics;
+import main.model.ThermostatModel;
+import main.scheduler.TimingWheelScheduler;
+import main.view.HeadlessThermostatView;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for LatencyHistogram and ThermostatMetrics.
+ * Percentiles must be upper bounds within the bucket error of the exact values.
+ */
+class LatencyHistogramTest {
+
+  /**
+   * Test percentiles against the exact values of a wide spread of durations
+   */
+  @Test
+  void testPercentilesWithinBucketError() {
+    Random random = new Random(42);
+    long[] values = new long[100_000];
+    LatencyHistogram histogram = new LatencyHistogram();
+    for(int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 20); // 1 ns to about 0.5 s
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for(double percentile : new double[] {0, 10, 50, 90, 99, 99.9, 100}) {
+      long exact = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+      long reported = histogram.getPercentileNanos(percentile);
+      assertTrue(reported >= exact, percentile + ": " + reported + " < " + exact);
+      assertTrue(reported <= exact + exact / 32, percentile + ": " + reported + " vs " + exact);
+    }
+    assertEquals(values.length, histogram.getCount());
+    assertEquals(values[values.length - 1] / 1000.0, histogram.getMaxMicros());
+    assertEquals(Arrays.stream(values).sum() / 1000.0 / values.length, histogram.getMeanMicros(), 1e-6);
+
+    assertEquals(0, new LatencyHistogram().getPercentileNanos(99));
+    assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+  }
+
+  /**
+   * Test records from several threads are all counted
+   */
+  @Test
+  void testConcurrentRecords() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for(int t = 0; t < threads.length; t++) {
+      int offset = t;
+      threads[t] = new Thread(() -> {
+        for(int i = 0; i < 100_000; i++) {
+          histogram.record(i * 4 + offset);
+        }
+      });
+      threads[t].start();
+    }
+    for(Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(400_000, histogram.getCount());
+    assertEquals(399_999 / 1000.0, histogram.getMaxMicros());
+  }
+
+  /**
+   * Test a controller records its ticks and the histograms are readable over JMX
+   */
+  @Test
+  void testControllerMetricsOverJmx() throws Exception {
+    TimingWheelScheduler scheduler = new TimingWheelScheduler(10, Runnable::run);
+    ThermostatMetrics metrics = new ThermostatMetrics();
+    ThermostatModel model = new ThermostatModel();
+    model.setTargetTemperature(20.5); // moves every tick, so every tick refreshes the view
+    ThermostatController controller = new ThermostatController(model,
+        new HeadlessThermostatView(8, null), scheduler, metrics);
+    controller.run();
+    for(int i = 0; i < 3 * 100 + 1; i++) {
+      scheduler.advance(); // three timer ticks
+    }
+    controller.tick(); // not driven by the timer, not timed, neither is its refresh
+
+    assertEquals(3, metrics.getTickDuration().getCount());
+    assertEquals(3, metrics.getTimerJitter().getCount());
+    assertEquals(3, metrics.getRenderTime().getCount());
+    assertEquals(3, scheduler.getQueueDelay().getCount());
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    metrics.register(scheduler);
+    try {
+      assertEquals(3L, server.getAttribute(ThermostatMetrics.objectName("TickDuration"), "Count"));
+      assertEquals(3L, server.getAttribute(ThermostatMetrics.objectName("QueueDelay"), "Count"));
+      double p99 = (Double) server.getAttribute(ThermostatMetrics.objectName("TimerJitter"), "P99Micros");
+      assertTrue(p99 >= 0);
+    } finally {
+      for(ObjectName name : server.queryNames(ThermostatMetrics.objectName("*"), null)) {
+        server.unregisterMBean(name);
+      }
+    }
+  }
+}
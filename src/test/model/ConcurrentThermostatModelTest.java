@@ -0,0 +1,123 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import main.model.ConcurrentThermostatModel;
+import main.model.IThermostatModel.ChangeListener;
+import main.model.ThermostatModel;
+import main.model.ThermostatSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ConcurrentThermostatModel.
+ * Behaviour must match ThermostatModel; snapshots must never mix two states.
+ */
+class ConcurrentThermostatModelTest {
+
+  private ConcurrentThermostatModel model;
+
+  @BeforeEach
+  void setUp() {
+    model = new ConcurrentThermostatModel();
+  }
+
+  /**
+   * Test stepping matches ThermostatModel tick by tick
+   */
+  @Test
+  void testMatchesThermostatModel() {
+    ThermostatModel reference = new ThermostatModel();
+    double[] targets = {22.5, 18.0, 18.0, 35.0, 10.0, 20.0};
+    for(double target : targets) {
+      model.setTargetTemperature(target);
+      reference.setTargetTemperature(target);
+      for(int tick = 0; tick < 60; tick++) {
+        model.updateSystem();
+        reference.updateSystem();
+        assertEquals(reference.getCurrentTenths(), model.getCurrentTenths());
+        assertEquals(reference.isHeating(), model.isHeating());
+        assertEquals(reference.isCooling(), model.isCooling());
+      }
+    }
+  }
+
+  /**
+   * Test advance() lands on the same state and returns the same value as ThermostatModel
+   */
+  @Test
+  void testAdvanceMatchesThermostatModel() {
+    ThermostatModel reference = new ThermostatModel();
+    model.setTargetTemperature(25.0);
+    reference.setTargetTemperature(25.0);
+    assertEquals(reference.advance(0), model.advance(0));
+    assertEquals(reference.advance(20), model.advance(20));
+    assertEquals(reference.getCurrentTenths(), model.getCurrentTenths());
+    assertTrue(model.isHeating());
+    assertEquals(reference.advance(100), model.advance(100));
+    assertEquals(250, model.getCurrentTenths());
+    assertFalse(model.isHeating());
+    assertThrows(IllegalArgumentException.class, () -> model.advance(-1));
+  }
+
+  /**
+   * Test invalid targets are rejected with the usual message and leave the state alone
+   */
+  @Test
+  void testInvalidTargetRejected() {
+    assertThrows(IllegalArgumentException.class, () -> model.setTargetTemperature(50.0));
+    assertThrows(IllegalArgumentException.class, () -> model.setTargetTemperature(20.05));
+    assertEquals(200, model.getTargetTenths());
+  }
+
+  /**
+   * Test listeners get the same change masks as with ThermostatModel
+   */
+  @Test
+  void testListenerMasks() {
+    AtomicInteger mask = new AtomicInteger();
+    ChangeListener listener = changeMask -> mask.set(changeMask);
+    model.addChangeListener(listener);
+
+    model.setTargetTemperature(20.2);
+    assertEquals(ChangeListener.TARGET_TEMPERATURE, mask.get());
+    model.updateSystem();
+    assertEquals(ChangeListener.CURRENT_TEMPERATURE | ChangeListener.HEATING, mask.get());
+
+    mask.set(0);
+    model.removeChangeListener(listener);
+    model.updateSystem();
+    assertEquals(0, mask.get());
+  }
+
+  /**
+   * Test readers never see a torn state while another thread ticks and retargets
+   */
+  @Test
+  void testSnapshotsAreConsistent() throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread writer = new Thread(() -> {
+      int i = 0;
+      while(running.get()) {
+        model.setTargetTemperature((i++ & 1) == 0 ? 19.8 : 20.2);
+        model.updateSystem();
+        model.updateSystem();
+        model.updateSystem();
+      }
+    });
+    writer.start();
+
+    try {
+      for(int i = 0; i < 200_000; i++) {
+        ThermostatSnapshot s = model.snapshot();
+        assertFalse(s.isHeating() && s.isCooling());
+        assertTrue(s.getCurrentTenths() >= 198 && s.getCurrentTenths() <= 202, s::toString);
+      }
+    } finally {
+      running.set(false);
+      writer.join();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import main.model.IThermostatModel;
+import main.model.ParallelTickEngine;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ParallelTickEngine.
+ * Parallel ticks must give the same result as stepping every zone on one thread.
+ */
+class ParallelTickEngineTest {
+
+  private static final int ZONES = 100_000;
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Test a parallel fleet tick matches a serial fleet tick
+   */
+  @Test
+  void testFleetMatchesSerial() {
+    ThermostatFleet parallel = new ThermostatFleet(ZONES);
+    ThermostatFleet serial = new ThermostatFleet(ZONES);
+    for(int i = 0; i < ZONES; i++) {
+      double target = 10.0 + (i % 251) / 10.0;
+      parallel.setTargetTemperature(i, target);
+      serial.setTargetTemperature(i, target);
+    }
+
+    ParallelTickEngine engine = new ParallelTickEngine(parallel, pool);
+    for(int tick = 0; tick < 20; tick++) {
+      engine.tick();
+      serial.updateSystem();
+    }
+
+    for(int i = 0; i < ZONES; i++) {
+      assertEquals(serial.getCurrentTemperature(i), parallel.getCurrentTemperature(i));
+      assertEquals(serial.isHeating(i), parallel.isHeating(i));
+      assertEquals(serial.isCooling(i), parallel.isCooling(i));
+    }
+  }
+
+  /**
+   * Test listeners only run once every model has finished the tick
+   */
+  @Test
+  void testListenersSeeCompletedTick() {
+    List<IThermostatModel> models = new ArrayList<>();
+    for(int i = 0; i < 10_000; i++) {
+      IThermostatModel model = new ThermostatModel();
+      model.setTargetTemperature(35.0);
+      models.add(model);
+    }
+
+    ParallelTickEngine engine = new ParallelTickEngine(models, pool);
+    List<Long> seen = new ArrayList<>();
+    engine.addListener(tick -> {
+      for(IThermostatModel model : models) {
+        assertEquals(20.0 + tick * 0.1, model.getCurrentTemperature(), 0.001);
+      }
+      seen.add(tick);
+    });
+
+    engine.tick();
+    engine.tick();
+
+    assertEquals(List.of(1L, 2L), seen);
+    assertEquals(2, engine.getTickCount());
+  }
+}
@@ -0,0 +1,68 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import main.model.IThermostatModel;
+import main.model.SetpointResults;
+import main.model.Setpoints;
+import main.model.ThermostatModel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for Setpoints.
+ * Bulk validation must accept and reject exactly what setTargetTemperature does.
+ */
+class SetpointsTest {
+
+  /**
+   * Test the result codes for each kind of input
+   */
+  @Test
+  void testCheck() {
+    assertEquals(Setpoints.ACCEPTED, Setpoints.check(10.0, 10.0, 35.0));
+    assertEquals(Setpoints.ACCEPTED, Setpoints.check(35.0, 10.0, 35.0));
+    assertEquals(Setpoints.BELOW_MIN, Setpoints.check(9.9, 10.0, 35.0));
+    assertEquals(Setpoints.ABOVE_MAX, Setpoints.check(35.1, 10.0, 35.0));
+    assertEquals(Setpoints.NOT_TENTHS, Setpoints.check(20.55, 10.0, 35.0));
+    assertEquals(Setpoints.NOT_TENTHS, Setpoints.check(Double.NaN, 10.0, 35.0));
+  }
+
+  /**
+   * Test the on-demand messages are the ones setTargetTemperature throws with
+   */
+  @Test
+  void testMessagesMatchExceptions() {
+    double[] inputs = {9.9, 35.1, 20.55};
+    for(double input : inputs) {
+      IThermostatModel model = new ThermostatModel();
+      IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+          () -> model.setTargetTemperature(input));
+
+      int code = Setpoints.check(input, model.getMinTemperature(), model.getMaxTemperature());
+      assertEquals(thrown.getMessage(),
+          Setpoints.describe(code, input, model.getMinTemperature(), model.getMaxTemperature()));
+    }
+  }
+
+  /**
+   * Test valid entries are applied and invalid ones skipped, without throwing
+   */
+  @Test
+  void testApplyTargets() {
+    List<IThermostatModel> models = List.of(new ThermostatModel(), new ThermostatModel(),
+        new ThermostatModel());
+
+    SetpointResults results = Setpoints.applyTargets(models, new double[] {22.5, 50.0, 18.0});
+
+    assertEquals(1, results.getFailureCount());
+    assertTrue(results.isAccepted(0));
+    assertEquals(Setpoints.ABOVE_MAX, results.getCode(1));
+    assertNull(results.getMessage(0));
+    assertTrue(results.getMessage(1).contains("50.0"));
+
+    assertEquals(22.5, models.get(0).getTargetTemperature());
+    assertEquals(20.0, models.get(1).getTargetTemperature());
+    assertEquals(18.0, models.get(2).getTargetTemperature());
+  }
+}
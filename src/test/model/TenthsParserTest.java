@@ -0,0 +1,99 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import main.model.TenthsParser;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TenthsParser.
+ * Every case is checked on both the text and the byte buffer path.
+ */
+class TenthsParserTest {
+
+  /**
+   * Test the accepted formats, including both decimal separators
+   */
+  @Test
+  void testValidInput() {
+    assertParses(200, "20");
+    assertParses(205, "20.5");
+    assertParses(205, "20,5");
+    assertParses(250, "   25.0   ");
+    assertParses(215, "21.50");
+    assertParses(200, "20.");
+    assertParses(5, ".5");
+    assertParses(-30, "-3.0");
+    assertParses(355, "+35.5");
+  }
+
+  /**
+   * Test leading zeros do not count against the digit limit, significant digits still do
+   */
+  @Test
+  void testLeadingZeros() {
+    assertParses(10, "000000001");
+    assertParses(205, "0020.5");
+    assertParses(-5, "-0000000000.5");
+    assertParses(0, "0000000000");
+    assertParses(999_999_990, "0099999999");
+    assertParses(TenthsParser.NOT_A_NUMBER, "0100000000");
+  }
+
+  /**
+   * Test inputs Double.parseDouble would take are not numbers here
+   */
+  @Test
+  void testNotANumber() {
+    String[] inputs = {"", "   ", "abc", "1e1", "NaN", "Infinity", "0x10", "20d", "20f",
+        "20.5.1", "20,5,", "-", ".", "+-5", "20 5", "123456789", "20.15x"};
+    for(String input : inputs) {
+      assertParses(TenthsParser.NOT_A_NUMBER, input);
+    }
+    assertEquals(TenthsParser.NOT_A_NUMBER, TenthsParser.parse(null));
+  }
+
+  /**
+   * Test digits past the first decimal are only allowed when they are zeros
+   */
+  @Test
+  void testTooPrecise() {
+    assertParses(TenthsParser.TOO_PRECISE, "20.15");
+    assertParses(TenthsParser.TOO_PRECISE, "20,05");
+    assertParses(TenthsParser.TOO_PRECISE, "20.001");
+    assertTrue(TenthsParser.isError(TenthsParser.TOO_PRECISE));
+    assertFalse(TenthsParser.isError(-30));
+  }
+
+  /**
+   * Test a range inside a longer buffer, leaving position and limit untouched
+   */
+  @Test
+  void testBufferRange() {
+    ByteBuffer buffer = ByteBuffer.wrap("SET 7 22,5\n".getBytes(StandardCharsets.US_ASCII));
+
+    assertEquals(225, TenthsParser.parse(buffer, 6, 11));
+    assertEquals(0, buffer.position());
+    assertEquals(225, TenthsParser.parse("SET 7 22,5\n", 6, 11));
+  }
+
+  /**
+   * Test bytes above 0x7F are not taken for whitespace, they are not part of a number
+   */
+  @Test
+  void testNonAsciiBytes() {
+    byte[] bytes = {'2', '0', (byte) 0xFF};
+    assertEquals(TenthsParser.NOT_A_NUMBER, TenthsParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length));
+    bytes = new byte[] {(byte) 0xA0, '2', '0'};
+    assertEquals(TenthsParser.NOT_A_NUMBER, TenthsParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length));
+    assertEquals(TenthsParser.NOT_A_NUMBER, TenthsParser.parse("20\u00FF"));
+  }
+
+  private static void assertParses(int expected, String input) {
+    assertEquals(expected, TenthsParser.parse(input), input);
+    byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+    assertEquals(expected, TenthsParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length), input);
+  }
+}
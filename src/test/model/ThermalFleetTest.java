@@ -0,0 +1,101 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+import main.model.IThermalPhysics;
+import main.model.IThermostatModel;
+import main.model.ThermalFleet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ThermalFleet and its physics strategies.
+ * The vector physics must match the scalar physics bit for bit.
+ */
+class ThermalFleetTest {
+
+  /**
+   * Test a zone heats up to its target and then holds it against the cold outside
+   */
+  @Test
+  void testHeatsAndHoldsTarget() {
+    ThermalFleet fleet = new ThermalFleet(1, IThermalPhysics.scalar());
+    fleet.setOutdoorTemperature(0.0);
+    IThermostatModel zone = fleet.zone(0);
+    zone.setTargetTemperature(21.0);
+
+    zone.updateSystem();
+    assertTrue(zone.isHeating());
+
+    for(int tick = 0; tick < 1_000; tick++) {
+      zone.updateSystem();
+    }
+    // heat is lost all the time, the heating keeps cutting in to hold the target
+    assertEquals(21.0, zone.getCurrentTemperature());
+  }
+
+  /**
+   * Test an idle zone drifts towards the outdoor temperature
+   */
+  @Test
+  void testIdleZoneDriftsOutdoors() {
+    ThermalFleet fleet = new ThermalFleet(1, IThermalPhysics.scalar());
+    fleet.setHvacRate(0, 0.0);
+    fleet.setLossCoefficient(0, 0.01);
+    fleet.setOutdoorTemperature(30.0);
+
+    fleet.updateSystem();
+    assertEquals(20.1f, fleet.getExactTemperature(0), 1e-5);
+    for(int tick = 0; tick < 2_000; tick++) {
+      fleet.updateSystem();
+    }
+    assertEquals(30.0, fleet.getCurrentTemperature(0));
+    assertThrows(IllegalArgumentException.class, () -> fleet.setLossCoefficient(0, 1.5));
+  }
+
+  /**
+   * Test the vector physics gives identical results to the scalar physics,
+   * including zone counts that do not fill the last vector
+   */
+  @Test
+  void testVectorMatchesScalar() {
+    IThermalPhysics vector;
+    try {
+      vector = IThermalPhysics.vector();
+    } catch (UnsupportedOperationException e) {
+      assumeTrue(false, "Vector API module not present");
+      return;
+    }
+
+    int zones = 1_003;
+    ThermalFleet scalarFleet = new ThermalFleet(zones, IThermalPhysics.scalar());
+    ThermalFleet vectorFleet = new ThermalFleet(zones, vector);
+    Random random = new Random(13);
+    for(int zone = 0; zone < zones; zone++) {
+      double target = (100 + random.nextInt(251)) / 10.0;
+      double loss = random.nextDouble() * 0.01;
+      double hvac = random.nextDouble() * 0.3;
+      for(ThermalFleet fleet : new ThermalFleet[] {scalarFleet, vectorFleet}) {
+        fleet.setTargetTemperature(zone, target);
+        fleet.setLossCoefficient(zone, loss);
+        fleet.setHvacRate(zone, hvac);
+      }
+    }
+
+    for(int tick = 0; tick < 500; tick++) {
+      double outdoor = -10.0 + tick / 10.0;
+      scalarFleet.setOutdoorTemperature(outdoor);
+      vectorFleet.setOutdoorTemperature(outdoor);
+      scalarFleet.updateSystem();
+      vectorFleet.updateSystem();
+    }
+
+    for(int zone = 0; zone < zones; zone++) {
+      assertEquals(Float.floatToIntBits(scalarFleet.getExactTemperature(zone)),
+          Float.floatToIntBits(vectorFleet.getExactTemperature(zone)), "zone " + zone);
+      assertEquals(scalarFleet.isHeating(zone), vectorFleet.isHeating(zone));
+      assertEquals(scalarFleet.isCooling(zone), vectorFleet.isCooling(zone));
+    }
+  }
+}
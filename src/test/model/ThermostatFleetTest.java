@@ -0,0 +1,203 @@
+package test.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import main.model.IThermostatModel;
+import main.model.SetpointResults;
+import main.model.Setpoints;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ThermostatFleet.
+ * The fleet must behave exactly like one ThermostatModel per zone.
+ */
+class ThermostatFleetTest {
+
+  private ThermostatFleet fleet;
+
+  @BeforeEach
+  void setUp() {
+    fleet = new ThermostatFleet(3);
+  }
+
+  /**
+   * Tests that every zone starts with the same defaults as ThermostatModel
+   */
+  @Test
+  void testInitialState() {
+    for(int i = 0; i < fleet.size(); i++) {
+      assertEquals(20.0, fleet.getCurrentTemperature(i), 0.01);
+      assertEquals(20.0, fleet.getTargetTemperature(i), 0.01);
+      assertFalse(fleet.isHeating(i));
+      assertFalse(fleet.isCooling(i));
+    }
+  }
+
+  /**
+   * Test zones heat, cool and idle independently in one tick
+   */
+  @Test
+  void testZonesStepIndependently() {
+    fleet.setTargetTemperature(0, 21.0);
+    fleet.setTargetTemperature(1, 19.0);
+    fleet.updateSystem();
+
+    assertTrue(fleet.isHeating(0));
+    assertTrue(fleet.isCooling(1));
+    assertFalse(fleet.isHeating(2) || fleet.isCooling(2));
+  }
+
+  /**
+   * Test the fleet matches ThermostatModel step by step, bit for bit
+   */
+  @Test
+  void testMatchesThermostatModel() {
+    IThermostatModel reference = new ThermostatModel();
+    reference.setTargetTemperature(23.4);
+    fleet.setTargetTemperature(0, 23.4);
+
+    for(int tick = 0; tick < 50; tick++) {
+      reference.updateSystem();
+      fleet.updateSystem();
+
+      assertEquals(reference.getCurrentTemperature(), fleet.getCurrentTemperature(0));
+      assertEquals(reference.isHeating(), fleet.isHeating(0));
+      assertEquals(reference.isCooling(), fleet.isCooling(0));
+    }
+  }
+
+  /**
+   * Test a year of ticks in one call lands where stepping would
+   */
+  @Test
+  void testAdvance() {
+    fleet.setTargetTemperature(0, 35.0);
+    fleet.setTargetTemperature(1, 19.0);
+
+    fleet.advance(100);
+    assertEquals(30.0, fleet.getCurrentTemperature(0));
+    assertTrue(fleet.isHeating(0));
+    assertEquals(19.0, fleet.getCurrentTemperature(1));
+    assertFalse(fleet.isCooling(1));
+
+    assertEquals(50, fleet.zone(0).advance(365L * 24 * 3600));
+    assertEquals(35.0, fleet.getCurrentTemperature(0));
+    assertFalse(fleet.isHeating(0));
+  }
+
+  /**
+   * Test a zone view reads and writes the fleet arrays and only steps its own zone
+   */
+  @Test
+  void testZoneView() {
+    IThermostatModel zone = fleet.zone(1);
+    zone.setTargetTemperature(25.0);
+    zone.updateSystem();
+
+    assertEquals(25.0, fleet.getTargetTemperature(1));
+    assertTrue(fleet.isHeating(1));
+    assertFalse(fleet.isHeating(0));
+    assertEquals(20.0, fleet.getCurrentTemperature(0));
+
+    assertThrows(IndexOutOfBoundsException.class, () -> fleet.zone(3));
+  }
+
+  /**
+   * Test zone listeners are only notified about their own zone
+   */
+  @Test
+  void testZoneChangeNotification() {
+    int[] calls = {0};
+    assertTrue(fleet.zone(1).addChangeListener(mask -> calls[0]++));
+
+    fleet.updateSystem();
+    assertEquals(0, calls[0]);
+
+    fleet.setTargetTemperature(0, 25.0);
+    fleet.updateSystem();
+    assertEquals(0, calls[0]);
+
+    fleet.setTargetTemperature(1, 25.0);
+    fleet.updateSystem();
+    assertEquals(2, calls[0]);
+  }
+
+  /**
+   * Test only zones with work to do are stepped, and they leave once idle at target
+   */
+  @Test
+  void testActiveSet() {
+    // large enough that a few active zones are stepped through the active set
+    ThermostatFleet sparse = new ThermostatFleet(100);
+    IThermostatModel reference = new ThermostatModel();
+    reference.setTargetTemperature(20.3);
+    assertEquals(0, sparse.getActiveCount());
+
+    sparse.setTargetTemperature(2, 20.2);
+    sparse.setTargetTemperature(50, 20.3);
+    sparse.setTargetTemperature(2, 20.3); // already a member
+    assertEquals(2, sparse.getActiveCount());
+
+    // 3 steps to the target, the 4th turns heating off
+    for(int tick = 0; tick < 4; tick++) {
+      sparse.updateSystem();
+      reference.updateSystem();
+      assertEquals(reference.getCurrentTenths(), sparse.getCurrentTenths(2));
+      assertEquals(reference.isHeating(), sparse.isHeating(2));
+      assertEquals(tick < 3 ? 2 : 0, sparse.getActiveCount());
+    }
+    assertFalse(sparse.isHeating(2));
+    assertEquals(0, sparse.getActiveCount());
+    assertEquals(20.3, sparse.getCurrentTemperature(2));
+
+    // a restored zone that is still heating re-enters the set
+    sparse.restoreState(0, 200, 200, true, false);
+    assertEquals(1, sparse.getActiveCount());
+    sparse.updateSystem();
+    assertFalse(sparse.isHeating(0));
+    assertEquals(0, sparse.getActiveCount());
+  }
+
+  /**
+   * Test restoring fails once a transition listener follows the fleet, and leaves the zone as it was
+   */
+  @Test
+  void testRestoreRefusedWithTransitionListener() {
+    fleet.restoreState(1, 180, 200, true, false);
+    fleet.addTransitionListener((zone, heating, cooling) -> { });
+
+    assertThrows(IllegalStateException.class, () -> fleet.restoreState(0, 250, 200, false, true));
+    assertEquals(20.0, fleet.getCurrentTemperature(0));
+    assertFalse(fleet.isCooling(0));
+    assertTrue(fleet.isHeating(1));
+  }
+
+  /**
+   * Test the fleet applies the same validation as ThermostatModel
+   */
+  @Test
+  void testValidation() {
+    assertThrows(IllegalArgumentException.class, () -> fleet.setTargetTemperature(0, 9.9));
+    assertThrows(IllegalArgumentException.class, () -> fleet.setTargetTemperature(0, 20.15));
+    assertEquals(20.0, fleet.getTargetTemperature(0));
+  }
+
+  /**
+   * Test a bulk apply skips bad entries and activates the zones it changed
+   */
+  @Test
+  void testApplyTargets() {
+    SetpointResults results = fleet.applyTargets(new int[] {0, 1, 2},
+        new double[] {25.0, 20.15, 9.0});
+
+    assertEquals(2, results.getFailureCount());
+    assertEquals(Setpoints.NOT_TENTHS, results.getCode(1));
+    assertEquals(Setpoints.BELOW_MIN, results.getCode(2));
+    assertEquals(25.0, fleet.getTargetTemperature(0));
+    assertEquals(20.0, fleet.getTargetTemperature(1));
+    assertEquals(1, fleet.getActiveCount());
+  }
+}
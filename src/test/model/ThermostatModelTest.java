@@ -73,6 +73,85 @@ class ThermostatModelTest {
     assertFalse(model.isCooling());
   }
 
+  /**
+   * Test repeated 0.1°C steps land exactly on the target without drift
+   */
+  @Test
+  void testNoDriftAfterManySteps() {
+    model.setTargetTemperature(25.3);
+    for(int i = 0; i < 53; i++) {
+      model.updateSystem();
+    }
+
+    assertEquals(25.3, model.getCurrentTemperature());
+    assertEquals(253, model.getCurrentTenths());
+
+    model.updateSystem();
+    assertFalse(model.isHeating());
+    assertFalse(model.isCooling());
+  }
+
+  /**
+   * Test listeners get a change mask only when something actually changed
+   */
+  @Test
+  void testChangeNotification() {
+    int[] lastMask = {0};
+    int[] calls = {0};
+    assertTrue(model.addChangeListener(mask -> {
+      lastMask[0] = mask;
+      calls[0]++;
+    }));
+
+    // idle at target - no notification
+    model.updateSystem();
+    assertEquals(0, calls[0]);
+
+    model.setTargetTemperature(20.2);
+    assertEquals(IThermostatModel.ChangeListener.TARGET_TEMPERATURE, lastMask[0]);
+
+    // first step turns heating on, second only moves the temperature
+    model.updateSystem();
+    assertEquals(IThermostatModel.ChangeListener.CURRENT_TEMPERATURE
+        | IThermostatModel.ChangeListener.HEATING, lastMask[0]);
+    model.updateSystem();
+    assertEquals(IThermostatModel.ChangeListener.CURRENT_TEMPERATURE, lastMask[0]);
+
+    // at target - heating turns off
+    model.updateSystem();
+    assertEquals(IThermostatModel.ChangeListener.HEATING, lastMask[0]);
+    assertEquals(4, calls[0]);
+  }
+
+  /**
+   * Test advance(n) matches n calls of updateSystem() for every distance and tick count
+   */
+  @Test
+  void testAdvanceMatchesStepping() {
+    double[] targets = {20.0, 20.1, 21.5, 18.3, 35.0, 10.0};
+    for(double target : targets) {
+      for(int ticks = 0; ticks <= 120; ticks++) {
+        IThermostatModel stepped = new ThermostatModel();
+        IThermostatModel advanced = new ThermostatModel();
+        stepped.setTargetTemperature(target);
+        advanced.setTargetTemperature(target);
+
+        long reachedAt = stepped.getCurrentTenths() == stepped.getTargetTenths() ? 0 : -1;
+        for(int t = 1; t <= ticks; t++) {
+          stepped.updateSystem();
+          if(reachedAt < 0 && stepped.getCurrentTenths() == stepped.getTargetTenths()) {
+            reachedAt = t;
+          }
+        }
+
+        assertEquals(reachedAt, advanced.advance(ticks));
+        assertEquals(stepped.getCurrentTemperature(), advanced.getCurrentTemperature());
+        assertEquals(stepped.isHeating(), advanced.isHeating());
+        assertEquals(stepped.isCooling(), advanced.isCooling());
+      }
+    }
+  }
+
   /**
    * Test temperature bounds validation
    */
@@ -0,0 +1,157 @@
+package test.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+import main.persistence.JournalState;
+import main.persistence.StateJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for StateJournal.
+ * Every test writes a journal, closes it and recovers from the files on disk.
+ */
+class StateJournalTest {
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Test an empty or missing journal recovers to the model defaults
+   */
+  @Test
+  void testRecoverEmpty() throws IOException {
+    JournalState state = StateJournal.recover(directory.resolve("missing"), 2);
+
+    assertEquals(200, state.getCurrentTenths(1));
+    assertEquals(200, state.getTargetTenths(1));
+  }
+
+  /**
+   * Test recovery loads the last snapshot and replays the setpoints after it
+   */
+  @Test
+  void testSnapshotThenSetpoints() throws IOException {
+    ThermostatModel model = new ThermostatModel();
+    model.setTargetTemperature(22.0);
+    for(int i = 0; i < 5; i++) {
+      model.updateSystem();
+    }
+
+    try(StateJournal journal = StateJournal.open(directory)) {
+      journal.recordSetpoint(0, 220);
+      journal.snapshot(model);
+      journal.recordSetpoint(0, 180);
+    }
+
+    ThermostatModel restored = new ThermostatModel();
+    StateJournal.recover(directory, 1).applyTo(0, restored);
+
+    assertEquals(20.5, restored.getCurrentTemperature());
+    assertEquals(18.0, restored.getTargetTemperature());
+    assertTrue(restored.isHeating());
+  }
+
+  /**
+   * Test a reopened journal appends after the existing records
+   */
+  @Test
+  void testReopenAppends() throws IOException {
+    try(StateJournal journal = StateJournal.open(directory)) {
+      journal.recordSetpoint(0, 250);
+    }
+    try(StateJournal journal = StateJournal.open(directory)) {
+      journal.recordSetpoint(1, 300);
+      journal.flush();
+    }
+
+    JournalState state = StateJournal.recover(directory, 2);
+    assertEquals(250, state.getTargetTenths(0));
+    assertEquals(300, state.getTargetTenths(1));
+  }
+
+  /**
+   * Test a snapshot from captured state recovers like one taken from the model
+   */
+  @Test
+  void testSnapshotOfCapturedState() throws IOException {
+    try(StateJournal journal = StateJournal.open(directory)) {
+      journal.recordSetpoint(0, 300);
+      journal.snapshot(187, 250, false, true);
+    }
+
+    JournalState state = StateJournal.recover(directory, 1);
+    assertEquals(187, state.getCurrentTenths(0));
+    assertEquals(250, state.getTargetTenths(0));
+    assertFalse(state.isHeating(0));
+    assertTrue(state.isCooling(0));
+  }
+
+  /**
+   * Test a failed writer turns the journal off instead of failing every later record
+   */
+  @Test
+  void testWriterFailureTurnsJournalOff() throws IOException {
+    Path gone = directory.resolve("gone");
+    StateJournal journal = StateJournal.open(gone, 24); // one record per segment
+    journal.recordSetpoint(0, 250);
+    journal.flush();
+    try(Stream<Path> files = Files.list(gone)) {
+      for(Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(gone); // the next segment cannot be created
+
+    journal.recordSetpoint(0, 260);
+    assertThrows(UncheckedIOException.class, journal::flush);
+    assertTrue(journal.isFailed());
+    journal.recordSetpoint(0, 270);
+    journal.snapshot(new ThermostatModel());
+    journal.close();
+  }
+
+  /**
+   * Test snapshots spanning several segments, and that older segments are dropped
+   */
+  @Test
+  void testSegmentsRollAndCompact() throws IOException {
+    ThermostatFleet fleet = new ThermostatFleet(100);
+    for(int zone = 0; zone < fleet.size(); zone++) {
+      fleet.setTargetTemperature(zone, 10.0 + zone / 10.0);
+    }
+    fleet.updateSystem();
+
+    // 10 records per segment, so one snapshot of 100 zones spans 11 segments
+    try(StateJournal journal = StateJournal.open(directory, 240)) {
+      journal.snapshot(fleet);
+      fleet.updateSystem();
+      journal.snapshot(fleet);
+      journal.recordSetpoint(42, 350);
+    }
+
+    assertTrue(segmentCount() <= 12);
+
+    ThermostatFleet restored = new ThermostatFleet(100);
+    StateJournal.recover(directory, 100).applyTo(restored);
+    for(int zone = 0; zone < fleet.size(); zone++) {
+      assertEquals(fleet.getCurrentTenths(zone), restored.getCurrentTenths(zone));
+      assertEquals(fleet.isCooling(zone), restored.isCooling(zone));
+    }
+    assertEquals(35.0, restored.getTargetTemperature(42));
+    assertEquals(11.0, restored.getTargetTemperature(10));
+  }
+
+  private long segmentCount() throws IOException {
+    try(Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package test.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import main.model.DeciDegrees;
+import main.model.ParallelTickEngine;
+import main.model.ThermostatFleet;
+import main.query.FleetAggregates;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FleetAggregates.
+ * Aggregates must equal the statistics computed from a scan over the fleet.
+ */
+class FleetAggregatesTest {
+
+  /**
+   * Test sum, min, max and percentiles match a scan after every tick, with the fleet stepped in parallel
+   */
+  @Test
+  void testAggregatesMatchScan() {
+    int zones = 20_000;
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    Random random = new Random(11);
+    for(int zone = 0; zone < zones; zone += 3) {
+      fleet.setTargetTemperature(zone, 10.0 + random.nextInt(251) / 10.0);
+    }
+    FleetAggregates aggregates = new FleetAggregates(fleet);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelTickEngine engine = new ParallelTickEngine(fleet, pool);
+      engine.addListener(tick -> aggregates.tick());
+      // long enough for heating keys to wrap around the ring several times
+      for(int tick = 0; tick < 1_200; tick++) {
+        if(tick % 90 == 7) {
+          for(int i = 0; i < 2_000; i++) {
+            fleet.setTargetTemperature(random.nextInt(zones), 10.0 + random.nextInt(251) / 10.0);
+          }
+        }
+        if(tick % 20 == 0) {
+          assertMatchesScan(fleet, aggregates);
+        }
+        engine.tick();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertMatchesScan(fleet, aggregates);
+  }
+
+  /**
+   * Test percentile bounds and the nearest-rank definition on a small fleet
+   */
+  @Test
+  void testPercentiles() {
+    ThermostatFleet fleet = new ThermostatFleet(4);
+    fleet.restoreState(0, DeciDegrees.fromCelsius(10.0), DeciDegrees.fromCelsius(10.0), false, false);
+    fleet.restoreState(1, DeciDegrees.fromCelsius(20.0), DeciDegrees.fromCelsius(20.0), false, false);
+    fleet.restoreState(2, DeciDegrees.fromCelsius(21.5), DeciDegrees.fromCelsius(21.5), false, false);
+    fleet.restoreState(3, DeciDegrees.fromCelsius(35.0), DeciDegrees.fromCelsius(35.0), false, false);
+    FleetAggregates aggregates = new FleetAggregates(fleet);
+
+    assertEquals(10.0, aggregates.getMin());
+    assertEquals(35.0, aggregates.getMax());
+    assertEquals(20.0, aggregates.getPercentile(50));
+    assertEquals(21.5, aggregates.getPercentile(50.1));
+    assertEquals(35.0, aggregates.getPercentile(95));
+    assertEquals(21.625, aggregates.getMean(), 1e-9);
+    assertThrows(IllegalArgumentException.class, () -> aggregates.getPercentile(101));
+    assertThrows(IllegalArgumentException.class, () -> aggregates.getPercentile(Double.NaN));
+
+    ThermostatFleet outside = new ThermostatFleet(1);
+    outside.restoreState(0, DeciDegrees.fromCelsius(5.0), DeciDegrees.fromCelsius(10.0), false, false);
+    assertThrows(IllegalArgumentException.class, () -> new FleetAggregates(outside));
+  }
+
+  private static void assertMatchesScan(ThermostatFleet fleet, FleetAggregates aggregates) {
+    int[] currents = new int[fleet.size()];
+    long sum = 0;
+    for(int zone = 0; zone < currents.length; zone++) {
+      currents[zone] = fleet.getCurrentTenths(zone);
+      sum += currents[zone];
+    }
+    Arrays.sort(currents);
+    assertEquals(sum, aggregates.getSumTenths());
+    assertEquals(currents[0], aggregates.getPercentileTenths(0));
+    assertEquals(currents[currents.length - 1], aggregates.getPercentileTenths(100));
+    for(double percentile : new double[] {1, 25, 50, 95, 99.9}) {
+      int rank = (int) Math.ceil(percentile / 100 * currents.length);
+      assertEquals(currents[rank - 1], aggregates.getPercentileTenths(percentile), "p" + percentile);
+    }
+  }
+}
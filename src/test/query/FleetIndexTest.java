@@ -0,0 +1,159 @@
+package test.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import main.model.ParallelTickEngine;
+import main.model.ThermostatFleet;
+import main.query.FleetIndex;
+import main.query.ZoneBitmap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ZoneBitmap and FleetIndex.
+ * Index queries must give exactly the zones a scan over the fleet finds.
+ */
+class FleetIndexTest {
+
+  /**
+   * Test set operations against java.util.BitSet, across array and bitmap chunks
+   */
+  @Test
+  void testBitmapMatchesBitSet() {
+    int universe = 200_000;
+    Random random = new Random(42);
+    ZoneBitmap sparse = new ZoneBitmap(universe);
+    ZoneBitmap dense = new ZoneBitmap(universe);
+    BitSet sparseBits = new BitSet();
+    BitSet denseBits = new BitSet();
+    for(int i = 0; i < 300_000; i++) {
+      int zone = random.nextInt(universe);
+      if(i % 3 == 0) {
+        assertEquals(!sparseBits.get(zone), sparse.add(zone));
+        sparseBits.set(zone);
+      }
+      assertEquals(!denseBits.get(zone), dense.add(zone));
+      denseBits.set(zone);
+    }
+    for(int i = 0; i < 150_000; i++) {
+      int zone = random.nextInt(universe);
+      assertEquals(denseBits.get(zone), dense.remove(zone));
+      denseBits.clear(zone);
+    }
+
+    assertBits(sparseBits, sparse);
+    assertBits(denseBits, dense);
+    BitSet expected = (BitSet) sparseBits.clone();
+    expected.and(denseBits);
+    assertBits(expected, sparse.and(dense));
+    assertBits(expected, dense.and(sparse));
+    expected = (BitSet) sparseBits.clone();
+    expected.or(denseBits);
+    assertBits(expected, sparse.or(dense));
+    expected = (BitSet) denseBits.clone();
+    expected.andNot(sparseBits);
+    assertBits(expected, dense.andNot(sparse));
+    expected = (BitSet) sparseBits.clone();
+    expected.andNot(denseBits);
+    assertBits(expected, sparse.andNot(dense));
+    assertTrue(dense.getSizeInBytes() < universe / 8 + 8192);
+  }
+
+  /**
+   * Test state and deviation queries match a scan after every tick, with the fleet stepped in parallel
+   */
+  @Test
+  void testQueriesMatchScan() {
+    int zones = 70_000; // two chunks
+    ThermostatFleet fleet = new ThermostatFleet(zones);
+    Random random = new Random(7);
+    for(int zone = 0; zone < zones; zone += 2) {
+      fleet.setTargetTemperature(zone, 10.0 + random.nextInt(251) / 10.0);
+    }
+    FleetIndex index = new FleetIndex(fleet);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ParallelTickEngine engine = new ParallelTickEngine(fleet, pool);
+      engine.addListener(tick -> index.tick());
+      for(int tick = 0; tick < 300; tick++) {
+        if(tick % 40 == 5) {
+          // retarget some zones, moving or not
+          for(int i = 0; i < 5_000; i++) {
+            fleet.setTargetTemperature(random.nextInt(zones), 10.0 + random.nextInt(251) / 10.0);
+          }
+        }
+        if(tick % 25 == 0) {
+          assertMatchesScan(fleet, index);
+        }
+        engine.tick();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertMatchesScan(fleet, index);
+    assertThrows(IllegalArgumentException.class, () -> index.offTarget(-1));
+  }
+
+  /**
+   * Test a zone retargeted a few ticks after it arrived, while its arrival bucket still holds it,
+   * is counted once
+   */
+  @Test
+  void testRetargetAfterArrival() {
+    ThermostatFleet fleet = new ThermostatFleet(4);
+    fleet.setTargetTemperature(0, 20.3);
+    FleetIndex index = new FleetIndex(fleet);
+    for(int tick = 0; tick < 5; tick++) { // arrives at tick 3, its bucket is cleared at tick 8
+      fleet.updateSystem();
+      index.tick();
+    }
+    fleet.setTargetTemperature(0, 22.3);
+    assertEquals(1, index.countOffTarget(0));
+    assertEquals(1, index.offTarget(0).cardinality());
+    assertEquals(20, index.getDeviationTenths(0));
+
+    for(int tick = 0; tick < 30; tick++) {
+      fleet.updateSystem();
+      index.tick();
+      assertMatchesScan(fleet, index);
+    }
+    assertEquals(0, index.countOffTarget(0));
+  }
+
+  private static void assertMatchesScan(ThermostatFleet fleet, FleetIndex index) {
+    BitSet heating = new BitSet();
+    BitSet cooling = new BitSet();
+    BitSet idle = new BitSet();
+    BitSet offBy2 = new BitSet();
+    int offBy05 = 0;
+    for(int zone = 0; zone < fleet.size(); zone++) {
+      (fleet.isHeating(zone) ? heating : fleet.isCooling(zone) ? cooling : idle).set(zone);
+      int deviation = Math.abs(fleet.getTargetTenths(zone) - fleet.getCurrentTenths(zone));
+      assertEquals(deviation, index.getDeviationTenths(zone), "zone " + zone);
+      if(deviation > 20) {
+        offBy2.set(zone);
+      }
+      if(deviation > 5) {
+        offBy05++;
+      }
+    }
+    assertBits(heating, index.heating());
+    assertBits(cooling, index.cooling());
+    assertBits(idle, index.idle());
+    assertEquals(heating.cardinality(), index.getHeatingCount());
+    assertBits(offBy2, index.offTarget(2.0));
+    assertEquals(offBy2.cardinality(), index.countOffTarget(2.0));
+    assertEquals(offBy05, index.countOffTarget(0.5));
+    assertEquals(0, index.countOffTarget(30.0));
+    assertEquals(0, index.countOffTarget(Double.POSITIVE_INFINITY));
+    assertTrue(index.offTarget(Double.MAX_VALUE).isEmpty());
+  }
+
+  private static void assertBits(BitSet expected, ZoneBitmap actual) {
+    assertEquals(expected.cardinality(), actual.cardinality());
+    assertArrayEquals(expected.stream().toArray(), actual.toArray());
+  }
+}
@@ -0,0 +1,187 @@
+package test.remote;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import main.model.ConcurrentThermostatModel;
+import main.model.DeciDegrees;
+import main.model.Setpoints;
+import main.remote.ThermostatHttpServer;
+import main.remote.ThermostatProtocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ThermostatHttpServer.
+ * Each test talks to a real server on a free loopback port.
+ */
+class ThermostatHttpServerTest {
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private List<ConcurrentThermostatModel> models;
+  private ThermostatHttpServer server;
+
+  @BeforeEach
+  void setUp() {
+    models = new ArrayList<>();
+    for(int i = 0; i < 3; i++) {
+      models.add(new ConcurrentThermostatModel());
+    }
+    server = new ThermostatHttpServer(models, 0);
+    server.run();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  /**
+   * Test a single zone is served with its current state
+   */
+  @Test
+  void testGetZone() throws Exception {
+    models.get(1).setTargetTemperature(22.5);
+    models.get(1).updateSystem();
+
+    HttpResponse<String> response = get("/zones/1");
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"zone\":1,\"current\":20.1,\"target\":22.5,\"heating\":true,\"cooling\":false}",
+        response.body());
+    assertEquals(404, get("/zones/3").statusCode());
+    assertEquals(404, get("/zones/x").statusCode());
+  }
+
+  /**
+   * Test the whole fleet comes back as one JSON array
+   */
+  @Test
+  void testGetAllZones() throws Exception {
+    models.get(2).setTargetTemperature(18.0);
+    models.get(2).updateSystem();
+
+    HttpResponse<String> response = get("/zones");
+    assertEquals(200, response.statusCode());
+    assertEquals("[{\"zone\":0,\"current\":20.0,\"target\":20.0,\"heating\":false,\"cooling\":false},"
+        + "{\"zone\":1,\"current\":20.0,\"target\":20.0,\"heating\":false,\"cooling\":false},"
+        + "{\"zone\":2,\"current\":19.9,\"target\":18.0,\"heating\":false,\"cooling\":true}]",
+        response.body());
+  }
+
+  /**
+   * Test bulk setpoints are applied line by line with one result code each
+   */
+  @Test
+  void testPostSetpoints() throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(uri("/setpoints"))
+        .POST(HttpRequest.BodyPublishers.ofString("0,22.5\n1, 50\r\n\n7,20\n2,20.05\n2,abc\n1,18,5\n"))
+        .build();
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"accepted\":2,\"rejected\":4,\"codes\":[" + Setpoints.ACCEPTED + ","
+        + Setpoints.ABOVE_MAX + "," + ThermostatProtocol.UNKNOWN_ZONE + "," + Setpoints.NOT_TENTHS + ","
+        + Setpoints.NOT_TENTHS + "," + Setpoints.ACCEPTED + "]}", response.body());
+    assertEquals(225, models.get(0).getTargetTenths());
+    assertEquals(185, models.get(1).getTargetTenths());
+    assertEquals(200, models.get(2).getTargetTenths());
+  }
+
+  /**
+   * Test a zone number followed by a non-ASCII byte is not a zone
+   */
+  @Test
+  void testNonAsciiZoneRejected() throws Exception {
+    byte[] body = {'1', (byte) 0xFF, ',', '2', '1', '.', '0', '\n'};
+    HttpRequest request = HttpRequest.newBuilder(uri("/setpoints"))
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+        .build();
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+    assertEquals("{\"accepted\":0,\"rejected\":1,\"codes\":[" + ThermostatProtocol.UNKNOWN_ZONE + "]}",
+        response.body());
+    assertEquals(DeciDegrees.DEFAULT, models.get(1).getTargetTenths());
+  }
+
+  /**
+   * Test wrong methods are refused
+   */
+  @Test
+  void testWrongMethod() throws Exception {
+    assertEquals(405, get("/setpoints").statusCode());
+  }
+
+  /**
+   * Test many keep-alive connections held open at once each get every request answered
+   */
+  @Test
+  void testKeepAliveConnections() throws IOException {
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    List<Socket> sockets = new ArrayList<>();
+    try {
+      for(int c = 0; c < 200; c++) {
+        sockets.add(new Socket(address.getAddress(), address.getPort()));
+      }
+      for(int round = 0; round < 3; round++) {
+        for(int c = 0; c < sockets.size(); c++) {
+          Socket socket = sockets.get(c);
+          socket.getOutputStream().write(("GET /zones/" + (c % 3) + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+          assertEquals("HTTP/1.1 200 OK", readResponse(socket.getInputStream()));
+        }
+      }
+    } finally {
+      for(Socket socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+
+  /**
+   * Reads one response, headers and Content-Length body
+   * @return the status line
+   */
+  private static String readResponse(InputStream in) throws IOException {
+    String statusLine = readLine(in);
+    long length = -1;
+    for(String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+      if(header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+        length = Long.parseLong(header.substring(15).trim());
+      }
+    }
+    assertTrue(length >= 0, "response without Content-Length");
+    in.skipNBytes(length);
+    return statusLine;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder();
+    for(int b = in.read(); b != '\n'; b = in.read()) {
+      assertTrue(b >= 0, "server closed the connection");
+      if(b != '\r') {
+        line.append((char) b);
+      }
+    }
+    return line.toString();
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + server.getPort() + path);
+  }
+}
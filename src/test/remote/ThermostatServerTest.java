@@ -0,0 +1,163 @@
+package test.remote;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import main.model.Setpoints;
+import main.model.ThermostatFleet;
+import main.model.ThermostatModel;
+import main.remote.ThermostatProtocol;
+import main.remote.ThermostatServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ThermostatServer.
+ * Each test talks to a real server on a free loopback port.
+ */
+class ThermostatServerTest {
+
+  private ThermostatServer server;
+
+  @AfterEach
+  void tearDown() {
+    if(server != null) {
+      server.close();
+    }
+  }
+
+  /**
+   * Test pipelined commands are acknowledged in order with their result codes
+   */
+  @Test
+  void testPipelinedSetTargets() throws IOException {
+    server = new ThermostatServer(List.of(new ThermostatModel(), new ThermostatModel()), 0, 0);
+    server.run();
+
+    try(SocketChannel channel = connect()) {
+      ByteBuffer out = ByteBuffer.allocate(4 * ThermostatProtocol.SET_TARGET_SIZE);
+      ThermostatProtocol.putSetTarget(out, 1, 0, 225);
+      ThermostatProtocol.putSetTarget(out, 2, 1, 500);
+      ThermostatProtocol.putSetTarget(out, 3, 7, 200);
+      ThermostatProtocol.putSetTarget(out, 4, 1, 180);
+      write(channel, out);
+
+      ByteBuffer in = read(channel, 4 * ThermostatProtocol.ACK_SIZE);
+      byte[] expected = {Setpoints.ACCEPTED, Setpoints.ABOVE_MAX,
+          ThermostatProtocol.UNKNOWN_ZONE, Setpoints.ACCEPTED};
+      for(int i = 0; i < expected.length; i++) {
+        assertEquals(ThermostatProtocol.ACK_SIZE - 4, in.getInt());
+        assertEquals(ThermostatProtocol.ACK, in.get());
+        assertEquals(i + 1, in.getInt());
+        assertEquals(expected[i], in.get());
+      }
+    }
+  }
+
+  /**
+   * Test a subscriber gets every zone once, then only the zones that change
+   */
+  @Test
+  void testStateStreaming() throws IOException {
+    server = new ThermostatServer(new ThermostatFleet(3), 0, 0);
+    server.run();
+
+    try(SocketChannel channel = connect()) {
+      ByteBuffer out = ByteBuffer.allocate(64);
+      ThermostatProtocol.putSubscribe(out);
+      write(channel, out);
+
+      ByteBuffer snapshot = read(channel, 3 * ThermostatProtocol.STATE_SIZE);
+      for(int zone = 0; zone < 3; zone++) {
+        snapshot.position(zone * ThermostatProtocol.STATE_SIZE + 4);
+        assertEquals(ThermostatProtocol.STATE, snapshot.get());
+        assertEquals(zone, snapshot.getInt());
+        assertEquals(200, snapshot.getShort());
+      }
+
+      out.clear();
+      ThermostatProtocol.putSetTarget(out, 9, 2, 215);
+      write(channel, out);
+
+      // the ACK, then a STATE for zone 2 only
+      ByteBuffer in = read(channel, ThermostatProtocol.ACK_SIZE + ThermostatProtocol.STATE_SIZE);
+      in.position(ThermostatProtocol.ACK_SIZE + 4);
+      assertEquals(ThermostatProtocol.STATE, in.get());
+      assertEquals(2, in.getInt());
+      assertEquals(200, in.getShort());
+      assertEquals(215, in.getShort());
+    }
+  }
+
+  /**
+   * Test commands pipelined on several connections at once, while the fleet ticks, are all accepted
+   */
+  @Test
+  void testConcurrentConnections() throws Exception {
+    ThermostatFleet fleet = new ThermostatFleet(100);
+    server = new ThermostatServer(fleet, 0, 10);
+    server.run();
+
+    int commands = 2_000;
+    Throwable[] failures = new Throwable[4];
+    Thread[] threads = new Thread[failures.length];
+    for(int c = 0; c < threads.length; c++) {
+      final int connection = c;
+      threads[c] = new Thread(() -> {
+        try(SocketChannel channel = connect()) {
+          ByteBuffer out = ByteBuffer.allocate(commands * ThermostatProtocol.SET_TARGET_SIZE);
+          for(int i = 0; i < commands; i++) {
+            ThermostatProtocol.putSetTarget(out, i, (connection * 25 + i) % 100, 150 + connection);
+          }
+          write(channel, out);
+
+          ByteBuffer in = read(channel, commands * ThermostatProtocol.ACK_SIZE);
+          for(int i = 0; i < commands; i++) {
+            in.position(i * ThermostatProtocol.ACK_SIZE + 5);
+            assertEquals(i, in.getInt());
+            assertEquals(Setpoints.ACCEPTED, in.get());
+          }
+        } catch (Throwable e) {
+          failures[connection] = e;
+        }
+      });
+      threads[c].start();
+    }
+    for(int c = 0; c < threads.length; c++) {
+      threads[c].join();
+      if(failures[c] != null) {
+        throw new AssertionError("Connection " + c + " failed", failures[c]);
+      }
+    }
+  }
+
+  private InetSocketAddress address() {
+    return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  private SocketChannel connect() throws IOException {
+    return SocketChannel.open(address());
+  }
+
+  private static void write(SocketChannel channel, ByteBuffer out) throws IOException {
+    out.flip();
+    while(out.hasRemaining()) {
+      channel.write(out);
+    }
+  }
+
+  private static ByteBuffer read(SocketChannel channel, int bytes) throws IOException {
+    ByteBuffer in = ByteBuffer.allocate(bytes);
+    while(in.hasRemaining()) {
+      if(channel.read(in) < 0) {
+        fail("Server closed the connection");
+      }
+    }
+    return in.flip();
+  }
+}
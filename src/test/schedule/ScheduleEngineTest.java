@@ -0,0 +1,128 @@
+package test.schedule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import main.model.ThermostatModel;
+import main.schedule.ScheduleEngine;
+import main.schedule.WeeklyProgram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for WeeklyProgram and ScheduleEngine.
+ * The engine must set the same targets as looking every zone's program up each minute.
+ */
+class ScheduleEngineTest {
+
+  private static final int MONDAY_7_00 = 7 * 60;
+
+  private WeeklyProgram office;
+  private List<ThermostatModel> zones;
+
+  @BeforeEach
+  void setUp() {
+    office = WeeklyProgram.builder()
+        .daily(7, 0, 21.5)
+        .daily(18, 30, 17.0)
+        .at(DayOfWeek.SATURDAY, 7, 0, 16.0)
+        .at(DayOfWeek.SUNDAY, 7, 0, 16.0)
+        .build();
+    zones = new ArrayList<>();
+    for(int i = 0; i < 4; i++) {
+      zones.add(new ThermostatModel());
+    }
+  }
+
+  /**
+   * Test the target in effect wraps around the week and later duplicates win
+   */
+  @Test
+  void testProgramLookup() {
+    assertEquals(14, office.size());
+    assertEquals(170, office.tenthsAt(0)); // Monday 00:00 still has Sunday evening's target
+    assertEquals(215, office.tenthsAt(MONDAY_7_00));
+    assertEquals(215, office.tenthsAt(MONDAY_7_00 + 60));
+    assertEquals(160, office.tenthsAt(WeeklyProgram.minuteOfWeek(LocalDateTime.of(2026, 10, 17, 12, 0))));
+
+    WeeklyProgram overridden = WeeklyProgram.builder().atMinute(10, 20.0).atMinute(10, 22.0).build();
+    assertEquals(1, overridden.size());
+    assertEquals(220, overridden.tenthsAt(500));
+
+    assertThrows(IllegalArgumentException.class, () -> WeeklyProgram.builder().daily(24, 0, 20.0));
+    assertThrows(IllegalArgumentException.class, () -> WeeklyProgram.builder().daily(6, 0, 20.05));
+    assertThrows(IllegalStateException.class, () -> WeeklyProgram.builder().build());
+  }
+
+  /**
+   * Test equal programs are shared and assigning sets the current target right away
+   */
+  @Test
+  void testFlyweights() {
+    ScheduleEngine engine = new ScheduleEngine(zones, MONDAY_7_00 + 1);
+    WeeklyProgram copy = WeeklyProgram.builder()
+        .daily(18, 30, 17.0)
+        .daily(7, 0, 21.5)
+        .at(DayOfWeek.SUNDAY, 7, 0, 16.0)
+        .at(DayOfWeek.SATURDAY, 7, 0, 16.0)
+        .build();
+    assertEquals(office, copy);
+
+    engine.assign(0, office);
+    engine.assign(1, copy);
+    assertSame(engine.getProgram(0), engine.getProgram(1));
+    assertEquals(1, engine.getProgramCount());
+    assertEquals(215, zones.get(1).getTargetTenths());
+
+    engine.unassign(0);
+    engine.unassign(1);
+    assertEquals(0, engine.getProgramCount());
+    assertNull(engine.getProgram(0));
+  }
+
+  /**
+   * Test a whole week minute by minute matches per-zone lookups, across the wrap-around
+   */
+  @Test
+  void testMatchesLookupEveryMinute() {
+    WeeklyProgram home = WeeklyProgram.builder()
+        .daily(6, 15, 20.5)
+        .daily(8, 0, 18.0)
+        .daily(17, 0, 21.0)
+        .daily(22, 30, 18.5)
+        .build();
+    int start = WeeklyProgram.MINUTES_PER_WEEK - 90; // Sunday 22:30
+    ScheduleEngine engine = new ScheduleEngine(zones, start);
+    engine.assign(0, office);
+    engine.assign(1, home);
+    engine.assign(2, office);
+    WeeklyProgram[] expected = {office, home, office, null};
+
+    int changes = 0;
+    for(int step = 1; step <= WeeklyProgram.MINUTES_PER_WEEK; step++) {
+      int m = (start + step) % WeeklyProgram.MINUTES_PER_WEEK;
+      changes += engine.advanceTo(m);
+      for(int zone = 0; zone < 3; zone++) {
+        assertEquals(expected[zone].tenthsAt(m), zones.get(zone).getTargetTenths(), "minute " + m);
+      }
+    }
+    assertEquals(2 * 14 + 28, changes);
+    assertEquals(200, zones.get(3).getTargetTenths()); // never assigned, never touched
+  }
+
+  /**
+   * Test a jump over several transitions applies them in order, so the last one wins
+   */
+  @Test
+  void testJumpAppliesLatest() {
+    ScheduleEngine engine = new ScheduleEngine(zones, 0);
+    engine.assign(0, office);
+    assertEquals(3, engine.advanceTo(MONDAY_7_00 + WeeklyProgram.MINUTES_PER_DAY)); // Tuesday 07:00
+    assertEquals(215, zones.get(0).getTargetTenths());
+    assertEquals(0, engine.advanceTo(engine.getMinute()));
+    assertThrows(IllegalArgumentException.class, () -> engine.advanceTo(WeeklyProgram.MINUTES_PER_WEEK));
+  }
+}
@@ -0,0 +1,106 @@
+package test.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import main.scheduler.TimingWheelScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TimingWheelScheduler.
+ * The wheel is driven by hand (no driver thread) and batches run on the calling thread.
+ */
+class TimingWheelSchedulerTest {
+
+  private static final long TICK_MS = 10;
+
+  private TimingWheelScheduler scheduler;
+  private List<Runnable> batches;
+
+  @BeforeEach
+  void setUp() {
+    batches = new ArrayList<>();
+    scheduler = new TimingWheelScheduler(TICK_MS, batch -> {
+      batches.add(batch);
+      batch.run();
+    });
+  }
+
+  private void advance(long ticks) {
+    for(long i = 0; i < ticks; i++) {
+      scheduler.advance();
+    }
+  }
+
+  /**
+   * Test one-shot timeouts fire exactly once, on the right tick, at every wheel level
+   */
+  @Test
+  void testOneShotFiresOnTime() {
+    long[] delays = {1, 63, 64, 65, 4095, 4096, 300_000};
+    for(long delay : delays) {
+      int[] fired = {0};
+      scheduler.schedule(() -> fired[0]++, delay * TICK_MS);
+
+      advance(delay);
+      assertEquals(0, fired[0], "fired early for delay " + delay);
+
+      scheduler.advance();
+      assertEquals(1, fired[0], "did not fire for delay " + delay);
+
+      advance(100);
+      assertEquals(1, fired[0], "fired twice for delay " + delay);
+    }
+    assertEquals(0, scheduler.getPendingCount());
+  }
+
+  /**
+   * Test a cancelled timeout never runs
+   */
+  @Test
+  void testCancel() {
+    int[] fired = {0};
+    TimingWheelScheduler.Timeout timeout = scheduler.schedule(() -> fired[0]++, 3000);
+    assertEquals(1, scheduler.getPendingCount());
+
+    timeout.cancel();
+    assertEquals(0, scheduler.getPendingCount());
+    assertTrue(timeout.isCancelled());
+
+    advance(1000);
+    assertEquals(0, fired[0]);
+  }
+
+  /**
+   * Test periodic tasks fire once per period until cancelled
+   */
+  @Test
+  void testFixedRate() {
+    int[] fired = {0};
+    TimingWheelScheduler.Timeout timeout = scheduler.scheduleAtFixedRate(() -> fired[0]++, 1000);
+
+    advance(100 * 10 + 1);
+    assertEquals(10, fired[0]);
+
+    timeout.cancel();
+    advance(1000);
+    assertEquals(10, fired[0]);
+  }
+
+  /**
+   * Test timeouts due on the same tick are dispatched as one batch
+   */
+  @Test
+  void testSameTickIsOneBatch() {
+    int[] fired = {0};
+    for(int i = 0; i < 1000; i++) {
+      scheduler.schedule(() -> fired[0]++, 1000);
+    }
+
+    advance(101);
+    assertEquals(1000, fired[0]);
+    assertEquals(1, batches.size());
+  }
+}
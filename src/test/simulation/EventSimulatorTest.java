@@ -0,0 +1,118 @@
+package test.simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import main.model.IThermostatModel;
+import main.model.ThermostatModel;
+import main.simulation.EventSimulator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for EventSimulator.
+ * The event-driven result must match stepping every zone every tick.
+ */
+class EventSimulatorTest {
+
+  private EventSimulator simulator;
+
+  /**
+   * Sets up an empty simulator before each test.
+   */
+  @BeforeEach
+  void setUp() {
+    simulator = new EventSimulator();
+  }
+
+  /**
+   * Test listeners only hear about setpoints and settling, at the right ticks
+   */
+  @Test
+  void testEventsOnlyAtTransitions() {
+    int zone = simulator.addZone(new ThermostatModel());
+    List<String> events = new ArrayList<>();
+    simulator.addListener((tick, z, model, event) ->
+        events.add(tick + ":" + event + ":" + model.getCurrentTenths()));
+
+    simulator.scheduleSetpoint(zone, 10, 21.0);
+    assertEquals(10, simulator.nextEventTick());
+
+    // 10 steps to 21.0 after tick 10, idle on tick 21
+    assertEquals(2, simulator.runUntil(1_000_000));
+    assertEquals(List.of("10:1:200", "21:2:210"), events);
+    assertEquals(-1, simulator.nextEventTick());
+    assertEquals(1_000_000, simulator.getTick());
+  }
+
+  /**
+   * Test random setpoints across many zones end up exactly where stepping gets them
+   */
+  @Test
+  void testMatchesTickByTick() {
+    int zones = 20;
+    int ticks = 500;
+    Random random = new Random(7);
+    ThermostatModel[] stepped = new ThermostatModel[zones];
+    double[][] plan = new double[ticks + 1][zones]; // 0 = no setpoint
+
+    for(int zone = 0; zone < zones; zone++) {
+      stepped[zone] = new ThermostatModel();
+      simulator.addZone(new ThermostatModel());
+    }
+    for(int i = 0; i < 60; i++) {
+      int tick = random.nextInt(ticks + 1);
+      int zone = random.nextInt(zones);
+      double target = (100 + random.nextInt(251)) / 10.0;
+      plan[tick][zone] = target;
+    }
+    for(int tick = 0; tick <= ticks; tick++) {
+      for(int zone = 0; zone < zones; zone++) {
+        if(plan[tick][zone] != 0) {
+          simulator.scheduleSetpoint(zone, tick, plan[tick][zone]);
+        }
+      }
+    }
+
+    for(int tick = 0; tick <= ticks; tick++) {
+      if(tick > 0) {
+        for(ThermostatModel model : stepped) {
+          model.updateSystem();
+        }
+      }
+      for(int zone = 0; zone < zones; zone++) {
+        if(plan[tick][zone] != 0) {
+          stepped[zone].setTargetTemperature(plan[tick][zone]);
+        }
+      }
+
+      // check along the way too, every 50 ticks
+      if(tick % 50 == 0) {
+        simulator.runUntil(tick);
+        for(int zone = 0; zone < zones; zone++) {
+          IThermostatModel model = simulator.getZone(zone);
+          assertEquals(stepped[zone].getCurrentTenths(), model.getCurrentTenths());
+          assertEquals(stepped[zone].getTargetTenths(), model.getTargetTenths());
+          assertEquals(stepped[zone].isHeating(), model.isHeating());
+          assertEquals(stepped[zone].isCooling(), model.isCooling());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test setpoints in the past or with invalid values are rejected up front
+   */
+  @Test
+  void testRejectsBadSetpoints() {
+    int zone = simulator.addZone(new ThermostatModel());
+    simulator.runUntil(5);
+
+    assertThrows(IllegalArgumentException.class, () -> simulator.scheduleSetpoint(zone, 4, 21.0));
+    assertThrows(IllegalArgumentException.class, () -> simulator.scheduleSetpoint(zone, 6, 9.9));
+    assertThrows(IllegalArgumentException.class, () -> simulator.scheduleSetpoint(zone, 6, 20.05));
+    assertThrows(IllegalArgumentException.class, () -> simulator.runUntil(4));
+  }
+}
@@ -0,0 +1,90 @@
+package test.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import main.controller.ThermostatController;
+import main.model.ThermostatModel;
+import main.scheduler.TimingWheelScheduler;
+import main.view.HeadlessThermostatView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for HeadlessThermostatView.
+ * Driven by a real controller and model on a manually advanced scheduler.
+ */
+class HeadlessThermostatViewTest {
+
+  private TimingWheelScheduler scheduler;
+  private ThermostatModel model;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = new TimingWheelScheduler(10, Runnable::run);
+    model = new ThermostatModel();
+  }
+
+  /**
+   * Test submitted input reaches the model and the display history follows the ticks
+   */
+  @Test
+  void testControllerRoundTrip() {
+    HeadlessThermostatView view = new HeadlessThermostatView(4);
+    new ThermostatController(model, view, scheduler).run();
+    assertTrue(view.isVisible());
+    assertEquals(200, view.getCurrentTenths(0));
+
+    view.submit(" 20.3 ");
+    assertEquals("Target set to 20.3°C", view.getLastMessage());
+    assertFalse(view.isLastMessageError());
+    assertEquals("", view.getInput());
+
+    // 100 wheel ticks per controller tick, plus the one a new timeout waits for the wheel
+    for(int tick = 0; tick < 3 * 100 + 1; tick++) {
+      scheduler.advance();
+    }
+    assertEquals(203, view.getCurrentTenths(0));
+    assertEquals(203, view.getTargetTenths(0));
+    assertTrue(view.isHeating(0));
+    assertEquals(202, view.getCurrentTenths(1));
+    assertFalse(view.isCooling(1));
+  }
+
+  /**
+   * Test only the most recent updates are kept
+   */
+  @Test
+  void testHistoryWrapsAround() {
+    HeadlessThermostatView view = new HeadlessThermostatView(3); // rounded up to 4
+    for(int i = 0; i < 10; i++) {
+      view.updateDisplay(20.0 + i / 10.0, 25.0, true, false);
+    }
+    assertEquals(10, view.getUpdateCount());
+    assertEquals(4, view.getHistorySize());
+    assertEquals(209, view.getCurrentTenths(0));
+    assertEquals(206, view.getCurrentTenths(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.getCurrentTenths(4));
+  }
+
+  /**
+   * Test errors are reported and the log only gets changed displays
+   */
+  @Test
+  void testLogSink() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    HeadlessThermostatView view = new HeadlessThermostatView(8,
+        new PrintStream(bytes, true, StandardCharsets.UTF_8));
+    new ThermostatController(model, view, scheduler).run();
+
+    view.submit("abc");
+    assertTrue(view.isLastMessageError());
+    view.updateDisplay(20.0, 20.0, false, false); // same as the initial display
+
+    String expected = "20.0°C -> 20.0°C idle" + System.lineSeparator()
+        + "[error] Please enter a valid number" + System.lineSeparator();
+    assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,175 @@
+package test.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+import main.scheduler.TimingWheelScheduler;
+import main.view.ThermostatPanel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ThermostatPanel.
+ * Lightweight components only, so these run without a display; repaints are counted by
+ * a RepaintManager that records the components it is asked to repaint.
+ */
+class ThermostatPanelTest {
+
+  private TimingWheelScheduler scheduler;
+  private RepaintManager previousManager;
+  private final List<JComponent> repainted = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    scheduler = new TimingWheelScheduler(10, Runnable::run); // never started
+    SwingUtilities.invokeAndWait(() -> {
+      previousManager = RepaintManager.currentManager(null);
+      RepaintManager.setCurrentManager(new RepaintManager() {
+        @Override
+        public void addDirtyRegion(JComponent component, int x, int y, int width, int height) {
+          repainted.add(component);
+        }
+
+        @Override
+        public void addInvalidComponent(JComponent component) {
+          // no layout without a window
+        }
+      });
+    });
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    SwingUtilities.invokeAndWait(() -> RepaintManager.setCurrentManager(previousManager));
+  }
+
+  /**
+   * Test an unchanged display repaints nothing and a change repaints only what changed
+   */
+  @Test
+  void testRepaintsOnlyChanges() throws Exception {
+    SwingUtilities.invokeAndWait(() -> {
+      ThermostatPanel panel = new ThermostatPanel(10.0, 35.0, true, scheduler, null);
+      panel.updateDisplay(20.0, 22.0, true, false);
+      assertFalse(repainted.isEmpty());
+
+      repainted.clear();
+      panel.updateDisplay(20.0, 22.0, true, false);
+      assertEquals(List.of(), texts());
+
+      panel.updateDisplay(20.1, 22.0, true, false);
+      assertEquals(List.of("20.1"), texts());
+
+      repainted.clear();
+      panel.updateDisplay(20.1, 22.0, false, false);
+      assertTrue(texts().containsAll(List.of("Status: Idle", "HEAT")));
+      assertFalse(texts().contains("COOL"));
+      assertFalse(texts().contains("20.1"));
+    });
+  }
+
+  /**
+   * Test fast start: listeners, a message and the status given before the controls exist
+   * are handed over when they are added, and the first paint is reported once
+   */
+  @Test
+  void testDeferredControls() throws Exception {
+    int[] clicks = new int[1];
+    int[] firstPaints = new int[1];
+    ThermostatPanel[] created = new ThermostatPanel[1];
+    SwingUtilities.invokeAndWait(() -> {
+      ThermostatPanel panel = new ThermostatPanel(10.0, 35.0, false, scheduler, () -> firstPaints[0]++);
+      created[0] = panel;
+      panel.addListener(event -> clicks[0]++);
+      panel.showMessage("Restored 21.5°C", false);
+      panel.updateDisplay(20.0, 21.5, true, false);
+      panel.clearInput();
+      assertEquals("", panel.getInput());
+      assertFalse(panel.hasControls());
+      assertTrue(find(panel, JButton.class).isEmpty());
+
+      paint(panel);
+      paint(panel);
+      assertEquals(1, firstPaints[0]);
+
+      panel.addControls();
+      panel.addControls(); // only once
+      assertTrue(panel.hasControls());
+      List<JButton> buttons = find(panel, JButton.class);
+      assertEquals(1, buttons.size());
+      buttons.get(0).doClick();
+      assertEquals(1, clicks[0]);
+      List<String> labels = find(panel, JLabel.class).stream().map(JLabel::getText).toList();
+      assertTrue(labels.contains("Restored 21.5°C"));
+      assertTrue(labels.contains("Status: Heating"));
+    });
+
+    // the message is cleared after three seconds
+    for(int tick = 0; tick < 300 + 1; tick++) {
+      scheduler.advance();
+    }
+    SwingUtilities.invokeAndWait(() -> {
+      List<String> labels = find(created[0], JLabel.class).stream().map(JLabel::getText).toList();
+      assertFalse(labels.contains("Restored 21.5°C"));
+    });
+  }
+
+  /**
+   * Lays out and paints a panel into an image, as a window would
+   */
+  private static void paint(ThermostatPanel panel) {
+    panel.setSize(400, 300);
+    layout(panel);
+    BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      panel.paint(g);
+    } finally {
+      g.dispose();
+    }
+  }
+
+  private static void layout(Container container) {
+    container.doLayout();
+    for(Component child : container.getComponents()) {
+      if(child instanceof Container nested) {
+        layout(nested);
+      }
+    }
+  }
+
+  private static <T extends Component> List<T> find(Container container, Class<T> type) {
+    List<T> found = new ArrayList<>();
+    for(Component child : container.getComponents()) {
+      if(type.isInstance(child)) {
+        found.add(type.cast(child));
+      }
+      if(child instanceof Container nested) {
+        found.addAll(find(nested, type));
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Gets the distinct texts of the labels repainted since the last clear
+   */
+  private List<String> texts() {
+    return repainted.stream()
+        .filter(component -> component instanceof JLabel)
+        .map(component -> ((JLabel) component).getText())
+        .distinct()
+        .toList();
+  }
+}
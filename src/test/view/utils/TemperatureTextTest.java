@@ -0,0 +1,54 @@
+package test.view.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import main.view.utils.TemperatureText;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TemperatureText.
+ * Values on a 0.1°C step inside the range come from the table, everything else is formatted.
+ */
+class TemperatureTextTest {
+
+  /**
+   * Test steps inside the range are formatted once and shared
+   */
+  @Test
+  void testStepsInRangeAreShared() {
+    TemperatureText text = new TemperatureText(10.0, 35.0);
+
+    assertEquals("10.0", text.format(10.0));
+    assertEquals("20.5", text.format(20.5));
+    assertEquals("35.0", text.format(35.0));
+    assertSame(text.format(20.1), text.format(20.1));
+    assertSame(text.format(20.1), text.format(201 / 10.0));
+  }
+
+  /**
+   * Test values outside the range or between steps are still formatted with one decimal
+   */
+  @Test
+  void testOtherValuesAreFormatted() {
+    TemperatureText text = new TemperatureText(10.0, 35.0);
+
+    assertEquals("9.9", text.format(9.9));
+    assertNotSame(text.format(9.9), text.format(9.9));
+    assertEquals("35.1", text.format(35.1));
+    assertEquals("-3.0", text.format(-3.0));
+    assertEquals("20.3", text.format(20.25)); // between steps, rounded half up
+    assertNotSame(text.format(20.3), text.format(20.25));
+  }
+
+  /**
+   * Test the table follows the range it was built for
+   */
+  @Test
+  void testCustomRange() {
+    TemperatureText text = new TemperatureText(5.0, 6.0);
+
+    assertSame(text.format(5.5), text.format(5.5));
+    assertNotSame(text.format(20.0), text.format(20.0));
+    assertEquals("20.0", text.format(20.0));
+  }
+}